@@ -0,0 +1,341 @@
+package com.ripe_bananas.banana_bean.bulkload;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads the dataset from one CSV file per table, <table>.csv or
+ * <table>.csv.gz with a header naming the columns, through COPY FROM
+ * STDIN. Every table is copied on its own connection as soon as the tables
+ * it references are loaded, several at a time. The tables are created
+ * without constraints and truncated in the same transaction of the COPY
+ * (COPY FREEZE, no later vacuum needed); the primary keys and the
+ * secondary indexes are then built in parallel, the foreign keys after
+ * them. Last the tables are analyzed and the migrations of banana_stem
+ * (trigram indexes, movie_search) are applied.
+ *
+ * Settings (-Pbulkload.name=value): dir (directory of the CSV files, .),
+ * threads (tables loaded and indexes built at the same time, 4),
+ * maintenance_work_mem (memory of each index build, 512MB), migrations
+ * (directory of the migrations, ../banana_stem/migrations, none to skip
+ * them), recreate (false, drop the existing tables first).
+ */
+public class BulkLoader {
+
+  private static final Pattern COLUMN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  private static final Pattern MEMORY = Pattern.compile("[0-9]+[kMG]?B");
+
+  private final Path dir;
+
+  private final ExecutorService executor;
+
+  private final String maintenance_work_mem;
+
+  /**
+   * Table name to rows loaded, in completion order.
+   */
+  private final Map<String, Long> loaded =
+    Collections.synchronizedMap(new LinkedHashMap<>());
+
+  public BulkLoader(Path dir, int threads, String maintenance_work_mem) {
+    if (MEMORY.matcher(maintenance_work_mem).matches() == false) {
+      throw new IllegalArgumentException("Invalid maintenance_work_mem: " +
+        maintenance_work_mem);
+    }
+    this.dir = dir;
+    this.executor = Executors.newFixedThreadPool(threads);
+    this.maintenance_work_mem = maintenance_work_mem;
+  }
+
+  private static void report(String task, long rows, long started) {
+    double seconds = (System.nanoTime() - started) / 1e9;
+    if (rows < 0) {
+      System.out.printf("%s: done in %.1fs%n", task, seconds);
+    } else {
+      System.out.printf("%s: %d rows in %.1fs (%.0f rows/s)%n", task, rows,
+        seconds, rows / Math.max(seconds, 1e-9));
+    }
+  }
+
+  /**
+   * Statements of a migration file, split at the semicolons ending a line,
+   * the comment lines are dropped.
+   */
+  private static List<String> statements(Path file) throws IOException {
+    StringBuilder sql = new StringBuilder();
+    for (String line : Files.readAllLines(file)) {
+      if (line.trim().startsWith("--") == false) {
+        sql.append(line).append('\n');
+      }
+    }
+
+    List<String> statements = new ArrayList<>();
+    for (String statement : sql.toString().split(";\\s*\n")) {
+      if (statement.isBlank() == false) {
+        statements.add(statement.trim());
+      }
+    }
+
+    return statements;
+  }
+
+  private static void rethrow(CompletionException e) throws SQLException,
+    IOException {
+    if (e.getCause() instanceof SQLException sql) {
+      throw sql;
+    }
+    if (e.getCause() instanceof UncheckedIOException io) {
+      throw io.getCause();
+    }
+
+    throw e;
+  }
+
+  private Path source(DatasetTable table) {
+    Path csv = dir.resolve(table.tableName() + ".csv");
+    if (Files.exists(csv) == false) {
+      Path gzip = dir.resolve(table.tableName() + ".csv.gz");
+      if (Files.exists(gzip) == true) {
+        return gzip;
+      }
+    }
+
+    return csv;
+  }
+
+  private static InputStream open(Path file) throws IOException {
+    InputStream input = new BufferedInputStream(Files.newInputStream(file),
+      1 << 16);
+    if (file.getFileName().toString().endsWith(".gz") == true) {
+      return new GZIPInputStream(input, 1 << 16);
+    }
+
+    return input;
+  }
+
+  /**
+   * Columns named by the header of the file, so that the columns of the
+   * CSV can be in any order.
+   */
+  private static List<String> header(Path file) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+      open(file), StandardCharsets.UTF_8))) {
+      String line = reader.readLine();
+      if (line == null) {
+        throw new IOException(file + " is empty");
+      }
+
+      List<String> columns = new ArrayList<>();
+      for (String column : line.split(",")) {
+        String name = column.replace("\"", "").trim().toLowerCase();
+        if (COLUMN.matcher(name).matches() == false) {
+          throw new IOException("Invalid column " + column + " in " + file);
+        }
+        columns.add(name);
+      }
+
+      return columns;
+    }
+  }
+
+  private void createSchema(boolean recreate) throws SQLException {
+    try (Connection connection = BulkloadConfig.connect();
+         Statement statement = connection.createStatement()) {
+      if (recreate == true) {
+        statement.execute("DROP MATERIALIZED VIEW IF EXISTS movie_search");
+        List<DatasetTable> tables =
+          new ArrayList<>(List.of(DatasetTable.values()));
+        Collections.reverse(tables);
+        for (DatasetTable table : tables) {
+          statement.execute("DROP TABLE IF EXISTS " + table.tableName() +
+            " CASCADE");
+        }
+      } else {
+        ResultSet movies = statement.executeQuery(
+          "SELECT to_regclass('movies') IS NOT NULL");
+        if (movies.next() == true && movies.getBoolean(1) == true) {
+          throw new IllegalStateException("movies already exists, run with " +
+            "-Pbulkload.recreate=true to replace the dataset");
+        }
+      }
+
+      for (DatasetTable table : DatasetTable.values()) {
+        statement.execute(table.createTable());
+      }
+    }
+  }
+
+  private long copy(DatasetTable table) throws SQLException, IOException {
+    Path file = source(table);
+    if (Files.exists(file) == false) {
+      System.out.printf("%s: skipped, no %s%n", table.tableName(), file);
+      return 0;
+    }
+
+    String sql = "COPY " + table.tableName() + " (" +
+      String.join(", ", header(file)) + ") FROM STDIN " +
+      "WITH (FORMAT csv, HEADER true, FREEZE true)";
+    long started = System.nanoTime();
+    try (Connection connection = BulkloadConfig.connect();
+         Statement statement = connection.createStatement();
+         InputStream input = open(file)) {
+      connection.setAutoCommit(false);
+      // FREEZE needs the table to be emptied in the same transaction
+      statement.execute("TRUNCATE " + table.tableName());
+      CopyManager copy = connection.unwrap(PGConnection.class)
+        .getCopyAPI();
+      long rows = copy.copyIn(sql, input, 1 << 16);
+      connection.commit();
+
+      report(table.tableName(), rows, started);
+      return rows;
+    }
+  }
+
+  /**
+   * Every table is copied once all the tables it references are.
+   */
+  private void load() throws SQLException, IOException {
+    Map<DatasetTable, CompletableFuture<Void>> tables =
+      new EnumMap<>(DatasetTable.class);
+    for (DatasetTable table : DatasetTable.values()) {
+      CompletableFuture<?>[] parents = table.parents().stream()
+        .map(tables::get).toArray(CompletableFuture[]::new);
+      tables.put(table, CompletableFuture.allOf(parents).thenRunAsync(() -> {
+        try {
+          loaded.put(table.tableName(), copy(table));
+        } catch (SQLException e) {
+          throw new CompletionException(e);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor));
+    }
+
+    try {
+      CompletableFuture.allOf(tables.values()
+        .toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      rethrow(e);
+    }
+  }
+
+  private CompletableFuture<Void> execute(String sql) {
+    return CompletableFuture.runAsync(() -> {
+      long started = System.nanoTime();
+      try (Connection connection = BulkloadConfig.connect();
+           Statement statement = connection.createStatement()) {
+        statement.execute("SET maintenance_work_mem = '" +
+          maintenance_work_mem + "'");
+        statement.execute(sql);
+      } catch (SQLException e) {
+        throw new CompletionException(new SQLException(sql + ": " +
+          e.getMessage(), e.getSQLState(), e));
+      }
+      report(sql, -1, started);
+    }, executor);
+  }
+
+  private void executeAll(List<String> sql) throws SQLException, IOException {
+    try {
+      CompletableFuture.allOf(sql.stream().map(this::execute)
+        .toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      rethrow(e);
+    }
+  }
+
+  /**
+   * Primary keys and indexes of all the tables at the same time, then the
+   * foreign keys, which are checked against the primary keys just built.
+   */
+  private void buildConstraints() throws SQLException, IOException {
+    List<String> indexes = new ArrayList<>();
+    List<String> foreign_keys = new ArrayList<>();
+    for (DatasetTable table : DatasetTable.values()) {
+      indexes.add(table.addPrimaryKey());
+      indexes.addAll(table.createIndexes());
+      foreign_keys.addAll(table.addForeignKeys());
+    }
+
+    executeAll(indexes);
+    executeAll(foreign_keys);
+  }
+
+  /**
+   * ANALYZE and the migrations, one statement at a time in autocommit as
+   * their CREATE INDEX CONCURRENTLY require.
+   */
+  private void finish(Path migrations) throws SQLException, IOException {
+    try (Connection connection = BulkloadConfig.connect();
+         Statement statement = connection.createStatement()) {
+      long started = System.nanoTime();
+      statement.execute("ANALYZE");
+      report("ANALYZE", -1, started);
+
+      if (migrations == null || Files.isDirectory(migrations) == false) {
+        return;
+      }
+      List<Path> files;
+      try (Stream<Path> listing = Files.list(migrations)) {
+        files = listing.filter(file -> file.toString().endsWith(".sql"))
+          .sorted().toList();
+      }
+      for (Path file : files) {
+        started = System.nanoTime();
+        for (String sql : statements(file)) {
+          statement.execute(sql);
+        }
+        report(file.getFileName().toString(), -1, started);
+      }
+    }
+  }
+
+  public void run(boolean recreate, Path migrations) throws SQLException,
+    IOException {
+    long started = System.nanoTime();
+    try {
+      createSchema(recreate);
+      load();
+      buildConstraints();
+      finish(migrations);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long rows = 0;
+    for (long table_rows : loaded.values()) {
+      rows += table_rows;
+    }
+    report("dataset", rows, started);
+  }
+
+  public static void main(String[] args) throws SQLException, IOException {
+    String migrations = BulkloadConfig.string("migrations",
+      "../banana_stem/migrations");
+
+    BulkLoader loader = new BulkLoader(
+      Path.of(BulkloadConfig.string("dir", ".")),
+      BulkloadConfig.integer("threads", 4),
+      BulkloadConfig.string("maintenance_work_mem", "512MB"));
+    loader.run(BulkloadConfig.bool("recreate", false),
+      migrations.equalsIgnoreCase("none") == true ? null :
+        Path.of(migrations));
+  }
+
+}
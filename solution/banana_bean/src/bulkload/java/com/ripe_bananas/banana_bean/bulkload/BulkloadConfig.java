@@ -0,0 +1,52 @@
+package com.ripe_bananas.banana_bean.bulkload;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Settings of the bulk loader, read from the bulkload.* system properties
+ * (gradle bulkload -Pbulkload.dir=/data/letterboxd ...) and, for the
+ * database, from the same environment variables used by the server.
+ */
+public class BulkloadConfig {
+
+  public static String string(String name, String fallback) {
+    String value = System.getProperty("bulkload." + name);
+    if (value == null || value.isBlank() == true) {
+      return fallback;
+    }
+
+    return value.trim();
+  }
+
+  public static int integer(String name, int fallback) {
+    return Integer.parseInt(string(name, String.valueOf(fallback)));
+  }
+
+  public static boolean bool(String name, boolean fallback) {
+    return Boolean.parseBoolean(string(name, String.valueOf(fallback)));
+  }
+
+  /**
+   * Connection to jdbc:${DATABASE_URL} with DB_USERNAME and DB_PASSWORD,
+   * every task of the loader opens its own.
+   */
+  public static Connection connect() throws SQLException {
+    String url = System.getenv("DATABASE_URL");
+    if (url == null || url.isEmpty() == true) {
+      throw new IllegalStateException("DATABASE_URL is not set");
+    }
+
+    Properties properties = new Properties();
+    properties.setProperty("user", System.getenv().getOrDefault("DB_USERNAME",
+      "postgres"));
+    properties.setProperty("password",
+      System.getenv().getOrDefault("DB_PASSWORD", ""));
+    properties.setProperty("ApplicationName", "banana_bean bulkload");
+
+    return DriverManager.getConnection("jdbc:" + url, properties);
+  }
+
+}
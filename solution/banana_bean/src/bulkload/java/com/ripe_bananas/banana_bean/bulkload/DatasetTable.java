@@ -0,0 +1,123 @@
+package com.ripe_bananas.banana_bean.bulkload;
+
+import java.util.List;
+
+/**
+ * Tables of the dataset as mapped by the entities of banana_bean, with
+ * the tables they reference. The columns are created without any
+ * constraint, the primary key, the secondary indexes and the foreign keys
+ * are only added once every table is loaded.
+ */
+public enum DatasetTable {
+
+  MOVIES("movies", List.of(), "id integer NOT NULL, name text NOT NULL, " +
+    "date integer, tagline text, description text, minute integer, " +
+    "rating real", "id", List.of()),
+  GENRES("genres", List.of(), "genre_id integer NOT NULL, " +
+    "genre varchar(50)", "genre_id", List.of()),
+  ACTORS("actors", List.of(), "id integer NOT NULL, name text", "id",
+    List.of()),
+  COUNTRY("country", List.of(), "id integer NOT NULL, name text", "id",
+    List.of()),
+  STUDIO("studio", List.of(), "id integer NOT NULL, name text", "id",
+    List.of()),
+  OSCAR_AWARDS("oscar_awards", List.of(), "id integer NOT NULL, " +
+    "year_film integer, year_ceremony integer, ceremony integer, " +
+    "category text, name text, film text, winner boolean", "id", List.of()),
+  POSTERS("posters", List.of(new Reference("id", MOVIES)),
+    "id integer NOT NULL, link text", "id", List.of()),
+  MOVIE_HAS_GENRES("movie_has_genres", List.of(
+    new Reference("movie_id", MOVIES), new Reference("genre_id", GENRES)),
+    "movie_id integer NOT NULL, genre_id integer NOT NULL",
+    "movie_id, genre_id", List.of("genre_id")),
+  MOVIES_HAVE_ACTORS("movies_have_actors", List.of(
+    new Reference("movie_id", MOVIES), new Reference("actor_id", ACTORS)),
+    "movie_id integer NOT NULL, actor_id integer NOT NULL, " +
+      "role varchar(999) NOT NULL", "movie_id, actor_id, role",
+    List.of("actor_id")),
+  CREW("crew", List.of(new Reference("id", MOVIES)), "id integer NOT NULL, " +
+    "role varchar(999) NOT NULL, name varchar(999) NOT NULL",
+    "id, role, name", List.of()),
+  THEMES("themes", List.of(new Reference("id", MOVIES)),
+    "id integer NOT NULL, theme varchar(999) NOT NULL", "id, theme",
+    List.of()),
+  LANGUAGES("languages", List.of(new Reference("id", MOVIES)),
+    "id integer NOT NULL, type varchar(999) NOT NULL, " +
+      "language varchar(999) NOT NULL", "id, type, language", List.of()),
+  MOVIE_HAVE_STUDIOS("movie_have_studios", List.of(
+    new Reference("movie_id", MOVIES), new Reference("studio_id", STUDIO)),
+    "movie_id integer NOT NULL, studio_id integer NOT NULL",
+    "movie_id, studio_id", List.of("studio_id")),
+  MOVIE_HAVE_COUNTRIES("movie_have_countries", List.of(
+    new Reference("movie_id", MOVIES), new Reference("country_id", COUNTRY)),
+    "movie_id integer NOT NULL, country_id integer NOT NULL",
+    "movie_id, country_id", List.of("country_id")),
+  RELEASES("releases", List.of(new Reference("id", MOVIES),
+    new Reference("country", COUNTRY)), "id integer NOT NULL, " +
+    "country integer NOT NULL, date date NOT NULL, " +
+    "type varchar(999) NOT NULL, rating varchar(999)",
+    "id, country, date, type", List.of("country"));
+
+  /**
+   * Foreign key from column to the primary key of the referenced table.
+   */
+  public record Reference(String column, DatasetTable table) {
+  }
+
+  private final String table_name;
+
+  private final List<Reference> references;
+
+  private final String columns;
+
+  private final String primary_key;
+
+  private final List<String> indexed_columns;
+
+  DatasetTable(String table_name, List<Reference> references, String columns,
+               String primary_key, List<String> indexed_columns) {
+    this.table_name = table_name;
+    this.references = references;
+    this.columns = columns;
+    this.primary_key = primary_key;
+    this.indexed_columns = indexed_columns;
+  }
+
+  public String tableName() {
+    return table_name;
+  }
+
+  public List<Reference> references() {
+    return references;
+  }
+
+  /**
+   * The tables that must be loaded before this one.
+   */
+  public List<DatasetTable> parents() {
+    return references.stream().map(Reference::table).distinct().toList();
+  }
+
+  public String createTable() {
+    return "CREATE TABLE " + table_name + " (" + columns + ")";
+  }
+
+  public String addPrimaryKey() {
+    return "ALTER TABLE " + table_name + " ADD CONSTRAINT " + table_name +
+      "_pkey PRIMARY KEY (" + primary_key + ")";
+  }
+
+  public List<String> createIndexes() {
+    return indexed_columns.stream().map(column -> "CREATE INDEX " +
+      table_name + "_" + column + "_idx ON " + table_name + " (" + column +
+      ")").toList();
+  }
+
+  public List<String> addForeignKeys() {
+    return references.stream().map(reference -> "ALTER TABLE " + table_name +
+      " ADD CONSTRAINT " + table_name + "_" + reference.column() +
+      "_fkey FOREIGN KEY (" + reference.column() + ") REFERENCES " +
+      reference.table().tableName()).toList();
+  }
+
+}
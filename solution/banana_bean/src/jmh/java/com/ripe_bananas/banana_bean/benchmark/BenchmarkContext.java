@@ -0,0 +1,121 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import com.ripe_bananas.banana_bean.BananaBeanApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application context shared by the benchmarks of a fork, without the
+ * web server and with the search cache disabled, so every call reaches the
+ * database.
+ * It connects to the PostgreSQL given by BENCH_DATABASE_URL (a jdbc url,
+ * with BENCH_DB_USERNAME and BENCH_DB_PASSWORD), the schema must already
+ * exist and it is seeded only if it has no movie. Without it an in-memory
+ * H2 database in PostgreSQL mode is used: good enough to compare commits,
+ * not to judge the absolute timings.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+  public static final int FIRST_MOVIE_ID = 1000001;
+
+  private ConfigurableApplicationContext context;
+
+  private int movies;
+
+  private int first_movie_id;
+
+  @Setup(Level.Trial)
+  public void start() {
+    movies = Integer.parseInt(env("BENCH_MOVIES", "20000"));
+    String url = env("BENCH_DATABASE_URL", "");
+
+    Map<String, String> properties = new HashMap<>();
+    if (url.isEmpty() == true) {
+      properties.put("spring.datasource.driverClassName", "org.h2.Driver");
+      properties.put("spring.datasource.url", "jdbc:h2:mem:bench;" +
+        "MODE=PostgreSQL;NON_KEYWORDS=DATE,MINUTE,YEAR,VALUE;DB_CLOSE_DELAY=-1");
+      properties.put("spring.datasource.username", "sa");
+      properties.put("spring.datasource.password", "");
+      properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+    } else {
+      properties.put("spring.datasource.url", url);
+      properties.put("spring.datasource.username",
+        env("BENCH_DB_USERNAME", "postgres"));
+      properties.put("spring.datasource.password",
+        env("BENCH_DB_PASSWORD", ""));
+    }
+    properties.put("spring.jpa.show-sql", "false");
+    properties.put("spring.cache.type", "none");
+    properties.put("spring.threads.virtual.enabled", "false");
+    properties.put("banana_bean.autocomplete.initial-delay", "86400000");
+    properties.put("banana_bean.movie-search.initial-delay", "86400000");
+    properties.put("banana_bean.actor-graph.initial-delay", "86400000");
+    properties.put("banana_bean.similar-movies.initial-delay", "86400000");
+    properties.put("banana_bean.oscar-stats.initial-delay", "86400000");
+
+    // passed as command line arguments to override application.properties
+    String[] args = properties.entrySet().stream()
+      .map(property -> "--" + property.getKey() + "=" + property.getValue())
+      .toArray(String[]::new);
+    context = new SpringApplicationBuilder(BananaBeanApplication.class)
+      .web(WebApplicationType.NONE)
+      .run(args);
+
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    Integer seeded = jdbc.queryForObject("SELECT count(*) FROM movies",
+      Integer.class);
+    if (seeded == null || seeded == 0) {
+      BenchmarkDataset.seed(jdbc, FIRST_MOVIE_ID, movies);
+      if (url.isEmpty() == true) {
+        BenchmarkDataset.fillSearchTable(jdbc);
+      } else {
+        jdbc.execute("REFRESH MATERIALIZED VIEW movie_search");
+      }
+      first_movie_id = FIRST_MOVIE_ID;
+    } else {
+      movies = seeded;
+      first_movie_id = jdbc.queryForObject("SELECT min(id) FROM movies",
+        Integer.class);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  /**
+   * A movie id between the first one and the number of movies after it,
+   * on a real dataset with gaps in the ids some of them do not exist.
+   */
+  public int randomMovieId() {
+    return first_movie_id +
+      ThreadLocalRandom.current().nextInt(movies);
+  }
+
+  private static String env(String name, String fallback) {
+    String value = System.getenv(name);
+    if (value == null || value.isEmpty() == true) {
+      return fallback;
+    }
+
+    return value;
+  }
+
+}
@@ -0,0 +1,180 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated dataset with the shape of the real one: every movie has a
+ * poster, 1 to 3 genres, a cast, a crew and the other detail collections.
+ * The generator is seeded, the same size always gives the same data.
+ */
+public class BenchmarkDataset {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final String[] GENRES = {"Action", "Adventure", "Animation",
+    "Comedy", "Crime", "Documentary", "Drama", "Family", "Fantasy",
+    "History", "Horror", "Music", "Mystery", "Romance", "Science Fiction",
+    "TV Movie", "Thriller", "War", "Western"};
+
+  private static final String[] WORDS = {"the", "last", "night", "dark",
+    "love", "city", "house", "river", "king", "story", "war", "lost", "man",
+    "girl", "blue", "summer", "dead", "secret", "road", "star"};
+
+  private static final int COUNTRIES = 30;
+
+  private static final int STUDIOS = 200;
+
+  private static final int CAST_SIZE = 6;
+
+  public static void seed(JdbcTemplate jdbc, int first_movie_id, int movies) {
+    Random random = new Random(42);
+    int actors = Math.max(movies / 4, CAST_SIZE);
+
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < GENRES.length; i++) {
+      rows.add(new Object[]{i + 1, GENRES[i]});
+    }
+    insert(jdbc, "INSERT INTO genres (genre_id, genre) VALUES (?, ?)", rows);
+
+    for (int i = 1; i <= COUNTRIES; i++) {
+      rows.add(new Object[]{i, "Country " + i});
+    }
+    insert(jdbc, "INSERT INTO country (id, name) VALUES (?, ?)", rows);
+
+    for (int i = 1; i <= STUDIOS; i++) {
+      rows.add(new Object[]{i, "Studio " + i});
+    }
+    insert(jdbc, "INSERT INTO studio (id, name) VALUES (?, ?)", rows);
+
+    for (int i = 1; i <= actors; i++) {
+      rows.add(new Object[]{i, title(random) + " " + i});
+    }
+    insert(jdbc, "INSERT INTO actors (id, name) VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      // a few movies without year, duration or rating like the real ones
+      boolean partial = random.nextInt(20) == 0;
+      rows.add(new Object[]{id, title(random),
+        partial == true ? null : 1900 + random.nextInt(126),
+        "Tagline of " + id, "Description of " + id,
+        partial == true ? null : 60 + random.nextInt(120),
+        partial == true ? null : Math.round(random.nextFloat() * 500) / 100f});
+    }
+    insert(jdbc, "INSERT INTO movies (id, name, date, tagline, description, " +
+      "minute, rating) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, "https://posters/" + id + ".jpg"});
+    }
+    insert(jdbc, "INSERT INTO posters (id, link) VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      int first_genre = random.nextInt(GENRES.length);
+      int genres = 1 + random.nextInt(3);
+      for (int g = 0; g < genres; g++) {
+        rows.add(new Object[]{id, (first_genre + g) % GENRES.length + 1});
+      }
+    }
+    insert(jdbc, "INSERT INTO movie_has_genres (movie_id, genre_id) " +
+      "VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      int first_actor = random.nextInt(actors - CAST_SIZE + 1);
+      for (int a = 1; a <= CAST_SIZE; a++) {
+        rows.add(new Object[]{id, first_actor + a, "Role " + a});
+      }
+    }
+    insert(jdbc, "INSERT INTO movies_have_actors (movie_id, actor_id, role) " +
+      "VALUES (?, ?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, "Director", "Director " + id});
+      rows.add(new Object[]{id, "Writer", "Writer " + id});
+      rows.add(new Object[]{id, "Editor", "Editor " + id});
+    }
+    insert(jdbc, "INSERT INTO crew (id, role, name) VALUES (?, ?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, "Theme " + random.nextInt(100)});
+    }
+    insert(jdbc, "INSERT INTO themes (id, theme) VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, 1 + random.nextInt(STUDIOS)});
+    }
+    insert(jdbc, "INSERT INTO movie_have_studios (movie_id, studio_id) " +
+      "VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, "Language", "English"});
+    }
+    insert(jdbc, "INSERT INTO languages (id, type, language) VALUES (?, ?, ?)",
+      rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, 1 + random.nextInt(COUNTRIES)});
+    }
+    insert(jdbc, "INSERT INTO movie_have_countries (movie_id, country_id) " +
+      "VALUES (?, ?)", rows);
+
+    for (int i = 0; i < movies; i++) {
+      int id = first_movie_id + i;
+      rows.add(new Object[]{id, 1 + random.nextInt(COUNTRIES),
+        Date.valueOf("2020-01-01"), "Theatrical", "PG"});
+    }
+    insert(jdbc, "INSERT INTO releases (id, country, date, type, rating) " +
+      "VALUES (?, ?, ?, ?, ?)", rows);
+  }
+
+  /**
+   * Fills the movie_search table that ddl-auto creates on H2 in place of
+   * the materialized view, with the query of 002_movie_search.sql.
+   */
+  public static void fillSearchTable(JdbcTemplate jdbc) {
+    jdbc.update("INSERT INTO movie_search (id, name, date, tagline, " +
+      "description, minute, rating, poster_link, genres, genre_ids, " +
+      "actor_ids) " +
+      "SELECT m.id, m.name, m.date, m.tagline, m.description, m.minute, " +
+      "m.rating, p.link, " +
+      "ARRAY(SELECT g.genre FROM movie_has_genres mg " +
+      "JOIN genres g ON g.genre_id = mg.genre_id " +
+      "WHERE mg.movie_id = m.id ORDER BY g.genre), " +
+      "ARRAY(SELECT mg.genre_id FROM movie_has_genres mg " +
+      "WHERE mg.movie_id = m.id ORDER BY mg.genre_id), " +
+      "ARRAY(SELECT DISTINCT ma.actor_id FROM movies_have_actors ma " +
+      "WHERE ma.movie_id = m.id ORDER BY ma.actor_id) " +
+      "FROM movies m LEFT JOIN posters p ON p.id = m.id");
+  }
+
+  private static String title(Random random) {
+    return WORDS[random.nextInt(WORDS.length)] + " " +
+      WORDS[random.nextInt(WORDS.length)];
+  }
+
+  /**
+   * Inserts the rows in batches and clears the list for the next table.
+   */
+  private static void insert(JdbcTemplate jdbc, String sql,
+                             List<Object[]> rows) {
+    for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+      jdbc.batchUpdate(sql, rows.subList(i, Math.min(i + BATCH_SIZE,
+        rows.size())));
+    }
+    rows.clear();
+  }
+
+}
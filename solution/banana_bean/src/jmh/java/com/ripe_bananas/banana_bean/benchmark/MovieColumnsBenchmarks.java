@@ -0,0 +1,77 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import com.ripe_bananas.banana_bean.index.MovieColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches of the columnar engine alone, over a random catalog of the
+ * size of the production one, to compare with the SQL searches of
+ * MoviesServiceBenchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MovieColumnsBenchmarks {
+
+  private static final int GENRES = 19;
+
+  @Param({"1000000"})
+  private int movies;
+
+  private MovieColumns columns;
+
+  private List<Integer> drama;
+
+  private List<Integer> three_genres;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    MovieColumns.Builder builder = MovieColumns.builder();
+    for (int i = 0; i < movies; i++) {
+      int[] genres = random.ints(random.nextInt(4), 1, GENRES + 1).toArray();
+      builder.add(BenchmarkContext.FIRST_MOVIE_ID + i,
+        random.nextInt(10) == 0 ? null : 1900 + random.nextInt(125),
+        random.nextInt(3) == 0 ? null : 0.5f + random.nextInt(10) / 2f,
+        random.nextInt(10) == 0 ? null : 5 + random.nextInt(200), genres);
+    }
+    columns = builder.build();
+    drama = List.of(1);
+    three_genres = List.of(1, 2, 3);
+  }
+
+  @Benchmark
+  public MovieColumns.Result searchFirstPage() {
+    return columns.search(drama, false, 2f, null, 1950, null, null, null,
+      "rating", true, 0, 25);
+  }
+
+  @Benchmark
+  public MovieColumns.Result searchAllGenres() {
+    return columns.search(three_genres, false, null, null, null, null, null,
+      null, "rating", true, 0, 25);
+  }
+
+  @Benchmark
+  public MovieColumns.Result searchAnyGenre() {
+    return columns.search(three_genres, true, null, null, null, null, null,
+      null, "rating", true, 0, 25);
+  }
+
+  @Benchmark
+  public MovieColumns.Result searchDeepPage() {
+    return columns.search(drama, false, 2f, null, 1950, null, null, null,
+      "rating", true, 40 * 25, 25);
+  }
+
+  @Benchmark
+  public MovieColumns.Result searchUnfiltered() {
+    return columns.search(null, false, null, null, null, null, null, null,
+      null, false, 0, 25);
+  }
+
+}
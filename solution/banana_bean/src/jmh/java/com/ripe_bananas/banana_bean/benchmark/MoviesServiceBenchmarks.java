@@ -0,0 +1,86 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import com.ripe_bananas.banana_bean.dto.CursorPageDTO;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
+import com.ripe_bananas.banana_bean.entity.Movie;
+import com.ripe_bananas.banana_bean.service.MoviesService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MoviesService calls end to end, from the Specifications to the DTOs,
+ * against the database of BenchmarkContext.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MoviesServiceBenchmarks {
+
+  private MoviesService movies_service;
+
+  private BenchmarkContext context;
+
+  /**
+   * Deep pages are the expensive ones for OFFSET pagination.
+   */
+  private static final int DEEP_PAGE = 40;
+
+  private List<String> genres;
+
+  private List<String> three_genres;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkContext context) {
+    this.context = context;
+    movies_service = context.getBean(MoviesService.class);
+    genres = new ArrayList<>(List.of("Drama"));
+    three_genres = new ArrayList<>(List.of("Drama", "Crime", "Thriller"));
+  }
+
+  @Benchmark
+  public Page<MovieSummaryDTO> searchFirstPage() {
+    return movies_service.findMoviesWithFilters(null, genres, null, 2f, null,
+      1950, null, null, null, "rating", "desc", 0, 25);
+  }
+
+  @Benchmark
+  public SliceDTO<MovieSummaryDTO> searchAllGenres() {
+    return movies_service.findMoviesSliceWithFilters(null, three_genres,
+      "all", null, null, null, null, null, null, "rating", "desc", 0, 25);
+  }
+
+  @Benchmark
+  public SliceDTO<MovieSummaryDTO> searchAnyGenre() {
+    return movies_service.findMoviesSliceWithFilters(null, three_genres,
+      "any", null, null, null, null, null, null, "rating", "desc", 0, 25);
+  }
+
+  @Benchmark
+  public Page<MovieSummaryDTO> searchDeepPage() {
+    return movies_service.findMoviesWithFilters(null, genres, null, 2f, null,
+      1950, null, null, null, "rating", "desc", DEEP_PAGE, 25);
+  }
+
+  @Benchmark
+  public SliceDTO<MovieSummaryDTO> searchDeepSlice() {
+    return movies_service.findMoviesSliceWithFilters(null, genres, null, 2f,
+      null, 1950, null, null, null, "rating", "desc", DEEP_PAGE, 25);
+  }
+
+  @Benchmark
+  public CursorPageDTO<MovieSummaryDTO> searchFirstCursorPage() {
+    return movies_service.findMoviesByCursor(null, genres, null, 2f, null,
+      1950, null, null, null, "rating", "desc", null, 25);
+  }
+
+  @Benchmark
+  public Movie movieDetails() {
+    return movies_service.findMovieDetailsById(context.randomMovieId());
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.entity.BasicMovie;
+import com.ripe_bananas.banana_bean.entity.Movie;
+import com.ripe_bananas.banana_bean.repository.BasicMoviesRepo;
+import com.ripe_bananas.banana_bean.repository.MovieSearchRepo;
+import com.ripe_bananas.banana_bean.service.MoviesService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies with the ObjectMapper of
+ * the application (SNAKE_CASE naming), the graphs are loaded once and
+ * fully initialized before measuring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmarks {
+
+  private ObjectMapper object_mapper;
+
+  private Movie movie;
+
+  private List<BasicMovie> basic_movies;
+
+  private List<MovieSummaryDTO> summaries;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkContext context) throws JsonProcessingException {
+    object_mapper = context.getBean(ObjectMapper.class);
+    movie = context.getBean(MoviesService.class)
+      .findMovieDetailsById(BenchmarkContext.FIRST_MOVIE_ID);
+    if (movie == null) {
+      throw new IllegalStateException("Movie " +
+        BenchmarkContext.FIRST_MOVIE_ID + " not found");
+    }
+
+    BasicMoviesRepo basic_movies_repo = context.getBean(BasicMoviesRepo.class);
+    PageRequest page = PageRequest.of(0, 25);
+    basic_movies = basic_movies_repo.findAll(page).getContent();
+    summaries = context.getBean(MovieSearchRepo.class).findSummaryPage(
+      (root, query, criteria_builder) -> criteria_builder.conjunction(),
+      page).getContent();
+
+    // loads the lazy associations of the entities before measuring
+    object_mapper.writeValueAsString(basic_movies);
+  }
+
+  @Benchmark
+  public String movieDetails() throws JsonProcessingException {
+    return object_mapper.writeValueAsString(movie);
+  }
+
+  @Benchmark
+  public String basicMoviesPage() throws JsonProcessingException {
+    return object_mapper.writeValueAsString(basic_movies);
+  }
+
+  @Benchmark
+  public String movieSummariesPage() throws JsonProcessingException {
+    return object_mapper.writeValueAsString(summaries);
+  }
+
+}
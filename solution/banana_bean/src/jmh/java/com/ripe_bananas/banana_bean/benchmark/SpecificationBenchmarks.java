@@ -0,0 +1,83 @@
+package com.ripe_bananas.banana_bean.benchmark;
+
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import com.ripe_bananas.banana_bean.specification_builders.BasicMoviesSpecifications;
+import com.ripe_bananas.banana_bean.utility.Utility;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the Specifications of a movie search and turning them into a
+ * criteria Predicate, the work done on every search before any SQL is
+ * generated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SpecificationBenchmarks {
+
+  // Drama and Crime in BenchmarkDataset
+  private static final List<Integer> GENRE_IDS = List.of(7, 5);
+
+  private CriteriaBuilder criteria_builder;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkContext context) {
+    criteria_builder = context.getBean(EntityManagerFactory.class)
+      .getCriteriaBuilder();
+  }
+
+  @Param({"all", "any"})
+  public String genre_mode;
+
+  private Specification<MovieSearchRow> searchSpecs() {
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.nameLikeTo("godfather");
+    specs = specs.and(genre_mode.equals("any") == true ?
+        BasicMoviesSpecifications.hasAnyGenre(GENRE_IDS) :
+        BasicMoviesSpecifications.hasGenres(GENRE_IDS))
+      .and(BasicMoviesSpecifications.ratingGreaterThanOrEqual(3f))
+      .and(BasicMoviesSpecifications.ratingLowerThanOrEqual(null))
+      .and(BasicMoviesSpecifications.yearGreatThanOrEqual(1970))
+      .and(BasicMoviesSpecifications.yearLowerThanOrEqual(1990))
+      .and(BasicMoviesSpecifications.durationGreaterThanOrEqual(null))
+      .and(BasicMoviesSpecifications.durationLowerThanOrEqual(180));
+
+    return specs;
+  }
+
+  @Benchmark
+  public Specification<MovieSearchRow> composeSpecifications() {
+    return searchSpecs();
+  }
+
+  @Benchmark
+  public Predicate buildPredicate() {
+    CriteriaQuery<MovieSearchRow> query =
+      criteria_builder.createQuery(MovieSearchRow.class);
+    Root<MovieSearchRow> root = query.from(MovieSearchRow.class);
+
+    return searchSpecs().toPredicate(root, query, criteria_builder);
+  }
+
+  @Benchmark
+  public Sort buildSortBy() {
+    return Utility.buildSortBy("rating", "DESC");
+  }
+
+  @Benchmark
+  public Pageable buildPageRequest() {
+    return Utility.buildPageRequest("rating", "desc", 3, 25);
+  }
+
+}
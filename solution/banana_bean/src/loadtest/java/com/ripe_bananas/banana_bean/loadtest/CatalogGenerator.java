@@ -0,0 +1,350 @@
+package com.ripe_bananas.banana_bean.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills genres, movies, movie_has_genres, posters, actors,
+ * movies_have_actors and oscar_awards with a synthetic catalog.
+ * The skew follows the real data: genres, casts and movie titles are Zipf
+ * distributed, most movies are recent, a few have no year, duration or
+ * rating. The same settings and seed always give the same catalog.
+ *
+ * Settings (-Ploadtest.name=value): movies (100000), actors (movies / 2),
+ * cast (average cast size, 8), oscar_awards (movies / 10), seed (42),
+ * batch (5000), truncate (false, empty the tables first).
+ */
+public class CatalogGenerator {
+
+  public static final int FIRST_MOVIE_ID = 1000001;
+
+  public static final String[] GENRES = {"Drama", "Comedy", "Documentary",
+    "Thriller", "Horror", "Romance", "Action", "Crime", "Animation",
+    "Music", "Adventure", "Family", "Science Fiction", "Mystery", "Fantasy",
+    "TV Movie", "History", "War", "Western"};
+
+  private static final String[] WORDS = {"the", "of", "love", "night", "last",
+    "man", "life", "girl", "story", "house", "dead", "day", "world", "time",
+    "city", "dark", "king", "home", "secret", "blood", "war", "road", "black",
+    "summer", "heart", "red", "lost", "dream", "river", "star", "ghost",
+    "game", "island", "wild", "winter", "shadow", "moon", "fire", "ocean"};
+
+  private static final String[] FIRST_NAMES = {"James", "Mary", "John",
+    "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William",
+    "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+    "Thomas", "Sarah", "Charles", "Karen", "Marco", "Giulia", "Hiroshi",
+    "Yuki", "Pierre", "Camille", "Hans", "Ingrid", "Carlos", "Lucia"};
+
+  private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams",
+    "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+    "Rossi", "Russo", "Tanaka", "Suzuki", "Martin", "Bernard", "Muller",
+    "Schmidt", "Lopez", "Gonzalez", "Wilson", "Anderson", "Taylor", "Moore"};
+
+  private static final String[] CATEGORIES = {"ACTOR IN A LEADING ROLE",
+    "ACTRESS IN A LEADING ROLE", "ACTOR IN A SUPPORTING ROLE",
+    "ACTRESS IN A SUPPORTING ROLE", "DIRECTING", "BEST PICTURE",
+    "CINEMATOGRAPHY", "FILM EDITING", "MUSIC (Original Score)",
+    "MUSIC (Original Song)", "SOUND", "COSTUME DESIGN", "MAKEUP",
+    "VISUAL EFFECTS", "WRITING (Original Screenplay)",
+    "WRITING (Adapted Screenplay)", "DOCUMENTARY (Feature)",
+    "INTERNATIONAL FEATURE FILM", "ANIMATED FEATURE FILM",
+    "PRODUCTION DESIGN"};
+
+  private static final String[] TABLES = {"oscar_awards", "movies_have_actors",
+    "movie_has_genres", "posters", "actors", "movies", "genres"};
+
+  private final Connection connection;
+
+  private final Random random;
+
+  private final int batch_size;
+
+  private final ZipfSampler words;
+
+  private final ZipfSampler genres;
+
+  public CatalogGenerator(Connection connection, long seed, int batch_size) {
+    this.connection = connection;
+    this.random = new Random(seed);
+    this.batch_size = batch_size;
+    this.words = new ZipfSampler(WORDS.length, 1.0);
+    this.genres = new ZipfSampler(GENRES.length, 0.9);
+  }
+
+  public static void main(String[] args) throws SQLException {
+    int movies = LoadtestConfig.integer("movies", 100000);
+    int actors = LoadtestConfig.integer("actors", Math.max(movies / 2, 1));
+    int cast = LoadtestConfig.integer("cast", 8);
+    int oscar_awards = LoadtestConfig.integer("oscar_awards",
+      Math.max(movies / 10, 1));
+
+    try (Connection connection = LoadtestConfig.connect()) {
+      connection.setAutoCommit(false);
+      CatalogGenerator generator = new CatalogGenerator(connection,
+        LoadtestConfig.integer("seed", 42),
+        LoadtestConfig.integer("batch", 5000));
+
+      if (LoadtestConfig.bool("truncate", false) == true) {
+        generator.truncate();
+      } else if (generator.isEmpty() == false) {
+        System.err.println("movies is not empty, run with " +
+          "-Ploadtest.truncate=true to replace its content");
+        System.exit(1);
+      }
+
+      generator.generateGenres();
+      generator.generateMovies(movies);
+      generator.generateActors(actors);
+      generator.generateCasts(movies, actors, cast);
+      generator.generateOscarAwards(oscar_awards, actors);
+
+      try (Statement statement = connection.createStatement()) {
+        // the search read model of 002_movie_search.sql, if installed
+        ResultSet view = statement.executeQuery(
+          "SELECT to_regclass('movie_search') IS NOT NULL");
+        if (view.next() == true && view.getBoolean(1) == true) {
+          statement.execute("REFRESH MATERIALIZED VIEW movie_search");
+        }
+        statement.execute("ANALYZE");
+      }
+      connection.commit();
+    }
+  }
+
+  private boolean isEmpty() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      return statement.executeQuery("SELECT 1 FROM movies LIMIT 1")
+        .next() == false;
+    }
+  }
+
+  private void truncate() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("TRUNCATE " + String.join(", ", TABLES) + " CASCADE");
+    }
+    connection.commit();
+  }
+
+  private void generateGenres() throws SQLException {
+    try (Batch batch = new Batch("genres",
+      "INSERT INTO genres (genre_id, genre) VALUES (?, ?)")) {
+      for (int i = 0; i < GENRES.length; i++) {
+        batch.statement.setInt(1, i + 1);
+        batch.statement.setString(2, GENRES[i]);
+        batch.add();
+      }
+    }
+  }
+
+  private void generateMovies(int movies) throws SQLException {
+    try (Batch movie_batch = new Batch("movies", "INSERT INTO movies (id, " +
+      "name, date, tagline, description, minute, rating) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?)");
+         Batch poster_batch = new Batch("posters",
+           "INSERT INTO posters (id, link) VALUES (?, ?)");
+         Batch genre_batch = new Batch("movie_has_genres",
+           "INSERT INTO movie_has_genres (movie_id, genre_id) VALUES (?, ?)")) {
+      Set<Integer> movie_genres = new HashSet<>();
+      for (int i = 0; i < movies; i++) {
+        int id = FIRST_MOVIE_ID + i;
+        PreparedStatement movie = movie_batch.statement;
+        movie.setInt(1, id);
+        movie.setString(2, title());
+        setNullable(movie, 3, random.nextInt(50) == 0 ? null : year());
+        movie.setString(4, random.nextInt(3) == 0 ? null : title());
+        movie.setString(5, "Synthetic movie number " + id);
+        setNullable(movie, 6, random.nextInt(20) == 0 ? null :
+          Math.max(1, (int) Math.round(100 + random.nextGaussian() * 25)));
+        if (random.nextInt(10) == 0) {
+          movie.setNull(7, Types.REAL);
+        } else {
+          movie.setFloat(7, (float) Math.round(Math.clamp(
+            3.2 + random.nextGaussian() * 0.6, 0.5, 5) * 100) / 100);
+        }
+        movie_batch.add();
+
+        if (random.nextInt(10) != 0) {
+          poster_batch.statement.setInt(1, id);
+          poster_batch.statement.setString(2, "https://posters/" + id + ".jpg");
+          poster_batch.add();
+        }
+
+        movie_genres.clear();
+        int genre_count = 1 + random.nextInt(3);
+        while (movie_genres.size() < genre_count) {
+          movie_genres.add(genres.sample(random) + 1);
+        }
+        for (Integer genre_id : movie_genres) {
+          genre_batch.statement.setInt(1, id);
+          genre_batch.statement.setInt(2, genre_id);
+          genre_batch.add();
+        }
+      }
+    }
+  }
+
+  private void generateActors(int actors) throws SQLException {
+    try (Batch batch = new Batch("actors",
+      "INSERT INTO actors (id, name) VALUES (?, ?)")) {
+      for (int id = 1; id <= actors; id++) {
+        batch.statement.setInt(1, id);
+        batch.statement.setString(2, person(id - 1));
+        batch.add();
+      }
+    }
+  }
+
+  /**
+   * Casts of 1 to 2 * cast actors, picked by popularity: the actors with
+   * the lowest ids are in many movies, most of the others in a few.
+   */
+  private void generateCasts(int movies, int actors, int cast)
+    throws SQLException {
+    ZipfSampler popularity = new ZipfSampler(actors, 1.05);
+    Set<Integer> movie_cast = new HashSet<>();
+
+    try (Batch batch = new Batch("movies_have_actors", "INSERT INTO " +
+      "movies_have_actors (movie_id, actor_id, role) VALUES (?, ?, ?)")) {
+      for (int i = 0; i < movies; i++) {
+        int cast_size = Math.min(actors, 1 + random.nextInt(2 * cast));
+        movie_cast.clear();
+        while (movie_cast.size() < cast_size) {
+          movie_cast.add(popularity.sample(random) + 1);
+        }
+        int role = 1;
+        for (Integer actor_id : movie_cast) {
+          batch.statement.setInt(1, FIRST_MOVIE_ID + i);
+          batch.statement.setInt(2, actor_id);
+          batch.statement.setString(3, "Character " + role++);
+          batch.add();
+        }
+      }
+    }
+  }
+
+  private void generateOscarAwards(int oscar_awards, int actors)
+    throws SQLException {
+    ZipfSampler popularity = new ZipfSampler(actors, 1.05);
+
+    try (Batch batch = new Batch("oscar_awards", "INSERT INTO oscar_awards " +
+      "(id, year_film, year_ceremony, ceremony, category, name, film, " +
+      "winner) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+      for (int id = 1; id <= oscar_awards; id++) {
+        int year_ceremony = 1929 + random.nextInt(96);
+        batch.statement.setInt(1, id);
+        batch.statement.setInt(2, year_ceremony - 1);
+        batch.statement.setInt(3, year_ceremony);
+        batch.statement.setInt(4, year_ceremony - 1928);
+        batch.statement.setString(5,
+          CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        // half of the nominees are picked by popularity like the casts
+        batch.statement.setString(6, person(random.nextBoolean() == true ?
+          popularity.sample(random) : random.nextInt(actors)));
+        batch.statement.setString(7, title());
+        batch.statement.setBoolean(8, random.nextInt(5) == 0);
+        batch.add();
+      }
+    }
+  }
+
+  private String title() {
+    int length = 1 + random.nextInt(4);
+    StringBuilder title = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        title.append(' ');
+      }
+      String word = WORDS[words.sample(random)];
+      title.append(Character.toUpperCase(word.charAt(0)))
+        .append(word, 1, word.length());
+    }
+
+    return title.toString();
+  }
+
+  /**
+   * Release years from 1900, the number of movies per year grows
+   * exponentially towards now like in the real catalog.
+   */
+  private int year() {
+    double age = -Math.log(1 - random.nextDouble()) * 20;
+
+    return Math.max(1900, 2025 - (int) age);
+  }
+
+  /**
+   * Name of the actor with the given rank (id - 1), like in the real data
+   * many actors share the same name.
+   */
+  public static String person(int rank) {
+    return FIRST_NAMES[rank % FIRST_NAMES.length] + " " +
+      LAST_NAMES[(rank / FIRST_NAMES.length) % LAST_NAMES.length];
+  }
+
+  private static void setNullable(PreparedStatement statement, int index,
+                                  Integer value) throws SQLException {
+    if (value == null) {
+      statement.setNull(index, Types.INTEGER);
+    } else {
+      statement.setInt(index, value);
+    }
+  }
+
+  /**
+   * Insert statement executed and committed every batch_size rows, closing
+   * it flushes the last partial batch and prints the insert rate.
+   */
+  private class Batch implements AutoCloseable {
+
+    private final String table;
+
+    private final PreparedStatement statement;
+
+    private final long started = System.nanoTime();
+
+    private long rows;
+
+    private Batch(String table, String sql) throws SQLException {
+      this.table = table;
+      this.statement = connection.prepareStatement(sql);
+    }
+
+    private void add() throws SQLException {
+      statement.addBatch();
+      rows++;
+      if (rows % batch_size == 0) {
+        flush();
+      }
+      if (rows % (batch_size * 100L) == 0) {
+        report();
+      }
+    }
+
+    private void flush() throws SQLException {
+      statement.executeBatch();
+      connection.commit();
+    }
+
+    private void report() {
+      double seconds = (System.nanoTime() - started) / 1e9;
+      System.out.printf("%s: %d rows in %.1fs (%.0f rows/s)%n", table, rows,
+        seconds, rows / Math.max(seconds, 1e-9));
+    }
+
+    @Override
+    public void close() throws SQLException {
+      flush();
+      statement.close();
+      report();
+    }
+
+  }
+
+}
@@ -0,0 +1,335 @@
+package com.ripe_bananas.banana_bean.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Replays a weighted mix of the search endpoints at a constant rate and
+ * reports the latency percentiles and error rates of every endpoint.
+ * Requests are sent on schedule whether or not the previous ones have
+ * completed (open model) and their latency is measured from the time they
+ * were scheduled, so a server that stalls is not hidden by a driver that
+ * waits for it.
+ * Ids and names are drawn with the same skew as CatalogGenerator.
+ *
+ * Settings (-Ploadtest.name=value): base_url (http://localhost:8080),
+ * rps (100), duration (60s), warmup (10s), timeout (10s), movies and
+ * actors (the size of the generated catalog), seed (42) and mix, the
+ * weight of every endpoint as name=weight,name=weight... (default
+ * movies=30,movies_slice=10,movies_by_cursor=5,movie_details=25,
+ * movies_with_actor=10,actors=10,oscar_awards=5,suggestions=5).
+ */
+public class LoadDriver {
+
+  private static final String DEFAULT_MIX = "movies=30,movies_slice=10," +
+    "movies_by_cursor=5,movie_details=25,movies_with_actor=10,actors=10," +
+    "oscar_awards=5,suggestions=5";
+
+  private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+  private static final String[] SORTS = {"rating", "date", "name", "minute"};
+
+  private final Map<String, Function<Random, String>> endpoints =
+    new LinkedHashMap<>();
+
+  private final List<Target> mix = new ArrayList<>();
+
+  private int total_weight;
+
+  private final ZipfSampler movie_popularity;
+
+  private final ZipfSampler actor_popularity;
+
+  private final ZipfSampler genre_popularity;
+
+  private final ZipfSampler page_popularity;
+
+  private final int movies;
+
+  /**
+   * An endpoint of the mix with its weight and statistics.
+   */
+  private static class Target {
+
+    private final String name;
+
+    private final int weight;
+
+    private final Recorder latency = new Recorder(MAX_LATENCY, 3);
+
+    private final LongAdder ok = new LongAdder();
+
+    private final LongAdder not_found = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final Histogram total = new Histogram(MAX_LATENCY, 3);
+
+    private long reported_not_found;
+
+    private long reported_errors;
+
+    private Target(String name, int weight) {
+      this.name = name;
+      this.weight = weight;
+    }
+
+    private void reset() {
+      latency.reset();
+      ok.reset();
+      not_found.reset();
+      errors.reset();
+      total.reset();
+      reported_not_found = 0;
+      reported_errors = 0;
+    }
+
+  }
+
+  public LoadDriver(int movies, int actors, String mix_setting) {
+    this.movies = movies;
+    movie_popularity = new ZipfSampler(movies, 0.9);
+    actor_popularity = new ZipfSampler(actors, 1.05);
+    genre_popularity = new ZipfSampler(CatalogGenerator.GENRES.length, 0.9);
+    page_popularity = new ZipfSampler(40, 1.5);
+
+    endpoints.put("movies", random -> "/api/movies/get_movies?" +
+      movieFilters(random) + "&page_num=" + page_popularity.sample(random));
+    endpoints.put("movies_slice", random -> "/api/movies/get_movies?" +
+      movieFilters(random) + "&with_total=false&page_num=" +
+      page_popularity.sample(random));
+    endpoints.put("movies_by_cursor", random ->
+      "/api/movies/get_movies_by_cursor?" + movieFilters(random));
+    endpoints.put("movie_details", random ->
+      "/api/movies/get_movie_details/" + movieId(random));
+    endpoints.put("movies_with_actor", random ->
+      "/api/movies/get_movies_with_actor?actor_id=" +
+        (actor_popularity.sample(random) + 1));
+    endpoints.put("actors", random -> "/api/actors/get_actors/?name=" +
+      encode(lastName(actor_popularity.sample(random))));
+    endpoints.put("oscar_awards", random ->
+      "/api/oscar_awards/get_oscar_awards?min_year_ceremony=" +
+        (1929 + random.nextInt(96)) + (random.nextBoolean() == true ?
+        "&winner=true" : ""));
+    endpoints.put("suggestions", random ->
+      "/api/autocomplete/get_suggestions?prefix=" +
+        encode(lastName(actor_popularity.sample(random)).substring(0, 3)));
+
+    for (String entry : mix_setting.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (endpoints.containsKey(parts[0]) == false) {
+        throw new IllegalArgumentException("Unknown endpoint " + parts[0] +
+          ", known ones: " + endpoints.keySet());
+      }
+      int weight = Integer.parseInt(parts[1]);
+      if (weight > 0) {
+        mix.add(new Target(parts[0], weight));
+        total_weight += weight;
+      }
+    }
+    if (mix.isEmpty() == true) {
+      throw new IllegalArgumentException("Empty mix: " + mix_setting);
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int movies = LoadtestConfig.integer("movies", 100000);
+    LoadDriver driver = new LoadDriver(movies,
+      LoadtestConfig.integer("actors", Math.max(movies / 2, 1)),
+      LoadtestConfig.string("mix", DEFAULT_MIX));
+
+    driver.run(LoadtestConfig.string("base_url", "http://localhost:8080"),
+      LoadtestConfig.integer("rps", 100),
+      LoadtestConfig.duration("warmup", "10s"),
+      LoadtestConfig.duration("duration", "60s"),
+      LoadtestConfig.duration("timeout", "10s"),
+      LoadtestConfig.integer("seed", 42));
+  }
+
+  private String movieFilters(Random random) {
+    StringBuilder filters = new StringBuilder("genres=")
+      .append(encode(CatalogGenerator.GENRES[genre_popularity.sample(random)]));
+    if (random.nextBoolean() == true) {
+      filters.append("&min_rating=").append(random.nextInt(5));
+    }
+    if (random.nextInt(3) == 0) {
+      filters.append("&min_year=").append(1950 + random.nextInt(70));
+    }
+    filters.append("&sort_by=").append(SORTS[random.nextInt(SORTS.length)])
+      .append("&sort_direction=").append(random.nextBoolean() == true ?
+        "desc" : "asc");
+
+    return filters.toString();
+  }
+
+  /**
+   * Popular movies are spread over the whole id range instead of being the
+   * first ones.
+   */
+  private int movieId(Random random) {
+    long rank = movie_popularity.sample(random);
+
+    return CatalogGenerator.FIRST_MOVIE_ID +
+      (int) ((rank * 7919L) % movies);
+  }
+
+  private static String lastName(int rank) {
+    String person = CatalogGenerator.person(rank);
+
+    return person.substring(person.indexOf(' ') + 1);
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private Target pick(Random random) {
+    int ticket = random.nextInt(total_weight);
+    for (Target target : mix) {
+      ticket -= target.weight;
+      if (ticket < 0) {
+        return target;
+      }
+    }
+
+    return mix.get(mix.size() - 1);
+  }
+
+  public void run(String base_url, int rps, Duration warmup,
+                  Duration duration, Duration timeout, long seed)
+    throws InterruptedException {
+    HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(timeout)
+      .build();
+    Random random = new Random(seed);
+    long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+    long start = System.nanoTime();
+    long measure_from = start + warmup.toNanos();
+    long end = measure_from + duration.toNanos();
+    long next_report = measure_from + TimeUnit.SECONDS.toNanos(10);
+    boolean measuring = false;
+
+    System.out.printf("%d requests/s to %s, %ds of warmup then %ds%n", rps,
+      base_url, warmup.toSeconds(), duration.toSeconds());
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long scheduled = start + i * interval;
+        if (scheduled >= end) {
+          break;
+        }
+        if (measuring == false && scheduled >= measure_from) {
+          mix.forEach(Target::reset);
+          measuring = true;
+        }
+        if (scheduled >= next_report) {
+          report("last 10s", false);
+          next_report += TimeUnit.SECONDS.toNanos(10);
+        }
+
+        Target target = pick(random);
+        URI uri = URI.create(base_url +
+          endpoints.get(target.name).apply(random));
+        long wait = scheduled - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        executor.execute(() -> send(client, target, uri, scheduled, timeout));
+      }
+    }
+
+    report("total", true);
+  }
+
+  private static void send(HttpClient client, Target target, URI uri,
+                           long scheduled, Duration timeout) {
+    HttpRequest request = HttpRequest.newBuilder(uri)
+      .timeout(timeout)
+      .GET()
+      .build();
+    try {
+      HttpResponse<Void> response = client.send(request,
+        HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() / 100 == 2) {
+        target.ok.increment();
+      } else if (response.statusCode() == 404) {
+        // empty results are answered with 404 by the search endpoints
+        target.not_found.increment();
+      } else {
+        target.errors.increment();
+      }
+    } catch (Exception e) {
+      target.errors.increment();
+    }
+    target.latency.recordValue(Math.min(System.nanoTime() - scheduled,
+      MAX_LATENCY));
+  }
+
+  /**
+   * Prints what was recorded since the previous report, the last one
+   * prints the whole measured run.
+   */
+  private void report(String title, boolean last) {
+    System.out.printf("%n%s%n%-18s %8s %7s %7s %9s %9s %9s %9s%n", title,
+      "endpoint", "count", "404", "errors", "p50 ms", "p99 ms", "p999 ms",
+      "max ms");
+    Histogram all = new Histogram(MAX_LATENCY, 3);
+    long all_not_found = 0;
+    long all_errors = 0;
+    for (Target target : mix) {
+      Histogram interval = target.latency.getIntervalHistogram();
+      target.total.add(interval);
+      long not_found = target.not_found.sum();
+      long errors = target.errors.sum();
+      if (last == false) {
+        not_found -= target.reported_not_found;
+        errors -= target.reported_errors;
+        target.reported_not_found += not_found;
+        target.reported_errors += errors;
+      }
+
+      Histogram shown = last == true ? target.total : interval;
+      all.add(shown);
+      all_not_found += not_found;
+      all_errors += errors;
+      print(target.name, shown, not_found, errors);
+    }
+    print("all", all, all_not_found, all_errors);
+    if (last == true && all.getTotalCount() > 0) {
+      System.out.printf("error rate: %.3f%%%n",
+        100.0 * all_errors / all.getTotalCount());
+    }
+  }
+
+  private static void print(String name, Histogram histogram, long not_found,
+                            long errors) {
+    System.out.printf("%-18s %8d %7d %7d %9.1f %9.1f %9.1f %9.1f%n", name,
+      histogram.getTotalCount(), not_found, errors,
+      histogram.getValueAtPercentile(50) / 1e6,
+      histogram.getValueAtPercentile(99) / 1e6,
+      histogram.getValueAtPercentile(99.9) / 1e6,
+      histogram.getMaxValue() / 1e6);
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.ripe_bananas.banana_bean.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Settings of the load-test tools, read from the loadtest.* system
+ * properties (gradle -Ploadtest.movies=1000000 ...) and, for the
+ * database, from the same environment variables used by the server.
+ */
+public class LoadtestConfig {
+
+  public static String string(String name, String fallback) {
+    String value = System.getProperty("loadtest." + name);
+    if (value == null || value.isBlank() == true) {
+      return fallback;
+    }
+
+    return value.trim();
+  }
+
+  public static int integer(String name, int fallback) {
+    return Integer.parseInt(string(name, String.valueOf(fallback)));
+  }
+
+  public static boolean bool(String name, boolean fallback) {
+    return Boolean.parseBoolean(string(name, String.valueOf(fallback)));
+  }
+
+  /**
+   * A duration as 90s, 5m or 1h.
+   */
+  public static Duration duration(String name, String fallback) {
+    String value = string(name, fallback).toLowerCase();
+    long amount = Long.parseLong(value.substring(0, value.length() - 1));
+
+    return switch (value.charAt(value.length() - 1)) {
+      case 'h' -> Duration.ofHours(amount);
+      case 'm' -> Duration.ofMinutes(amount);
+      case 's' -> Duration.ofSeconds(amount);
+      default -> throw new IllegalArgumentException("Invalid duration for " +
+        "loadtest." + name + ": " + value);
+    };
+  }
+
+  /**
+   * Connection to jdbc:${DATABASE_URL} with DB_USERNAME and DB_PASSWORD,
+   * inserts in batches are rewritten as multi-row inserts.
+   */
+  public static Connection connect() throws SQLException {
+    String url = System.getenv("DATABASE_URL");
+    if (url == null || url.isEmpty() == true) {
+      throw new IllegalStateException("DATABASE_URL is not set");
+    }
+
+    Properties properties = new Properties();
+    properties.setProperty("user", System.getenv().getOrDefault("DB_USERNAME",
+      "postgres"));
+    properties.setProperty("password",
+      System.getenv().getOrDefault("DB_PASSWORD", ""));
+    properties.setProperty("reWriteBatchedInserts", "true");
+
+    return DriverManager.getConnection("jdbc:" + url, properties);
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.ripe_bananas.banana_bean.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s,
+ * the popularity skew of actors, genres and movies: a few of them are in
+ * (or asked for) most of the rows.
+ * The cumulative distribution is precomputed, a sample is a binary search.
+ */
+public class ZipfSampler {
+
+  private final double[] cumulative;
+
+  public ZipfSampler(int n, double exponent) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("n must be positive: " + n);
+    }
+
+    cumulative = new double[n];
+    double total = 0;
+    for (int rank = 0; rank < n; rank++) {
+      total += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < n; rank++) {
+      cumulative[rank] /= total;
+    }
+  }
+
+  public int sample(Random random) {
+    int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+    if (rank < 0) {
+      rank = -rank - 1;
+    }
+
+    return Math.min(rank, cumulative.length - 1);
+  }
+
+}
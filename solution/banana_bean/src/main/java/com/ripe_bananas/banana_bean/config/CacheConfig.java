@@ -0,0 +1,33 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches that need a different size or expiration than the reference data
+ * ones configured by spring.cache.caffeine.spec.
+ */
+@Configuration
+public class CacheConfig {
+
+  public static final String MOVIE_SEARCHES = "movie_searches";
+
+  @Bean
+  public CacheManagerCustomizer<CaffeineCacheManager> searchCacheCustomizer(
+    @Value("${banana_bean.search-cache.maximum-size:10000}") long maximum_size,
+    @Value("${banana_bean.search-cache.ttl:10m}") Duration ttl) {
+    return cache_manager -> cache_manager.registerCustomCache(MOVIE_SEARCHES,
+      Caffeine.newBuilder()
+        .maximumSize(maximum_size)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build());
+  }
+
+}
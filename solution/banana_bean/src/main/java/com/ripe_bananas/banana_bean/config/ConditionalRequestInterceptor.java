@@ -0,0 +1,182 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.ripe_bananas.banana_bean.service.DatasetVersionService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Answers the conditional GET requests before the controller runs: the
+ * ETag is made of the dataset version and a hash of the path and query
+ * parameters, the Last-Modified is the time the version was first seen.
+ * A request whose If-None-Match (or, without one, If-Modified-Since) still
+ * matches gets a 304 without any database access.
+ * The others go on with their validators kept in a request attribute, the
+ * headers are only written once the handler returned a 2xx body (see
+ * ConditionalResponseAdvice), so that errors, empty 404s and the streamed
+ * exports never carry an ETag or a max-age.
+ */
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+  private static final String VALIDATORS =
+    ConditionalRequestInterceptor.class.getName() + ".validators";
+
+  private record Validators(String etag, Instant last_modified) {}
+
+  private final DatasetVersionService dataset_version;
+
+  private final Map<PathPattern, CacheControl> cache_controls =
+    new LinkedHashMap<>();
+
+  public ConditionalRequestInterceptor(DatasetVersionService dataset_version) {
+    this.dataset_version = dataset_version;
+  }
+
+  /**
+   * Cache-Control of the successful responses of the given path patterns,
+   * the first mapping matching a path wins.
+   */
+  public void addCacheMapping(CacheControl cache_control,
+                              String... patterns) {
+    for (String pattern : patterns) {
+      cache_controls.put(PathPatternParser.defaultInstance.parse(pattern),
+        cache_control);
+    }
+  }
+
+  /**
+   * Path and query parameters sorted by name, the order of the values of a
+   * parameter is kept.
+   */
+  private static String requestKey(HttpServletRequest request) {
+    StringBuilder key = new StringBuilder(request.getRequestURI());
+    Map<String, String[]> parameters =
+      new TreeMap<>(request.getParameterMap());
+    for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+      for (String value : parameter.getValue()) {
+        key.append('&').append(parameter.getKey()).append('=').append(value);
+      }
+    }
+
+    return key.toString();
+  }
+
+  private static List<String> entityTags(HttpServletRequest request) {
+    List<String> tags = new ArrayList<>();
+    Enumeration<String> headers =
+      request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+    while (headers.hasMoreElements() == true) {
+      for (String tag : headers.nextElement().split(",")) {
+        tag = tag.trim();
+        if (tag.startsWith("W/") == true) {
+          tag = tag.substring(2);
+        }
+        tags.add(tag);
+      }
+    }
+
+    return tags;
+  }
+
+  private static boolean notModified(HttpServletRequest request,
+                                     Validators validators) {
+    List<String> tags = entityTags(request);
+    if (tags.isEmpty() == false) {
+      return tags.contains(validators.etag()) == true ||
+        tags.contains("*") == true;
+    }
+
+    long if_modified_since;
+    try {
+      if_modified_since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+
+    return if_modified_since != -1 &&
+      validators.last_modified().toEpochMilli() <= if_modified_since;
+  }
+
+  private CacheControl cacheControl(HttpServletRequest request) {
+    PathContainer path = PathContainer.parsePath(
+      UrlPathHelper.defaultInstance.getLookupPathForRequest(request));
+    for (Map.Entry<PathPattern, CacheControl> mapping :
+      cache_controls.entrySet()) {
+      if (mapping.getKey().matches(path) == true) {
+        return mapping.getValue();
+      }
+    }
+
+    return null;
+  }
+
+  private void writeHeaders(HttpServletRequest request,
+                            HttpServletResponse response,
+                            Validators validators) {
+    response.setHeader(HttpHeaders.ETAG, validators.etag());
+    response.setDateHeader(HttpHeaders.LAST_MODIFIED,
+      validators.last_modified().toEpochMilli());
+    CacheControl cache_control = cacheControl(request);
+    if (cache_control != null && cache_control.getHeaderValue() != null) {
+      response.setHeader(HttpHeaders.CACHE_CONTROL,
+        cache_control.getHeaderValue());
+    }
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request,
+                           HttpServletResponse response,
+                           Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST ||
+      (request.getMethod().equals("GET") == false &&
+        request.getMethod().equals("HEAD") == false)) {
+      return true;
+    }
+
+    String version = dataset_version.getVersion();
+    Validators validators = new Validators("\"" + version + "-" +
+      DigestUtils.md5DigestAsHex(
+        requestKey(request).getBytes(StandardCharsets.UTF_8)) + "\"",
+      dataset_version.getLast_modified());
+
+    if (notModified(request, validators) == true) {
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      writeHeaders(request, response, validators);
+      return false;
+    }
+
+    request.setAttribute(VALIDATORS, validators);
+    return true;
+  }
+
+  /**
+   * Writes the validators and the Cache-Control of a request that went
+   * through preHandle, if its response status is a 2xx.
+   */
+  void writeHeaders(HttpServletRequest request,
+                    HttpServletResponse response) {
+    if (request.getAttribute(VALIDATORS) instanceof Validators validators &&
+      response.getStatus() / 100 == 2) {
+      writeHeaders(request, response, validators);
+    }
+  }
+
+}
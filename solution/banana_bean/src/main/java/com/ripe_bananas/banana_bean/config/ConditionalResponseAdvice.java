@@ -0,0 +1,51 @@
+package com.ripe_bananas.banana_bean.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the caching headers of ConditionalRequestInterceptor once the
+ * handler returned, just before its body is written: only the responses
+ * with a body go through here, and the interceptor skips the non 2xx ones.
+ */
+@ControllerAdvice
+public class ConditionalResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  private final ConditionalRequestInterceptor conditional_requests;
+
+  public ConditionalResponseAdvice(
+    ConditionalRequestInterceptor conditional_requests) {
+    this.conditional_requests = conditional_requests;
+  }
+
+  @Override
+  public boolean supports(MethodParameter return_type,
+                          Class<? extends HttpMessageConverter<?>>
+                            converter_type) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter return_type,
+                                MediaType content_type,
+                                Class<? extends HttpMessageConverter<?>>
+                                  converter_type,
+                                ServerHttpRequest request,
+                                ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest servlet_request &&
+      response instanceof ServletServerHttpResponse servlet_response) {
+      conditional_requests.writeHeaders(servlet_request.getServletRequest(),
+        servlet_response.getServletResponse());
+    }
+
+    return body;
+  }
+
+}
@@ -15,7 +15,7 @@ public class CorsConfig {
         registry.addMapping("/**")
           .allowedOrigins("http://localhost:3000")
           .allowedOrigins("http://coolstuffs.altervista.org")
-          .allowedMethods("GET");
+          .allowedMethods("GET", "POST");
       }
     };
   }
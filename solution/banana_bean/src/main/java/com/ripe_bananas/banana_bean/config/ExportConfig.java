@@ -0,0 +1,47 @@
+package com.ripe_bananas.banana_bean.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Movie exports: banana_bean.export.max-concurrent of them at most, kept
+ * below the connection pool size so that the other endpoints always have
+ * connections left, each one cut off after banana_bean.export.timeout.
+ */
+@Configuration
+@Slf4j
+public class ExportConfig implements WebMvcConfigurer {
+
+  @Value("${banana_bean.export.max-concurrent:4}")
+  private int max_concurrent;
+
+  @Value("${banana_bean.export.timeout:10m}")
+  private Duration timeout;
+
+  @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+  private int pool_size;
+
+  @Bean
+  public ExportLimiter exportLimiter() {
+    int limit = max_concurrent;
+    if (limit >= pool_size) {
+      limit = Math.max(1, pool_size - 1);
+      log.warn("banana_bean.export.max-concurrent {} is not below the pool " +
+        "size {}, {} exports at most", max_concurrent, pool_size, limit);
+    }
+
+    return new ExportLimiter(limit, timeout);
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(exportLimiter());
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.ripe_bananas.banana_bean.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits of the movie exports: each one holds a connection for as long as
+ * it streams, so at most max_concurrent of them run at once and the others
+ * are turned away instead of queueing for the pool. An export gets its own
+ * async timeout when its body starts streaming, the other async requests
+ * keep spring.mvc.async.request-timeout.
+ */
+public class ExportLimiter implements CallableProcessingInterceptor {
+
+  private static final String EXPORT =
+    ExportLimiter.class.getName() + ".export";
+
+  private final Semaphore permits;
+
+  private final long timeout_ms;
+
+  public ExportLimiter(int max_concurrent, Duration timeout) {
+    this.permits = new Semaphore(max_concurrent);
+    this.timeout_ms = timeout.toMillis();
+  }
+
+  /**
+   * Takes a permit for the export of the current request.
+   *
+   * @return the body, which gives the permit back once written, or null
+   * when max_concurrent exports are already running
+   */
+  public StreamingResponseBody limit(StreamingResponseBody body) {
+    if (permits.tryAcquire() == false) {
+      return null;
+    }
+
+    RequestContextHolder.currentRequestAttributes().setAttribute(EXPORT,
+      Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    return output -> {
+      try {
+        body.writeTo(output);
+      } finally {
+        permits.release();
+      }
+    };
+  }
+
+  @Override
+  public <T> void beforeConcurrentHandling(NativeWebRequest request,
+                                           Callable<T> task) {
+    if (request instanceof AsyncWebRequest async_request &&
+      request.getAttribute(EXPORT, RequestAttributes.SCOPE_REQUEST) != null) {
+      async_request.setTimeout(timeout_ms);
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.ripe_bananas.banana_bean.service.DatasetVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * HTTP caching of the read endpoints: conditional requests are answered
+ * from the dataset version (see ConditionalRequestInterceptor) and every
+ * group of endpoints gets a Cache-Control max-age matching how often its
+ * content changes, so the gateway and the browsers can reuse a response
+ * and only revalidate it once stale. The headers go on the 2xx responses
+ * and the 304s only.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+  private final DatasetVersionService dataset_version;
+
+  @Value("${banana_bean.http-cache.reference-max-age:1h}")
+  private Duration reference_max_age;
+
+  @Value("${banana_bean.http-cache.details-max-age:10m}")
+  private Duration details_max_age;
+
+  @Value("${banana_bean.http-cache.suggestions-max-age:5m}")
+  private Duration suggestions_max_age;
+
+  @Value("${banana_bean.http-cache.search-max-age:1m}")
+  private Duration search_max_age;
+
+  @Bean
+  public ConditionalRequestInterceptor conditionalRequestInterceptor() {
+    ConditionalRequestInterceptor interceptor =
+      new ConditionalRequestInterceptor(dataset_version);
+    interceptor.addCacheMapping(
+      CacheControl.maxAge(reference_max_age).cachePublic(),
+      "/api/genres/**", "/api/reference_data/**");
+    interceptor.addCacheMapping(
+      CacheControl.maxAge(details_max_age).cachePublic(),
+      "/api/movies/get_movie_details/**",
+      "/api/movies/get_similar_movies/**");
+    interceptor.addCacheMapping(
+      CacheControl.maxAge(suggestions_max_age).cachePublic(),
+      "/api/autocomplete/**");
+    interceptor.addCacheMapping(
+      CacheControl.maxAge(search_max_age).cachePublic(),
+      "/api/movies/get_movies", "/api/movies/get_movies_by_cursor",
+      "/api/movies/get_movies_with_actor",
+      "/api/movies/get_movies_with_actor_name", "/api/actors/get_actors/",
+      "/api/oscar_awards/**");
+
+    return interceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(conditionalRequestInterceptor())
+      .addPathPatterns("/api/**");
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.ripe_bananas.banana_bean.metrics.SlowQueryListener;
+import com.ripe_bananas.banana_bean.metrics.SlowQueryLog;
+import com.ripe_bananas.banana_bean.metrics.SqlStatementListener;
+import com.ripe_bananas.banana_bean.metrics.StatementCountInterceptor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL metrics: the DataSource is wrapped by a datasource-proxy that times
+ * every execution and counts them per request, so SQL logging is not
+ * needed to find the endpoints running too many statements. The executions
+ * slower than banana_bean.slow-query.threshold go to the SlowQueryLog.
+ * The Hibernate statistics, which cost on every session, are only gathered
+ * with the hibernate-stats profile.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+  private final StatementCountInterceptor statement_count_interceptor =
+    new StatementCountInterceptor();
+
+  @Bean
+  public static BeanPostProcessor dataSourceProxyPostProcessor(
+    ObjectProvider<SlowQueryLog> slow_query_log) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean,
+                                                   String bean_name) {
+        if (bean instanceof DataSource data_source &&
+          (bean instanceof ProxyDataSource) == false) {
+          return ProxyDataSourceBuilder.create(data_source)
+            .name(bean_name)
+            .listener(new SqlStatementListener())
+            .listener(new SlowQueryListener(slow_query_log))
+            .build();
+        }
+
+        return bean;
+      }
+    };
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(statement_count_interceptor)
+      .addPathPatterns("/api/**");
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(statement_count_interceptor);
+  }
+
+}
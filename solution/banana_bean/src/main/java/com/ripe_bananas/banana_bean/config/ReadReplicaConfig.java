@@ -0,0 +1,84 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only transactions on read replicas, enabled by listing them in
+ * banana_bean.replicas.urls (DB_REPLICA_URLS, comma separated, same format
+ * as DATABASE_URL). The DataSource is a LazyConnectionDataSourceProxy: the
+ * connection is only taken when the first statement runs, by then the
+ * transaction is known to be read-only and the connection comes from
+ * ReadReplicas, everything else (writes, work outside transactions) goes
+ * to the primary.
+ */
+@Configuration
+@ConditionalOnExpression("'${banana_bean.replicas.urls:}'.isBlank() == false")
+public class ReadReplicaConfig {
+
+  @Bean(destroyMethod = "close")
+  public ReadReplicas readReplicas(
+    DataSourceProperties properties,
+    Environment environment,
+    @Value("${banana_bean.replicas.urls}") List<String> urls,
+    @Value("${banana_bean.replicas.pool-size:20}") int pool_size,
+    @Value("${banana_bean.replicas.max-lag:5s}") Duration max_lag,
+    @Value("${banana_bean.replicas.connection-timeout:1s}")
+    Duration connection_timeout,
+    @Value("${banana_bean.replicas.check-interval:5000}")
+    Duration check_interval) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder()
+      .type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari",
+      Bindable.ofInstance(primary));
+    if (primary.getPoolName() == null) {
+      primary.setPoolName("primary");
+    }
+
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (String url : urls) {
+      if (url.isBlank() == true) {
+        continue;
+      }
+      HikariDataSource replica = new HikariDataSource();
+      replica.setPoolName("replica-" + (replicas.size() + 1));
+      replica.setJdbcUrl("jdbc:" + url.trim());
+      replica.setUsername(properties.determineUsername());
+      replica.setPassword(properties.determinePassword());
+      replica.setMaximumPoolSize(pool_size);
+      replica.setMinimumIdle(Math.min(primary.getMinimumIdle(), pool_size));
+      // short, a replica that can not give a connection is skipped for
+      // the primary
+      replica.setConnectionTimeout(connection_timeout.toMillis());
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+
+    return new ReadReplicas(primary, replicas, max_lag, check_interval);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadReplicas read_replicas) {
+    LazyConnectionDataSourceProxy data_source =
+      new LazyConnectionDataSourceProxy(read_replicas.primary());
+    data_source.setReadOnlyDataSource(read_replicas.dataSource());
+
+    return data_source;
+  }
+
+}
@@ -0,0 +1,245 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools of the read replicas and of the primary. dataSource() hands out
+ * connections of the replicas in turn, skipping the ones that failed the
+ * last health check or whose replication lag is above max_lag; when no
+ * replica is usable the connection comes from the primary.
+ * The health checks run every check_interval on a thread of their own,
+ * never on the @Scheduled one where the index rebuilds can keep them
+ * waiting for minutes.
+ * Every replica publishes its lag, its health and the connections it
+ * served, the pools publish the usual hikaricp metrics tagged with their
+ * name.
+ */
+@Slf4j
+public class ReadReplicas implements Closeable {
+
+  /**
+   * Seconds since the last transaction replayed by a standby, 0 when it
+   * has replayed everything the primary had written when the check started
+   * (the parameter, everything it received if the primary position is not
+   * known) or when the server is not a standby (a plain second instance
+   * used as a stand-in). Null when the standby is not streaming: its
+   * receive and replay positions then agree while it falls behind.
+   */
+  private static final String LAG_QUERY = "SELECT CASE " +
+    "WHEN pg_is_in_recovery() = false THEN 0 " +
+    "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+    "WHERE status = 'streaming') THEN NULL " +
+    "WHEN pg_last_wal_replay_lsn() >= " +
+    "coalesce(CAST(? AS pg_lsn), pg_last_wal_receive_lsn()) THEN 0 " +
+    "ELSE coalesce(extract(epoch FROM now() - " +
+    "pg_last_xact_replay_timestamp()), 0) END";
+
+  private class Replica {
+
+    private final HikariDataSource pool;
+
+    private final Counter connections;
+
+    private volatile boolean healthy = true;
+
+    private volatile double lag_seconds;
+
+    private Replica(HikariDataSource pool) {
+      this.pool = pool;
+      this.connections = Counter.builder("banana_bean.replica.connections")
+        .description("Connections of read-only transactions served")
+        .tag("replica", pool.getPoolName())
+        .register(Metrics.globalRegistry);
+      Gauge.builder("banana_bean.replica.lag", this, r -> r.lag_seconds)
+        .description("Replication lag seen by the last health check")
+        .baseUnit("seconds")
+        .tag("replica", pool.getPoolName())
+        .register(Metrics.globalRegistry);
+      Gauge.builder("banana_bean.replica.healthy", this,
+          r -> r.healthy == true ? 1 : 0)
+        .description("1 if the replica receives read-only transactions")
+        .tag("replica", pool.getPoolName())
+        .register(Metrics.globalRegistry);
+    }
+
+    private void check(String primary_lsn) {
+      try (Connection connection = pool.getConnection();
+           PreparedStatement statement =
+             connection.prepareStatement(LAG_QUERY)) {
+        statement.setQueryTimeout(5);
+        statement.setString(1, primary_lsn);
+        ResultSet lag = statement.executeQuery();
+        lag.next();
+        lag_seconds = lag.getDouble(1);
+        if (lag.wasNull() == true) {
+          if (healthy == true) {
+            log.warn("Replica {} is now skipped: not streaming from the " +
+              "primary", pool.getPoolName());
+          }
+          lag_seconds = Double.NaN;
+          healthy = false;
+          return;
+        }
+        boolean usable = lag_seconds <= max_lag.toMillis() / 1000.0;
+        if (usable != healthy) {
+          log.warn("Replica {} is now {}, lag {}s", pool.getPoolName(),
+            usable == true ? "in use" : "skipped", lag_seconds);
+        }
+        healthy = usable;
+      } catch (SQLException e) {
+        if (healthy == true) {
+          log.warn("Replica {} is now skipped: {}", pool.getPoolName(),
+            e.getMessage());
+        }
+        healthy = false;
+      }
+    }
+
+  }
+
+  private final HikariDataSource primary;
+
+  private final List<Replica> replicas = new ArrayList<>();
+
+  private final Duration max_lag;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final ScheduledExecutorService checker =
+    Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  private final Counter fallbacks =
+    Counter.builder("banana_bean.replica.connections")
+      .description("Connections of read-only transactions served")
+      .tag("replica", "primary")
+      .register(Metrics.globalRegistry);
+
+  private final DataSource data_source = new AbstractDataSource() {
+    @Override
+    public Connection getConnection() throws SQLException {
+      return readConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password)
+      throws SQLException {
+      return readConnection();
+    }
+  };
+
+  /**
+   * @param primary pool of the primary, replica_pools the ones of the
+   * replicas, the metrics of all of them are tracked under their pool name
+   */
+  public ReadReplicas(HikariDataSource primary,
+                      List<HikariDataSource> replica_pools,
+                      Duration max_lag, Duration check_interval) {
+    this.primary = primary;
+    this.max_lag = max_lag;
+    primary.setMetricsTrackerFactory(
+      new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+    for (HikariDataSource pool : replica_pools) {
+      pool.setMetricsTrackerFactory(
+        new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+      replicas.add(new Replica(pool));
+    }
+    checker.scheduleWithFixedDelay(this::checkReplicas, 0,
+      check_interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public HikariDataSource primary() {
+    return primary;
+  }
+
+  /**
+   * DataSource of the read-only transactions.
+   */
+  public DataSource dataSource() {
+    return data_source;
+  }
+
+  /**
+   * Connection of the next usable replica, a replica that can not give one
+   * is skipped until its next successful health check.
+   */
+  private Connection readConnection() throws SQLException {
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica replica = replicas.get((start + i) % replicas.size());
+      if (replica.healthy == true) {
+        try {
+          Connection connection = replica.pool.getConnection();
+          replica.connections.increment();
+          return connection;
+        } catch (SQLException e) {
+          log.warn("Replica {} is now skipped: {}",
+            replica.pool.getPoolName(), e.getMessage());
+          replica.healthy = false;
+        }
+      }
+    }
+
+    fallbacks.increment();
+    return primary.getConnection();
+  }
+
+  /**
+   * WAL position of the primary, null when it can not be read.
+   */
+  private String primaryLsn() {
+    try (Connection connection = primary.getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.setQueryTimeout(5);
+      ResultSet lsn = statement.executeQuery(
+        "SELECT CAST(pg_current_wal_lsn() AS text)");
+      lsn.next();
+      return lsn.getString(1);
+    } catch (SQLException e) {
+      log.debug("Could not read the WAL position of the primary: {}",
+        e.getMessage());
+      return null;
+    }
+  }
+
+  public synchronized void checkReplicas() {
+    String primary_lsn = primaryLsn();
+    for (Replica replica : replicas) {
+      replica.check(primary_lsn);
+    }
+  }
+
+  @Override
+  public void close() {
+    checker.shutdownNow();
+    for (Replica replica : replicas) {
+      replica.pool.close();
+    }
+    primary.close();
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.ripe_bananas.banana_bean.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * At most max_concurrent requests handled at once, the others wait for
+ * up to timeout and are then turned away with a 503. With platform threads
+ * server.tomcat.threads.max plays this part, with virtual threads Tomcat
+ * starts a thread for every request and nothing else stops them from all
+ * queueing on the connection pool.
+ * The permit is given back when the handler returns, the streamed exports
+ * have their own limit (see ExportLimiter).
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+  private final Semaphore permits;
+
+  private final long timeout_ms;
+
+  public RequestLimitFilter(int max_concurrent, Duration timeout) {
+    this.permits = new Semaphore(max_concurrent);
+    this.timeout_ms = timeout.toMillis();
+  }
+
+  private boolean acquire() {
+    try {
+      return permits.tryAcquire(timeout_ms, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain chain)
+    throws ServletException, IOException {
+    if (acquire() == false) {
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+      return;
+    }
+
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.ripe_bananas.banana_bean.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings that only apply with spring.threads.virtual.enabled
+ * (VIRTUAL_THREADS). The flag is experimental and off by default: the
+ * banana_stem/benchmarks/concurrent_searches.sh load test has not been run
+ * against either mode yet, so neither is known to be faster.
+ * With it on the number of requests in flight is tied to the connection
+ * pool by a RequestLimitFilter of banana_bean.virtual-threads.
+ * max-concurrent-requests (DB_POOL_SIZE by default), a request waits for
+ * at most the pool connection timeout before getting a 503.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+  @Bean
+  public FilterRegistrationBean<RequestLimitFilter> requestLimitFilter(
+    @Value("${banana_bean.virtual-threads.max-concurrent-requests:" +
+      "${spring.datasource.hikari.maximum-pool-size:10}}")
+    int max_concurrent,
+    @Value("${spring.datasource.hikari.connection-timeout:30000}")
+    long timeout_ms) {
+    FilterRegistrationBean<RequestLimitFilter> registration =
+      new FilterRegistrationBean<>(new RequestLimitFilter(max_concurrent,
+        Duration.ofMillis(timeout_ms)));
+    registration.addUrlPatterns("/api/*");
+
+    return registration;
+  }
+
+}
@@ -1,6 +1,10 @@
 package com.ripe_bananas.banana_bean.controller;
 
-import com.ripe_bananas.banana_bean.entity.Actor;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
+import com.ripe_bananas.banana_bean.dto.ActorDTO;
+import com.ripe_bananas.banana_bean.dto.ActorPathDTO;
+import com.ripe_bananas.banana_bean.dto.CoStarDTO;
+import com.ripe_bananas.banana_bean.service.ActorGraphService;
 import com.ripe_bananas.banana_bean.service.ActorsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,10 +16,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/actors")
 @RequiredArgsConstructor
@@ -25,18 +32,20 @@ public class ActorsController {
 
   public final ActorsService actors_service;
 
+  private final ActorGraphService actor_graph_service;
+
   @Tag(name = "Actors", description = "Actors related endpoints")
   @Operation(summary = "Extract Actors which name match the given String " +
     "parameter")
   @ApiResponses(value = {
     @ApiResponse(responseCode = "200", content = {@Content(mediaType
-      = "application/json",
-      schema = @Schema(implementation = Actor.class))}),
+      = "application/json", schema = @Schema(oneOf = {PagedModel.class,
+      SliceDTO.class}))}),
     @ApiResponse(responseCode = "404", description = "Actor/s not found",
       content = @Content)
   })
   @GetMapping("/get_actors/")
-  public ResponseEntity<Page<Actor>> getActors(
+  public ResponseEntity<?> getActors(
     @Parameter(description = "Name of the actor to seach")
     @RequestParam(required = false) String name,
     @Parameter(description = "Sort field for the query")
@@ -47,9 +56,25 @@ public class ActorsController {
       "retieve the next page of the same search")
     @RequestParam(value = "page_num", defaultValue = "0") int page_num,
     @Parameter(description = "Number of entries per page")
-    @RequestParam(value = "page_sz", defaultValue = "25") int page_size
-    ){
-    Page<Actor> response = actors_service.searchActorByName(name, sort_by, sort_direction,
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_size,
+    @Parameter(description = "If false the total number of results is not " +
+      "counted, the response only tells if a next page exists and an " +
+      "approximate total when available")
+    @RequestParam(value = "with_total", defaultValue = "true")
+    boolean with_total
+  ) {
+    if (with_total == false) {
+      SliceDTO<ActorDTO> response = actors_service.searchActorSliceByName(
+        name, sort_by, sort_direction, page_num, page_size);
+
+      if (response == null || response.getContent().isEmpty() == true){
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+
+    Page<ActorDTO> response = actors_service.searchActorByName(name, sort_by, sort_direction,
       page_num,
       page_size);
 
@@ -60,4 +85,127 @@ public class ActorsController {
     return ResponseEntity.ok().body(response);
   }
 
+  @Tag(name = "Actors", description = "Actors related endpoints")
+  @Operation(summary = "Given a list of Actor Ids extract those Actors, in " +
+    "the same order of the ids")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = ActorDTO.class))}),
+    @ApiResponse(responseCode = "400", description = "No ids or more than " +
+      ActorsService.MAX_ACTORS_BATCH + " ids given", content = @Content),
+    @ApiResponse(responseCode = "404", description = "Actors not found",
+      content = @Content)
+  })
+  @PostMapping("/get_actors_batch")
+  public ResponseEntity<List<ActorDTO>> getActorsBatch(
+    @Parameter(description = "Ids of the actors you want to search")
+    @RequestBody(required = false) List<Integer> ids) {
+    List<ActorDTO> response = actors_service.findActorsByIds(ids);
+
+    if (response == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (response.isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
+  @Tag(name = "Actors", description = "Actors related endpoints")
+  @Operation(summary = "Given two Actor Ids extract the ids of the movies " +
+    "in which both of them appear",
+    description = "Answered from the in-memory actor graph, the details " +
+      "of the movies can be read with get_movie_details_batch")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = Integer.class))}),
+    @ApiResponse(responseCode = "404", description = "Actor/s not found",
+      content = @Content)
+  })
+  @GetMapping("/get_shared_movies")
+  public ResponseEntity<List<Integer>> getSharedMovies(
+    @Parameter(description = "Id of the first actor")
+    @RequestParam(value = "actor_id") Integer actor_id,
+    @Parameter(description = "Id of the second actor")
+    @RequestParam(value = "other_actor_id") Integer other_actor_id) {
+    List<Integer> response = actor_graph_service.findSharedMovies(actor_id,
+      other_actor_id);
+
+    if (response == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
+  @Tag(name = "Actors", description = "Actors related endpoints")
+  @Operation(summary = "Given an Actor Id extract the actors who appear " +
+    "with them in the most movies",
+    description = "Answered from the in-memory actor graph, the names of " +
+      "the actors can be read with get_actors_batch")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = CoStarDTO.class))}),
+    @ApiResponse(responseCode = "404", description = "Actor not found",
+      content = @Content)
+  })
+  @GetMapping("/get_co_stars")
+  public ResponseEntity<List<CoStarDTO>> getCoStars(
+    @Parameter(description = "Id of the actor")
+    @RequestParam(value = "actor_id") Integer actor_id,
+    @Parameter(description = "Number of co-stars to retrieve, at most " +
+      ActorGraphService.MAX_CO_STARS)
+    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    List<CoStarDTO> response = actor_graph_service.findTopCoStars(actor_id,
+      limit);
+
+    if (response == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
+  @Tag(name = "Actors", description = "Actors related endpoints")
+  @Operation(summary = "Given two Actor Ids extract the shortest chain of " +
+    "co-stars linking them",
+    description = "Degrees of separation answered from the in-memory " +
+      "actor graph: each actor of the chain appears with the next one in " +
+      "the movie at the same position")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = ActorPathDTO.class))}),
+    @ApiResponse(responseCode = "400", description = "max_degrees below 1",
+      content = @Content),
+    @ApiResponse(responseCode = "404", description = "Actor/s not found or " +
+      "not linked within max_degrees movies", content = @Content)
+  })
+  @GetMapping("/get_actor_path")
+  public ResponseEntity<ActorPathDTO> getActorPath(
+    @Parameter(description = "Id of the first actor")
+    @RequestParam(value = "actor_id") Integer actor_id,
+    @Parameter(description = "Id of the second actor")
+    @RequestParam(value = "other_actor_id") Integer other_actor_id,
+    @Parameter(description = "Longest chain searched in movies, from 1 to " +
+      ActorGraphService.MAX_DEGREES + ", a larger value is lowered to it")
+    @RequestParam(value = "max_degrees", defaultValue = "6") int max_degrees) {
+    if (max_degrees <= 0) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    ActorPathDTO response = actor_graph_service.findActorPath(actor_id,
+      other_actor_id, max_degrees);
+
+    if (response == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
 }
@@ -0,0 +1,70 @@
+package com.ripe_bananas.banana_bean.controller;
+
+import com.ripe_bananas.banana_bean.dto.SuggestionDTO;
+import com.ripe_bananas.banana_bean.service.AutocompleteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class AutocompleteController {
+
+  private final AutocompleteService autocomplete_service;
+
+  @Tag(name = "Autocomplete", description = "Type-ahead related endpoints")
+  @Operation(summary = "Suggest movie, actor and Oscar nominee names " +
+    "having a word that starts with the given prefix",
+    description = "Served from memory without querying the database, " +
+      "names starting with the prefix come first")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = SuggestionDTO.class))}),
+    @ApiResponse(responseCode = "400", description = "Unknown kind",
+      content = @Content),
+    @ApiResponse(responseCode = "404", description = "No suggestion found",
+      content = @Content)
+  })
+  @GetMapping("/get_suggestions")
+  public ResponseEntity<List<SuggestionDTO>> getSuggestions(
+    @Parameter(description = "Text typed so far, case and accent " +
+      "insensitive")
+    @RequestParam(value = "prefix") String prefix,
+    @Parameter(description = "movie, actor or oscar, leave blank to search " +
+      "all of them")
+    @RequestParam(required = false) String kind,
+    @Parameter(description = "Maximum number of suggestions, at most 50")
+    @RequestParam(value = "limit", defaultValue = "10") int limit
+  ) {
+    List<SuggestionDTO> response = autocomplete_service.suggest(prefix, kind,
+      limit);
+
+    if (response == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (response.isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
+}
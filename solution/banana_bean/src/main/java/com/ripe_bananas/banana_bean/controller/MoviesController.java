@@ -1,8 +1,17 @@
 package com.ripe_bananas.banana_bean.controller;
 
-import com.ripe_bananas.banana_bean.entity.BasicMovie;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ripe_bananas.banana_bean.config.ExportLimiter;
+import com.ripe_bananas.banana_bean.dto.CursorPageDTO;
+import com.ripe_bananas.banana_bean.dto.FacetedPageDTO;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.dto.SimilarMovieDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
 import com.ripe_bananas.banana_bean.entity.Movie;
 import com.ripe_bananas.banana_bean.service.MoviesService;
+import com.ripe_bananas.banana_bean.service.SimilarMoviesService;
+import com.ripe_bananas.banana_bean.utility.MovieExportWriter;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,9 +22,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -28,23 +42,36 @@ public class MoviesController {
 
   private final MoviesService movies_service;
 
+  private final SimilarMoviesService similar_movies_service;
+
+  private final ObjectMapper object_mapper;
+
+  private final ExportLimiter export_limiter;
+
   @Tag(name = "Movies", description = "Movies related endpoints")
   @Operation(summary = "Extract a Page of movies matching specific search",
     description = "Select a Page of movies that corresponds to a certain " +
       "search, blank fields be omitted by the search")
   @ApiResponses(value = {
     @ApiResponse(responseCode = "200", content = {@Content(mediaType
-      = "application/json",
-      schema = @Schema(implementation = BasicMovie.class))}),
+      = "application/json", schema = @Schema(oneOf = {PagedModel.class,
+      FacetedPageDTO.class, SliceDTO.class}))}),
+    @ApiResponse(responseCode = "400", description = "Invalid genre_mode " +
+      "or page_sz, or with_facets=true with with_total=false, the facets " +
+      "need the total",
+      content = @Content),
     @ApiResponse(responseCode = "404", description = "Movies not " +
       "found", content = @Content)
   })
   @GetMapping("/get_movies")
-  public ResponseEntity<Page<BasicMovie>> getMovies(
+  public ResponseEntity<?> getMovies(
     @Parameter(description = "Name of the movie")
     @RequestParam(required = false) String movie_name,
     @Parameter(description = "list of genres to search the movie with")
     @RequestParam(required = false) List<String> genres,
+    @Parameter(description = "all (default) to search the movies having " +
+      "every genre of the list, any for the ones having at least one")
+    @RequestParam(required = false) String genre_mode,
     @Parameter(description = "Year of release, minimum")
     @RequestParam(required = false) Integer min_year,
     @Parameter(description = "Year of release, maximum, leave blank if not " +
@@ -67,13 +94,56 @@ public class MoviesController {
     @Parameter(description = "Number of page to retrieve, if > 0 " +
       "retieve the next page of the same search")
     @RequestParam(value = "page_num", defaultValue = "0") int page_num,
-    @Parameter(description = "Number of entries per page")
-    @RequestParam(value = "page_sz", defaultValue = "25") int page_size
+    @Parameter(description = "Number of entries per page, at most " +
+      MovieSearchKey.MAX_PAGE_SIZE)
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_size,
+    @Parameter(description = "If false the total number of results is not " +
+      "counted, the response only tells if a next page exists and an " +
+      "approximate total when available")
+    @RequestParam(value = "with_total", defaultValue = "true")
+    boolean with_total,
+    @Parameter(description = "If true the page comes with the number of " +
+      "movies of the search per genre, decade, rating and duration, it can " +
+      "not be combined with with_total=false")
+    @RequestParam(value = "with_facets", defaultValue = "false")
+    boolean with_facets
   ) {
-    Page<BasicMovie> response =
-      movies_service.findMoviesWithFilters(movie_name, genres, min_rating,
-        max_rating, min_year, max_year, min_duration, max_duration, sort_by,
-        sort_direction, page_num, page_size);
+    if (MoviesService.isValidGenreMode(genre_mode) == false ||
+      MoviesService.isValidPageSize(page_size) == false ||
+      (with_facets == true && with_total == false)) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    if (with_total == false) {
+      SliceDTO<MovieSummaryDTO> response =
+        movies_service.findMoviesSliceWithFilters(movie_name, genres,
+          genre_mode, min_rating, max_rating, min_year, max_year,
+          min_duration, max_duration, sort_by, sort_direction, page_num,
+          page_size);
+
+      if (response == null || response.getContent().isEmpty() == true) {
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+    if (with_facets == true) {
+      FacetedPageDTO<MovieSummaryDTO> response =
+        movies_service.findMoviesWithFacets(movie_name, genres, genre_mode,
+          min_rating, max_rating, min_year, max_year, min_duration,
+          max_duration, sort_by, sort_direction, page_num, page_size);
+
+      if (response == null || response.getContent().isEmpty() == true) {
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+
+    Page<MovieSummaryDTO> response =
+      movies_service.findMoviesWithFilters(movie_name, genres, genre_mode,
+        min_rating, max_rating, min_year, max_year, min_duration, max_duration,
+        sort_by, sort_direction, page_num, page_size);
 
     if (response == null || response.isEmpty() == true) {
       return ResponseEntity.notFound().build();
@@ -82,6 +152,79 @@ public class MoviesController {
     return ResponseEntity.ok().body(response);
   }
 
+  @Tag(name = "Movies", description = "Movies related endpoints")
+  @Operation(summary = "Extract movies matching specific search one page " +
+    "after the other using a cursor",
+    description = "Keyset version of get_movies, the response contains a " +
+      "next_cursor to pass back to get the following page, the sort is " +
+      "stored in the cursor. Pages do not get slower as the search goes on " +
+      "and no total count is computed")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = CursorPageDTO.class))}),
+    @ApiResponse(responseCode = "400", description = "Invalid cursor, " +
+      "sort field, genre_mode or page_sz", content = @Content),
+    @ApiResponse(responseCode = "404", description = "Movies not " +
+      "found", content = @Content)
+  })
+  @GetMapping("/get_movies_by_cursor")
+  public ResponseEntity<CursorPageDTO<MovieSummaryDTO>> getMoviesByCursor(
+    @Parameter(description = "Name of the movie")
+    @RequestParam(required = false) String movie_name,
+    @Parameter(description = "list of genres to search the movie with")
+    @RequestParam(required = false) List<String> genres,
+    @Parameter(description = "all (default) to search the movies having " +
+      "every genre of the list, any for the ones having at least one")
+    @RequestParam(required = false) String genre_mode,
+    @Parameter(description = "Year of release, minimum")
+    @RequestParam(required = false) Integer min_year,
+    @Parameter(description = "Year of release, maximum, leave blank if not " +
+      "needed")
+    @RequestParam(required = false) Integer max_year,
+    @Parameter(description = "Minimum rating to search")
+    @RequestParam(required = false) Float min_rating,
+    @Parameter(description = "Maximum rating to search, leave blank if not " +
+      "needed")
+    @RequestParam(required = false) Float max_rating,
+    @Parameter(description = "Minimum duration to search")
+    @RequestParam(required = false) Integer min_duration,
+    @Parameter(description = "Maximum duration to search, leave blank if " +
+      "not needed")
+    @RequestParam(required = false) Integer max_duration,
+    @Parameter(description = "Sort field for the query, ignored when a " +
+      "cursor is given")
+    @RequestParam(required = false) String sort_by,
+    @Parameter(description = "Sort direction, case insensitive, ignored " +
+      "when a cursor is given")
+    @RequestParam(required = false) String sort_direction,
+    @Parameter(description = "next_cursor of the previous page, leave " +
+      "blank to get the first page")
+    @RequestParam(required = false) String cursor,
+    @Parameter(description = "Number of entries per page, at most " +
+      MovieSearchKey.MAX_PAGE_SIZE)
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_size
+  ) {
+    if (MoviesService.isValidGenreMode(genre_mode) == false ||
+      MoviesService.isValidPageSize(page_size) == false) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    CursorPageDTO<MovieSummaryDTO> response =
+      movies_service.findMoviesByCursor(movie_name, genres, genre_mode,
+        min_rating, max_rating, min_year, max_year, min_duration, max_duration,
+        sort_by, sort_direction, cursor, page_size);
+
+    if (response == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (response.getContent().isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
   @Tag(name = "Movies", description = "Movies related endpoints")
   @Operation(summary = "Given a Movie Id extract all the informations " +
     "regarding that Movie")
@@ -105,24 +248,88 @@ public class MoviesController {
     return ResponseEntity.ok().body(response);
   }
 
+  @Tag(name = "Movies", description = "Movies related endpoints")
+  @Operation(summary = "Given a Movie Id extract the movies most similar " +
+    "to it",
+    description = "Movies sharing the most genres, themes, studios and " +
+      "main actors, the rarer ones counting more, best first. Answered " +
+      "from a precomputed table of at most " +
+      SimilarMoviesService.MAX_LIMIT + " movies per movie")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = SimilarMovieDTO.class))}),
+    @ApiResponse(responseCode = "404", description = "Movies not found",
+      content = @Content)
+  })
+  @GetMapping("/get_similar_movies/{id}")
+  public ResponseEntity<List<SimilarMovieDTO>> getSimilarMovies(
+    @Parameter(description = "Id of the movie")
+    @PathVariable Integer id,
+    @Parameter(description = "Number of movies to retrieve, at most " +
+      SimilarMoviesService.MAX_LIMIT)
+    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    List<SimilarMovieDTO> response =
+      similar_movies_service.findSimilarMovies(id, limit);
+
+    if (response == null || response.isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
+  @Tag(name = "Movies", description = "Movies related endpoints")
+  @Operation(summary = "Given a list of Movie Ids extract all the " +
+    "informations regarding those Movies, in the same order of the ids")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = Movie.class))}),
+    @ApiResponse(responseCode = "400", description = "No ids or more than " +
+      MoviesService.MAX_DETAILS_BATCH + " ids given", content = @Content),
+    @ApiResponse(responseCode = "404", description = "Movies not found",
+      content = @Content)
+  })
+  @PostMapping("/get_movie_details_batch")
+  public ResponseEntity<List<Movie>> getMovieDetailsBatch(
+    @Parameter(description = "Ids of the movies you want to search")
+    @RequestBody(required = false) List<Integer> ids) {
+    List<Movie> response = movies_service.findMovieDetailsByIds(ids);
+
+    if (response == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (response.isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
   @Tag(name = "Movies", description = "Movies related endpoints")
   @Operation(summary = "Given an Actor Id extract all the movies in which " +
     "that actor appears")
   @ApiResponses(value = {
     @ApiResponse(responseCode = "200", content = {@Content(mediaType
-      = "application/json",
-      schema = @Schema(implementation = BasicMovie.class))}),
+      = "application/json", schema = @Schema(oneOf = {PagedModel.class,
+      SliceDTO.class}))}),
+    @ApiResponse(responseCode = "400", description = "Invalid genre_mode " +
+      "or page_sz", content = @Content),
     @ApiResponse(responseCode = "404", description = "Movies not " +
       "found", content = @Content)
   })
   @GetMapping("/get_movies_with_actor")
-  public ResponseEntity<Page<BasicMovie>> getMoviesWithActor(
+  public ResponseEntity<?> getMoviesWithActor(
     @Parameter(description = "Id of the actor")
     @RequestParam(value = "actor_id") Integer actor_id,
     @Parameter(description = "Name of the movie")
     @RequestParam(required = false) String movie_name,
     @Parameter(description = "list of genres to search the movie with")
     @RequestParam(required = false) List<String> genres,
+    @Parameter(description = "all (default) to search the movies having " +
+      "every genre of the list, any for the ones having at least one")
+    @RequestParam(required = false) String genre_mode,
     @Parameter(description = "Year of release, minimum")
     @RequestParam(value = "min_year", defaultValue = "") Integer min_year,
     @Parameter(description = "Year of release, maximum, leave blank if not " +
@@ -145,13 +352,38 @@ public class MoviesController {
     @Parameter(description = "Number of page to retrieve, if > 0 " +
       "retrieve the next page of the same search")
     @RequestParam(value = "page_num", defaultValue = "0") int page_num,
-    @Parameter(description = "Number of entries per page")
-    @RequestParam(value = "page_sz", defaultValue = "25") int page_sz
+    @Parameter(description = "Number of entries per page, at most " +
+      MovieSearchKey.MAX_PAGE_SIZE)
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_sz,
+    @Parameter(description = "If false the total number of results is not " +
+      "counted, the response only tells if a next page exists and an " +
+      "approximate total when available")
+    @RequestParam(value = "with_total", defaultValue = "true")
+    boolean with_total
   ) {
-    Page<BasicMovie> response =
-      movies_service.findMoviesWithActorId(actor_id, movie_name, genres, min_rating,
-        max_rating, min_year, max_year, min_duration, max_duration, sort_by,
-        sort_direction, page_num, page_sz);
+    if (MoviesService.isValidGenreMode(genre_mode) == false ||
+      MoviesService.isValidPageSize(page_sz) == false) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    if (with_total == false) {
+      SliceDTO<MovieSummaryDTO> response =
+        movies_service.findMoviesSliceWithActorId(actor_id, movie_name,
+          genres, genre_mode, min_rating, max_rating, min_year, max_year,
+          min_duration, max_duration, sort_by, sort_direction, page_num,
+          page_sz);
+
+      if (response == null || response.getContent().isEmpty() == true) {
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+
+    Page<MovieSummaryDTO> response =
+      movies_service.findMoviesWithActorId(actor_id, movie_name, genres,
+        genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+        max_duration, sort_by, sort_direction, page_num, page_sz);
 
     if (response == null || response.isEmpty() == true) {
       return ResponseEntity.notFound().build();
@@ -165,19 +397,24 @@ public class MoviesController {
     "that actor appears [WARNING] the name will be put in like condition")
   @ApiResponses(value = {
     @ApiResponse(responseCode = "200", content = {@Content(mediaType
-      = "application/json",
-      schema = @Schema(implementation = BasicMovie.class))}),
+      = "application/json", schema = @Schema(oneOf = {PagedModel.class,
+      SliceDTO.class}))}),
+    @ApiResponse(responseCode = "400", description = "Invalid genre_mode " +
+      "or page_sz", content = @Content),
     @ApiResponse(responseCode = "404", description = "Movies not " +
       "found", content = @Content)
   })
   @GetMapping("/get_movies_with_actor_name")
-  public ResponseEntity<Page<BasicMovie>> getMoviesWithActorName(
+  public ResponseEntity<?> getMoviesWithActorName(
     @Parameter(description = "name of the actor")
     @RequestParam(required = false) String actor_name,
     @Parameter(description = "Name of the movie")
     @RequestParam(required = false) String movie_name,
     @Parameter(description = "list of genres to search the movie with")
     @RequestParam(required = false) List<String> genres,
+    @Parameter(description = "all (default) to search the movies having " +
+      "every genre of the list, any for the ones having at least one")
+    @RequestParam(required = false) String genre_mode,
     @Parameter(description = "Year of release, minimum")
     @RequestParam(value = "min_year", defaultValue = "") Integer min_year,
     @Parameter(description = "Year of release, maximum, leave blank if not " +
@@ -200,13 +437,38 @@ public class MoviesController {
     @Parameter(description = "Number of page to retrieve, if > 0 " +
       "retrieve the next page of the same search")
     @RequestParam(value = "page_num", defaultValue = "0") int page_num,
-    @Parameter(description = "Number of entries per page")
-    @RequestParam(value = "page_sz", defaultValue = "25") int page_sz
+    @Parameter(description = "Number of entries per page, at most " +
+      MovieSearchKey.MAX_PAGE_SIZE)
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_sz,
+    @Parameter(description = "If false the total number of results is not " +
+      "counted, the response only tells if a next page exists and an " +
+      "approximate total when available")
+    @RequestParam(value = "with_total", defaultValue = "true")
+    boolean with_total
   ) {
-    Page<BasicMovie> response =
-      movies_service.findMoviesWithActorName(actor_name, movie_name, genres, min_rating,
-        max_rating, min_year, max_year, min_duration, max_duration, sort_by,
-        sort_direction, page_num, page_sz);
+    if (MoviesService.isValidGenreMode(genre_mode) == false ||
+      MoviesService.isValidPageSize(page_sz) == false) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    if (with_total == false) {
+      SliceDTO<MovieSummaryDTO> response =
+        movies_service.findMoviesSliceWithActorName(actor_name, movie_name,
+          genres, genre_mode, min_rating, max_rating, min_year, max_year,
+          min_duration, max_duration, sort_by, sort_direction, page_num,
+          page_sz);
+
+      if (response == null || response.getContent().isEmpty() == true) {
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+
+    Page<MovieSummaryDTO> response =
+      movies_service.findMoviesWithActorName(actor_name, movie_name, genres,
+        genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+        max_duration, sort_by, sort_direction, page_num, page_sz);
 
     if (response == null || response.isEmpty() == true) {
       return ResponseEntity.notFound().build();
@@ -214,4 +476,91 @@ public class MoviesController {
 
     return ResponseEntity.ok().body(response);
   }
+
+  @Tag(name = "Movies", description = "Movies related endpoints")
+  @Operation(summary = "Export all the movies matching specific search",
+    description = "Streams every movie of the search, with the same " +
+      "filters of get_movies plus the actor ones, as NDJSON (one movie per " +
+      "line) or CSV. The rows are written while they are read from a " +
+      "single query, use it instead of walking through the pages")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {
+      @Content(mediaType = MovieExportWriter.NDJSON,
+        schema = @Schema(implementation = MovieSummaryDTO.class)),
+      @Content(mediaType = MovieExportWriter.CSV)}),
+    @ApiResponse(responseCode = "400", description = "Invalid genre_mode " +
+      "or sort_by", content = @Content),
+    @ApiResponse(responseCode = "503", description = "Too many exports " +
+      "running, retry after the Retry-After delay", content = @Content)
+  })
+  @GetMapping("/export_movies")
+  public ResponseEntity<StreamingResponseBody> exportMovies(
+    @Parameter(description = "ndjson (default) or csv, case insensitive")
+    @RequestParam(required = false) String format,
+    @Parameter(description = "Id of the actor")
+    @RequestParam(required = false) Integer actor_id,
+    @Parameter(description = "name of the actor")
+    @RequestParam(required = false) String actor_name,
+    @Parameter(description = "Name of the movie")
+    @RequestParam(required = false) String movie_name,
+    @Parameter(description = "list of genres to search the movie with")
+    @RequestParam(required = false) List<String> genres,
+    @Parameter(description = "all (default) to search the movies having " +
+      "every genre of the list, any for the ones having at least one")
+    @RequestParam(required = false) String genre_mode,
+    @Parameter(description = "Year of release, minimum")
+    @RequestParam(required = false) Integer min_year,
+    @Parameter(description = "Year of release, maximum, leave blank if not " +
+      "needed")
+    @RequestParam(required = false) Integer max_year,
+    @Parameter(description = "Minimum rating to search")
+    @RequestParam(required = false) Float min_rating,
+    @Parameter(description = "Maximum rating to search, leave blank if not " +
+      "needed")
+    @RequestParam(required = false) Float max_rating,
+    @Parameter(description = "Minimum duration to search")
+    @RequestParam(required = false) Integer min_duration,
+    @Parameter(description = "Maximum duration to search, leave blank if " +
+      "not needed")
+    @RequestParam(required = false) Integer max_duration,
+    @Parameter(description = "Sort field, one of id, name, date, rating " +
+      "and minute, the movies are sorted by id when not given")
+    @RequestParam(required = false) String sort_by,
+    @Parameter(description = "Sort direction, case insensitive")
+    @RequestParam(required = false) String sort_direction
+  ) {
+    if (MoviesService.isValidGenreMode(genre_mode) == false ||
+      MoviesService.isValidSortField(sort_by) == false) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    StreamingResponseBody body = output -> {
+      try (MovieExportWriter writer = MovieExportWriter.of(format,
+        object_mapper, output)) {
+        long exported = movies_service.exportMoviesWithFilters(actor_id,
+          actor_name, movie_name, genres, genre_mode, min_rating, max_rating,
+          min_year, max_year, min_duration, max_duration, sort_by,
+          sort_direction, writer);
+        log.debug("Exported {} movies", exported);
+      }
+    };
+    StreamingResponseBody limited = export_limiter.limit(body);
+    if (limited == null) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "10")
+        .build();
+    }
+
+    if (MovieExportWriter.isCsv(format) == true) {
+      return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(MovieExportWriter.CSV))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+          "attachment; filename=\"movies.csv\"")
+        .body(limited);
+    }
+
+    return ResponseEntity.ok()
+      .contentType(MediaType.parseMediaType(MovieExportWriter.NDJSON))
+      .body(limited);
+  }
 }
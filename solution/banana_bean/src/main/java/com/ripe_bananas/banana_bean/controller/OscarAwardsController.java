@@ -1,7 +1,11 @@
 package com.ripe_bananas.banana_bean.controller;
 
-import com.ripe_bananas.banana_bean.entity.OscarAward;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
+import com.ripe_bananas.banana_bean.dto.OscarAwardDTO;
+import com.ripe_bananas.banana_bean.dto.OscarStatsDTO;
+import com.ripe_bananas.banana_bean.index.OscarStats;
 import com.ripe_bananas.banana_bean.service.OscarAwardsService;
+import com.ripe_bananas.banana_bean.service.OscarStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,14 +16,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/oscar_awards")
@@ -28,8 +35,26 @@ import java.util.List;
 @Slf4j
 public class OscarAwardsController {
 
+  /**
+   * Group of the /stats/{group} path and its ranking when sort_by is not
+   * given.
+   */
+  private record StatsGroup(OscarStats.Group group,
+                            OscarStats.Order default_order) {
+  }
+
+  private static final Map<String, StatsGroup> STATS_GROUPS = Map.of(
+    "people", new StatsGroup(OscarStats.Group.PERSON, OscarStats.Order.WINS),
+    "films", new StatsGroup(OscarStats.Group.FILM, OscarStats.Order.WINS),
+    "categories", new StatsGroup(OscarStats.Group.CATEGORY,
+      OscarStats.Order.NOMINATIONS),
+    "years", new StatsGroup(OscarStats.Group.YEAR, OscarStats.Order.KEY)
+  );
+
   private final OscarAwardsService oscars_service;
 
+  private final OscarStatsService oscar_stats_service;
+
   @Tag(name = "Oscar Awards", description = "Oscar Awards related endpoints")
   @Operation(summary = "Extract a Page of Oscar Awards matching specific " +
     "search",
@@ -37,13 +62,13 @@ public class OscarAwardsController {
       "certain search, blank fields be omitted by the search")
   @ApiResponses(value = {
     @ApiResponse(responseCode = "200", content = {@Content(mediaType
-      = "application/json",
-      schema = @Schema(implementation = OscarAward.class))}),
+      = "application/json", schema = @Schema(oneOf = {PagedModel.class,
+      SliceDTO.class}))}),
     @ApiResponse(responseCode = "404", description = "Oscar Awards not " +
       "found", content = @Content)
   })
   @GetMapping("/get_oscar_awards")
-  public ResponseEntity<Page<OscarAward>> getOscarAwards(
+  public ResponseEntity<?> getOscarAwards(
     @Parameter(description = "Name of the awarded actor or crew member")
     @RequestParam(required = false) String name,
     @Parameter(description = "Name of the awarded film")
@@ -75,9 +100,28 @@ public class OscarAwardsController {
       "retieve the next page of the same search")
     @RequestParam(value = "page_num", defaultValue = "0") int page_num,
     @Parameter(description = "Number of entries per page")
-    @RequestParam(value = "page_sz", defaultValue = "25") int page_size
+    @RequestParam(value = "page_sz", defaultValue = "25") int page_size,
+    @Parameter(description = "If false the total number of results is not " +
+      "counted, the response only tells if a next page exists and an " +
+      "approximate total when available")
+    @RequestParam(value = "with_total", defaultValue = "true")
+    boolean with_total
   ) {
-    Page<OscarAward> response = oscars_service
+    if (with_total == false) {
+      SliceDTO<OscarAwardDTO> response = oscars_service
+        .findOscarAwardsSliceWithFilters(name, film_name, category,
+          min_year_film, max_year_film, min_year_ceremony, max_year_ceremony,
+          min_ceremony, max_ceremony, winner, sort_by, sort_direction,
+          page_num, page_size);
+
+      if (response == null || response.getContent().isEmpty() == true) {
+        return ResponseEntity.notFound().build();
+      }
+
+      return ResponseEntity.ok().body(response);
+    }
+
+    Page<OscarAwardDTO> response = oscars_service
       .findOscarAwardsWithFilers(name, film_name, category, min_year_film,
         max_year_film, min_year_ceremony, max_year_ceremony, min_ceremony,
         max_ceremony, winner, sort_by, sort_direction, page_num, page_size);
@@ -89,4 +133,52 @@ public class OscarAwardsController {
     return ResponseEntity.ok().body(response);
   }
 
+  @Tag(name = "Oscar Awards", description = "Oscar Awards related endpoints")
+  @Operation(summary = "Extract the Oscar nominations and wins per " +
+    "nominee, film, category or ceremony year",
+    description = "Totals precomputed in memory from all the Oscar Awards, " +
+      "ranked by wins, nominations, win_rate or key (default wins for " +
+      "people and films, nominations for categories, key for years)")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = OscarStatsDTO.class))}),
+    @ApiResponse(responseCode = "400", description = "Unknown sort field " +
+      "or limit not positive", content = @Content),
+    @ApiResponse(responseCode = "404", description = "Unknown group or no " +
+      "nomination found", content = @Content)
+  })
+  @GetMapping("/stats/{group}")
+  public ResponseEntity<List<OscarStatsDTO>> getStats(
+    @Parameter(description = "people, films, categories or years")
+    @PathVariable String group,
+    @Parameter(description = "Exact name of the nominee, film or category, " +
+      "or year of the ceremony, leave blank to rank all of them")
+    @RequestParam(required = false) String key,
+    @Parameter(description = "wins, nominations, win_rate or key")
+    @RequestParam(required = false) String sort_by,
+    @Parameter(description = "Minimum number of nominations to be ranked")
+    @RequestParam(value = "min_nominations", defaultValue = "1")
+    int min_nominations,
+    @Parameter(description = "Number of entries to retrieve, at most " +
+      OscarStatsService.MAX_LIMIT)
+    @RequestParam(value = "limit", defaultValue = "25") int limit) {
+    StatsGroup stats_group = STATS_GROUPS.get(group);
+    if (stats_group == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    List<OscarStatsDTO> response = oscar_stats_service.findStats(
+      stats_group.group(), key, sort_by, stats_group.default_order(),
+      min_nominations, limit);
+    if (response == null) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (response.isEmpty() == true) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok().body(response);
+  }
+
 }
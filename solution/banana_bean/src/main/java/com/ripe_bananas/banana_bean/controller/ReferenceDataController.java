@@ -0,0 +1,95 @@
+package com.ripe_bananas.banana_bean.controller;
+
+import com.ripe_bananas.banana_bean.dto.CountryDTO;
+import com.ripe_bananas.banana_bean.dto.StudioDTO;
+import com.ripe_bananas.banana_bean.service.ReferenceDataService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reference_data")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class ReferenceDataController {
+
+  private final ReferenceDataService reference_service;
+
+  @Tag(name = "Reference data", description = "Countries, studios and " +
+    "languages lists")
+  @Operation(summary = "Retrieve the list of countries from the Database")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = CountryDTO.class))}),
+    @ApiResponse(responseCode = "404", description = "List of Countries not " +
+      "found", content = @Content)
+  })
+  @GetMapping("/get_countries_list")
+  public ResponseEntity<List<CountryDTO>> getCountriesList(){
+    List<CountryDTO> response = reference_service.findCountriesList();
+
+    if (response != null && response.isEmpty() == false){
+      return ResponseEntity.ok().body(response);
+    }
+
+    return ResponseEntity.notFound().build();
+  }
+
+  @Tag(name = "Reference data", description = "Countries, studios and " +
+    "languages lists")
+  @Operation(summary = "Retrieve the list of studios from the Database")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = StudioDTO.class))}),
+    @ApiResponse(responseCode = "404", description = "List of Studios not " +
+      "found", content = @Content)
+  })
+  @GetMapping("/get_studios_list")
+  public ResponseEntity<List<StudioDTO>> getStudiosList(){
+    List<StudioDTO> response = reference_service.findStudiosList();
+
+    if (response != null && response.isEmpty() == false){
+      return ResponseEntity.ok().body(response);
+    }
+
+    return ResponseEntity.notFound().build();
+  }
+
+  @Tag(name = "Reference data", description = "Countries, studios and " +
+    "languages lists")
+  @Operation(summary = "Retrieve the list of spoken languages from the " +
+    "Database")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", content = {@Content(mediaType
+      = "application/json",
+      schema = @Schema(implementation = String.class))}),
+    @ApiResponse(responseCode = "404", description = "List of Languages not " +
+      "found", content = @Content)
+  })
+  @GetMapping("/get_languages_list")
+  public ResponseEntity<List<String>> getLanguagesList(){
+    List<String> response = reference_service.findLanguagesList();
+
+    if (response != null && response.isEmpty() == false){
+      return ResponseEntity.ok().body(response);
+    }
+
+    return ResponseEntity.notFound().build();
+  }
+
+}
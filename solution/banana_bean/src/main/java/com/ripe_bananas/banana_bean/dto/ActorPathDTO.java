@@ -0,0 +1,20 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Chain of co-stars between two actors: the actors at positions i and
+ * i + 1 of actor_ids both play in the movie at position i of movie_ids.
+ */
+@Data
+@AllArgsConstructor
+public class ActorPathDTO {
+  private Integer degrees;
+
+  private List<Integer> actor_ids;
+
+  private List<Integer> movie_ids;
+}
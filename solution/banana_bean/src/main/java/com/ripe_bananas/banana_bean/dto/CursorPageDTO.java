@@ -0,0 +1,18 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+  private List<T> content;
+
+  private Integer size;
+
+  private Boolean has_next;
+
+  private String next_cursor;
+}
@@ -0,0 +1,30 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+
+/**
+ * Page of results with the facet counts of the whole search, the content
+ * and page metadata are serialized like the Page responses.
+ */
+@Data
+@AllArgsConstructor
+public class FacetedPageDTO<T> {
+  private List<T> content;
+
+  private PagedModel.PageMetadata page;
+
+  private MovieFacetsDTO facets;
+
+  public static <T> FacetedPageDTO<T> of(Page<T> page,
+                                         MovieFacetsDTO facets) {
+    PagedModel<T> model = new PagedModel<>(page);
+
+    return new FacetedPageDTO<>(model.getContent(), model.getMetadata(),
+      facets);
+  }
+}
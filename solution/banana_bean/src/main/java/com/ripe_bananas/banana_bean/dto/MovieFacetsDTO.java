@@ -0,0 +1,34 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Number of movies of a search by genre, decade ("1990s"), rating ("3-4",
+ * the last bucket includes 5) and duration in minutes ("90-120", "180+").
+ * Buckets are in ascending order and the empty ones are left out.
+ */
+@Data
+@AllArgsConstructor
+public class MovieFacetsDTO {
+  private Map<String, Long> genres;
+
+  private Map<String, Long> decades;
+
+  private Map<String, Long> ratings;
+
+  private Map<String, Long> durations;
+
+  /**
+   * Copy of the facets and of their buckets, the cached instance is never
+   * handed out.
+   */
+  public MovieFacetsDTO copy() {
+    return new MovieFacetsDTO(new LinkedHashMap<>(genres),
+      new LinkedHashMap<>(decades), new LinkedHashMap<>(ratings),
+      new LinkedHashMap<>(durations));
+  }
+}
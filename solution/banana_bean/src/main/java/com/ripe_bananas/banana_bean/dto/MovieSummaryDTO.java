@@ -0,0 +1,41 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Movie as shown in the lists of search results, it serializes like
+ * BasicMovie (genres and poster as plain strings) but it is read by a
+ * projection selecting only these columns, it is detached from the
+ * persistence context, so it can be cached. The cached ones are handed out
+ * as copies, a caller changing its results does not change the cache.
+ */
+@Data
+@AllArgsConstructor
+public class MovieSummaryDTO {
+  private Integer id;
+
+  private String name;
+
+  private Integer date;
+
+  private String tagline;
+
+  private String description;
+
+  private Integer minute;
+
+  private Float rating;
+
+  private List<String> genres;
+
+  private String poster;
+
+  public MovieSummaryDTO copy() {
+    return new MovieSummaryDTO(id, name, date, tagline, description, minute,
+      rating, genres == null ? null : new ArrayList<>(genres), poster);
+  }
+}
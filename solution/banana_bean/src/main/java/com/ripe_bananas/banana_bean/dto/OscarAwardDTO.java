@@ -0,0 +1,24 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OscarAwardDTO {
+  private Integer id;
+
+  private Integer year_film;
+
+  private Integer year_ceremony;
+
+  private Integer ceremony;
+
+  private String category;
+
+  private String name;
+
+  private String film;
+
+  private Boolean winner;
+}
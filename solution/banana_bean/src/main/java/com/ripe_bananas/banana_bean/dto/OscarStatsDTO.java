@@ -0,0 +1,16 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OscarStatsDTO {
+  private String key;
+
+  private Long nominations;
+
+  private Long wins;
+
+  private Float win_rate;
+}
@@ -0,0 +1,16 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Movie of a related content list with its cosine similarity to the movie
+ * the list is for, between 0 and 1.
+ */
+@Data
+@AllArgsConstructor
+public class SimilarMovieDTO {
+  private Float score;
+
+  private MovieSummaryDTO movie;
+}
@@ -0,0 +1,40 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Page of results returned without counting them, the page metadata
+ * mirrors the one of the Page responses but it only tells whether a next
+ * page exists. approximate_total_elements is an estimate taken from the
+ * database statistics, it is null when no estimate is available for the
+ * search.
+ */
+@Data
+@AllArgsConstructor
+public class SliceDTO<T> {
+  private List<T> content;
+
+  private SliceMetadata page;
+
+  @Data
+  @AllArgsConstructor
+  public static class SliceMetadata {
+    private Integer size;
+
+    private Integer number;
+
+    private Boolean has_next;
+
+    private Long approximate_total_elements;
+  }
+
+  public static <T> SliceDTO<T> of(Slice<T> slice, Long approximate_total) {
+    return new SliceDTO<>(slice.getContent(),
+      new SliceMetadata(slice.getSize(), slice.getNumber(), slice.hasNext(),
+        approximate_total));
+  }
+}
@@ -0,0 +1,12 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StudioDTO {
+  private Integer studio_id;
+
+  private String studio;
+}
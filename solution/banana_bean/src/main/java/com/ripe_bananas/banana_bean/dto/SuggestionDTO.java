@@ -0,0 +1,14 @@
+package com.ripe_bananas.banana_bean.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SuggestionDTO {
+  private String kind;
+
+  private Integer id;
+
+  private String name;
+}
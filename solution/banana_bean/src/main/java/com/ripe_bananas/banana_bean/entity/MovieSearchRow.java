@@ -0,0 +1,69 @@
+package com.ripe_bananas.banana_bean.entity;
+
+import io.micrometer.common.lang.Nullable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Row of the movie_search materialized view (see
+ * banana_stem/migrations/002_movie_search.sql): a movie with its poster,
+ * genres and actor ids denormalized, read by the movie searches.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Immutable
+@Table(name = "movie_search")
+public class MovieSearchRow {
+  @Id
+  @Column(name = "id")
+  private Integer id;
+
+  @Column(name = "name", nullable = false)
+  private String name;
+
+  @Nullable
+  @Column(name = "date")
+  private Integer date;
+
+  @Nullable
+  @Column(name = "tagline")
+  private String tagline;
+
+  @Nullable
+  @Column(name = "description")
+  private String description;
+
+  @Nullable
+  @Column(name = "minute")
+  private Integer minute;
+
+  @Nullable
+  @Column(name = "rating")
+  private Float rating;
+
+  @Nullable
+  @Column(name = "poster_link")
+  private String poster_link;
+
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(name = "genres")
+  private String[] genres;
+
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(name = "genre_ids")
+  private Integer[] genre_ids;
+
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(name = "actor_ids")
+  private Integer[] actor_ids;
+}
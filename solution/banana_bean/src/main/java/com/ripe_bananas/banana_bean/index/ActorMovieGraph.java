@@ -0,0 +1,428 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Immutable in-memory graph of the actors and the movies they play in.
+ * Actor and movie ids are mapped to dense indexes (their position in a
+ * sorted array of ids), the edges are stored twice in compressed sparse
+ * row form: the movies of actor a are actor_movies[actor_offsets[a] ..
+ * actor_offsets[a + 1]), sorted, and the same for the actors of a movie.
+ * Only int arrays are kept, a few bytes per edge, and every query only
+ * walks the rows it needs.
+ */
+public class ActorMovieGraph {
+
+  /**
+   * Most shortestPath calls running at once, the others wait for one of
+   * them to end. A search is CPU bound and each one keeps arrays sized
+   * with the graph, more of them than cores would only take memory.
+   */
+  public static final int MAX_CONCURRENT_SEARCHES =
+    Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private final int[] actor_ids;
+
+  private final int[] movie_ids;
+
+  private final int[] actor_offsets;
+
+  private final int[] actor_movies;
+
+  private final int[] movie_offsets;
+
+  private final int[] movie_actors;
+
+  private ActorMovieGraph(int[] actor_ids, int[] movie_ids,
+                          int[] actor_offsets, int[] actor_movies,
+                          int[] movie_offsets, int[] movie_actors) {
+    this.actor_ids = actor_ids;
+    this.movie_ids = movie_ids;
+    this.actor_offsets = actor_offsets;
+    this.actor_movies = actor_movies;
+    this.movie_offsets = movie_offsets;
+    this.movie_actors = movie_actors;
+  }
+
+  public record CoStar(int actor_id, int shared_movies) {
+  }
+
+  /**
+   * Shortest chain between two actors: actor_ids[i] and actor_ids[i + 1]
+   * both play in movie_ids[i].
+   */
+  public record Path(int[] actor_ids, int[] movie_ids) {
+  }
+
+  /**
+   * Collects the (movie, actor) pairs in growable int arrays, repeated
+   * pairs are allowed (an actor with two roles in a movie).
+   */
+  public static class Builder {
+
+    private int[] movies = new int[1024];
+
+    private int[] actors = new int[1024];
+
+    private int size;
+
+    public Builder add(int movie_id, int actor_id) {
+      if (size == movies.length) {
+        movies = Arrays.copyOf(movies, size * 2);
+        actors = Arrays.copyOf(actors, size * 2);
+      }
+      movies[size] = movie_id;
+      actors[size] = actor_id;
+      size++;
+
+      return this;
+    }
+
+    public ActorMovieGraph build() {
+      int[] actor_ids = CompressedRows.distinct(actors, size);
+      int[] movie_ids = CompressedRows.distinct(movies, size);
+      int[] actor_index = CompressedRows.indexes(actors, size, actor_ids);
+      int[] movie_index = CompressedRows.indexes(movies, size, movie_ids);
+
+      int[][] by_actor = CompressedRows.build(actor_index, movie_index, size,
+        actor_ids.length);
+      int[][] by_movie = CompressedRows.build(movie_index, actor_index, size,
+        movie_ids.length);
+
+      return new ActorMovieGraph(actor_ids, movie_ids, by_actor[0],
+        by_actor[1], by_movie[0], by_movie[1]);
+    }
+
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private int actorIndex(int actor_id) {
+    int index = Arrays.binarySearch(actor_ids, actor_id);
+
+    return index < 0 ? -1 : index;
+  }
+
+  public boolean hasActor(int actor_id) {
+    return actorIndex(actor_id) >= 0;
+  }
+
+  public int actorCount() {
+    return actor_ids.length;
+  }
+
+  public int movieCount() {
+    return movie_ids.length;
+  }
+
+  public int edgeCount() {
+    return actor_movies.length;
+  }
+
+  /**
+   * @return the ids of the movies of both actors in ascending order, empty
+   * if one of them is not in the graph
+   */
+  public int[] sharedMovies(int actor_id, int other_actor_id) {
+    int a = actorIndex(actor_id);
+    int b = actorIndex(other_actor_id);
+    if (a < 0 || b < 0) {
+      return new int[0];
+    }
+
+    int i = actor_offsets[a];
+    int j = actor_offsets[b];
+    int[] shared = new int[Math.min(actor_offsets[a + 1] - i,
+      actor_offsets[b + 1] - j)];
+    int count = 0;
+    while (i < actor_offsets[a + 1] && j < actor_offsets[b + 1]) {
+      if (actor_movies[i] < actor_movies[j]) {
+        i++;
+      } else if (actor_movies[i] > actor_movies[j]) {
+        j++;
+      } else {
+        shared[count++] = movie_ids[actor_movies[i]];
+        i++;
+        j++;
+      }
+    }
+
+    return Arrays.copyOf(shared, count);
+  }
+
+  /**
+   * The limit actors sharing the most movies with the given one, ties
+   * broken by actor id.
+   */
+  public List<CoStar> topCoStars(int actor_id, int limit) {
+    int a = actorIndex(actor_id);
+    if (a < 0 || limit <= 0) {
+      return List.of();
+    }
+
+    int total = 0;
+    for (int i = actor_offsets[a]; i < actor_offsets[a + 1]; i++) {
+      int m = actor_movies[i];
+      total += movie_offsets[m + 1] - movie_offsets[m];
+    }
+    int[] co_stars = new int[total];
+    int count = 0;
+    for (int i = actor_offsets[a]; i < actor_offsets[a + 1]; i++) {
+      int m = actor_movies[i];
+      for (int j = movie_offsets[m]; j < movie_offsets[m + 1]; j++) {
+        if (movie_actors[j] != a) {
+          co_stars[count++] = movie_actors[j];
+        }
+      }
+    }
+    Arrays.sort(co_stars, 0, count);
+
+    // worst of the kept ones at the head: fewest movies, then highest id
+    Comparator<CoStar> by_rank = Comparator
+      .comparingInt(CoStar::shared_movies)
+      .thenComparing(CoStar::actor_id, Comparator.reverseOrder());
+    PriorityQueue<CoStar> top = new PriorityQueue<>(limit + 1, by_rank);
+    for (int i = 0; i < count; ) {
+      int run = i;
+      while (run < count && co_stars[run] == co_stars[i]) {
+        run++;
+      }
+      top.add(new CoStar(actor_ids[co_stars[i]], run - i));
+      if (top.size() > limit) {
+        top.poll();
+      }
+      i = run;
+    }
+
+    List<CoStar> res = new ArrayList<>(top);
+    res.sort(by_rank.reversed());
+
+    return res;
+  }
+
+  /**
+   * Scratch arrays of one side of a search, indexed by actor and movie: an
+   * actor was reached (a movie expanded) in the current search when its
+   * stamp is the generation of the search, so the arrays are reused from
+   * one search to the next without being cleared.
+   */
+  private final class Side {
+
+    private final int[] actor_stamps = new int[actor_ids.length];
+
+    private final int[] parents = new int[actor_ids.length];
+
+    private final int[] movies = new int[actor_ids.length];
+
+    private final int[] depths = new int[actor_ids.length];
+
+    private final int[] movie_stamps = new int[movie_ids.length];
+
+    private int[] frontier = new int[16];
+
+    private int frontier_size;
+
+    private int[] next = new int[16];
+
+    private int next_size;
+
+    private int generation;
+
+    private void clear() {
+      Arrays.fill(actor_stamps, 0);
+      Arrays.fill(movie_stamps, 0);
+    }
+
+    private void start(int actor, int search_generation) {
+      generation = search_generation;
+      frontier_size = 0;
+      next_size = 0;
+      reach(actor, -1, -1, 0);
+      advance();
+    }
+
+    private boolean reached(int actor) {
+      return actor_stamps[actor] == generation;
+    }
+
+    private void reach(int actor, int parent, int movie, int depth) {
+      actor_stamps[actor] = generation;
+      parents[actor] = parent;
+      movies[actor] = movie;
+      depths[actor] = depth;
+      if (next_size == next.length) {
+        next = Arrays.copyOf(next, next_size * 2);
+      }
+      next[next_size++] = actor;
+    }
+
+    /**
+     * The actors reached by the last expansion become the frontier.
+     */
+    private void advance() {
+      int[] expanded = frontier;
+      frontier = next;
+      frontier_size = next_size;
+      next = expanded;
+      next_size = 0;
+    }
+
+  }
+
+  /**
+   * Both sides of a search, kept in searches between two of them.
+   */
+  private final class Search {
+
+    private final Side forward = new Side();
+
+    private final Side backward = new Side();
+
+    private int generation;
+
+    private void start(int from, int to) {
+      generation++;
+      if (generation == 0) {
+        // wrapped around, stamps of old searches could match again
+        forward.clear();
+        backward.clear();
+        generation = 1;
+      }
+      forward.start(from, generation);
+      backward.start(to, generation);
+    }
+
+  }
+
+  /**
+   * Searches not in use, there are as many as the most shortestPath calls
+   * that ran at once, at most MAX_CONCURRENT_SEARCHES.
+   */
+  private final Queue<Search> searches = new ConcurrentLinkedQueue<>();
+
+  private final Semaphore search_permits =
+    new Semaphore(MAX_CONCURRENT_SEARCHES);
+
+  /**
+   * Expands every actor of the frontier of side by one movie, the actors
+   * reached for the first time make its next frontier.
+   *
+   * @return the actor reached by other with the shortest total distance,
+   * -1 if none
+   */
+  private int expand(Side side, Side other) {
+    int meeting = -1;
+    int best = Integer.MAX_VALUE;
+    for (int f = 0; f < side.frontier_size; f++) {
+      int actor = side.frontier[f];
+      int depth = side.depths[actor] + 1;
+      for (int i = actor_offsets[actor]; i < actor_offsets[actor + 1]; i++) {
+        int m = actor_movies[i];
+        if (side.movie_stamps[m] == side.generation) {
+          continue;
+        }
+        side.movie_stamps[m] = side.generation;
+        for (int j = movie_offsets[m]; j < movie_offsets[m + 1]; j++) {
+          int co_star = movie_actors[j];
+          if (side.reached(co_star) == true) {
+            continue;
+          }
+          side.reach(co_star, actor, m, depth);
+
+          if (other.reached(co_star) == true &&
+            depth + other.depths[co_star] < best) {
+            best = depth + other.depths[co_star];
+            meeting = co_star;
+          }
+        }
+      }
+    }
+    side.advance();
+
+    return meeting;
+  }
+
+  /**
+   * Shortest chain of co-stars between two actors, found by a breadth
+   * first search from both ends that always expands the smaller frontier,
+   * so only the neighbourhoods of the two actors are visited instead of
+   * the whole graph. The visited actors and movies are marked in arrays
+   * reused by the next searches, nothing is allocated per visit. At most
+   * MAX_CONCURRENT_SEARCHES run at once.
+   *
+   * @param max_degrees longest chain searched, in movies
+   * @return null if the actors are not linked within max_degrees movies or
+   * are not in the graph
+   */
+  public Path shortestPath(int actor_id, int other_actor_id,
+                           int max_degrees) {
+    int from = actorIndex(actor_id);
+    int to = actorIndex(other_actor_id);
+    if (from < 0 || to < 0) {
+      return null;
+    }
+    if (from == to) {
+      return new Path(new int[]{actor_id}, new int[0]);
+    }
+
+    search_permits.acquireUninterruptibly();
+    Search search = searches.poll();
+    if (search == null) {
+      search = new Search();
+    }
+    try {
+      search.start(from, to);
+      Side forward = search.forward;
+      Side backward = search.backward;
+
+      int meeting = -1;
+      for (int degrees = 0; degrees < max_degrees && meeting < 0;
+           degrees++) {
+        if (forward.frontier_size == 0 || backward.frontier_size == 0) {
+          return null;
+        }
+
+        if (forward.frontier_size <= backward.frontier_size) {
+          meeting = expand(forward, backward);
+        } else {
+          meeting = expand(backward, forward);
+        }
+      }
+      if (meeting < 0) {
+        return null;
+      }
+
+      int forward_depth = forward.depths[meeting];
+      int length = forward_depth + backward.depths[meeting];
+      int[] actors = new int[length + 1];
+      int[] movies = new int[length];
+      int a = meeting;
+      for (int k = forward_depth; k > 0; k--) {
+        actors[k] = actor_ids[a];
+        movies[k - 1] = movie_ids[forward.movies[a]];
+        a = forward.parents[a];
+      }
+      actors[0] = actor_id;
+      a = meeting;
+      for (int k = forward_depth; k < length; k++) {
+        movies[k] = movie_ids[backward.movies[a]];
+        a = backward.parents[a];
+        actors[k + 1] = actor_ids[a];
+      }
+
+      return new Path(actors, movies);
+    } finally {
+      searches.offer(search);
+      search_permits.release();
+    }
+  }
+
+  int pooledSearches() {
+    return searches.size();
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.util.Arrays;
+
+/**
+ * Helpers building the compressed sparse rows of the in-memory graphs:
+ * ids are mapped to dense indexes, their position in a sorted array of the
+ * distinct ids, and the columns of row r are
+ * columns[offsets[r] .. offsets[r + 1]).
+ */
+final class CompressedRows {
+
+  private CompressedRows() {
+  }
+
+  /**
+   * @return the distinct values among the first size ones, sorted
+   */
+  static int[] distinct(int[] values, int size) {
+    int[] sorted = Arrays.copyOf(values, size);
+    Arrays.sort(sorted);
+    int count = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[count++] = sorted[i];
+      }
+    }
+
+    return Arrays.copyOf(sorted, count);
+  }
+
+  /**
+   * @return the dense index of every one of the first size values in ids
+   */
+  static int[] indexes(int[] values, int size, int[] ids) {
+    int[] indexes = new int[size];
+    for (int i = 0; i < size; i++) {
+      indexes[i] = Arrays.binarySearch(ids, values[i]);
+    }
+
+    return indexes;
+  }
+
+  /**
+   * Compressed sparse rows of the edges row[i] -> column[i]: the offsets
+   * then the columns, every row sorted and without repeated columns.
+   */
+  static int[][] build(int[] row, int[] column, int size, int row_count) {
+    int[] offsets = new int[row_count + 1];
+    for (int i = 0; i < size; i++) {
+      offsets[row[i] + 1]++;
+    }
+    for (int r = 0; r < row_count; r++) {
+      offsets[r + 1] += offsets[r];
+    }
+
+    int[] columns = new int[size];
+    int[] next = Arrays.copyOf(offsets, row_count);
+    for (int i = 0; i < size; i++) {
+      columns[next[row[i]]++] = column[i];
+    }
+
+    // sort every row and drop the repeated columns, compacting in place
+    int written = 0;
+    for (int r = 0; r < row_count; r++) {
+      int from = offsets[r];
+      int to = offsets[r + 1];
+      Arrays.sort(columns, from, to);
+      offsets[r] = written;
+      for (int i = from; i < to; i++) {
+        if (i == from || columns[i] != columns[i - 1]) {
+          columns[written++] = columns[i];
+        }
+      }
+    }
+    offsets[row_count] = written;
+
+    return new int[][]{offsets, Arrays.copyOf(columns, written)};
+  }
+
+}
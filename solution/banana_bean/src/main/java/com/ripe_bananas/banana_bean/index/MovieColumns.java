@@ -0,0 +1,456 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Immutable in-memory copy of the filterable columns of movie_search, one
+ * primitive array per column and one bitset per genre, rows ordered by
+ * movie id. A search builds a bitset of the matching rows 64 rows at a
+ * time with branch-free comparisons, then reads the page from the sort
+ * orders computed when the columns are built, and returns the ids of the
+ * page: the rows themselves are then read from the database by id.
+ * Every value column is an int[], the ratings kept as ints ordered like
+ * the floats, so that one range filter serves them all. NULL is NaN for
+ * the ratings and Integer.MIN_VALUE for the other columns, so it never
+ * matches a range, and it sorts after every value like PostgreSQL does.
+ * A descending sort is the exact reverse of the ascending one, ties
+ * included (by id).
+ */
+public class MovieColumns {
+
+  private static final int NULL_YEAR = Integer.MIN_VALUE;
+
+  private static final int NULL_MINUTE = Integer.MIN_VALUE;
+
+  private static final int NULL_RATING = sortable(Float.NaN);
+
+  /**
+   * Words with at most this many matching rows left only check these rows.
+   */
+  private static final int SPARSE_WORD = 16;
+
+  private final int[] ids;
+
+  private final int[] years;
+
+  private final int[] ratings;
+
+  private final int[] minutes;
+
+  private final long[][] genres;
+
+  private final Order by_year;
+
+  private final Order by_rating;
+
+  private final Order by_minute;
+
+  private MovieColumns(int[] ids, int[] years, int[] ratings,
+                       int[] minutes, long[][] genres) {
+    this.ids = ids;
+    this.years = years;
+    this.ratings = ratings;
+    this.minutes = minutes;
+    this.genres = genres;
+
+    int rows = ids.length;
+    by_year = Order.of(rows, row -> years[row] == NULL_YEAR ?
+      Integer.MAX_VALUE : years[row]);
+    by_minute = Order.of(rows, row -> minutes[row] == NULL_MINUTE ?
+      Integer.MAX_VALUE : minutes[row]);
+    by_rating = Order.of(rows, row -> ratings[row]);
+  }
+
+  /**
+   * Ids of a page of results and the number of movies of the search.
+   */
+  public record Result(int[] ids, long total) {
+  }
+
+  /**
+   * Rows sorted by a column then by id, and the position of every row in
+   * that order.
+   */
+  private record Order(int[] rows, int[] ranks) {
+
+    private static Order of(int size, IntUnaryOperator key) {
+      long[] keys = new long[size];
+      for (int row = 0; row < size; row++) {
+        keys[row] = ((long) key.applyAsInt(row) << 32) | row;
+      }
+      Arrays.sort(keys);
+
+      int[] rows = new int[size];
+      int[] ranks = new int[size];
+      for (int rank = 0; rank < size; rank++) {
+        rows[rank] = (int) keys[rank];
+        ranks[rows[rank]] = rank;
+      }
+
+      return new Order(rows, ranks);
+    }
+
+  }
+
+  /**
+   * Collects the rows in any order, a movie added twice keeps its last
+   * values.
+   */
+  public static class Builder {
+
+    private int[] ids = new int[1024];
+
+    private int[] years = new int[1024];
+
+    private float[] ratings = new float[1024];
+
+    private int[] minutes = new int[1024];
+
+    private int[][] genre_ids = new int[1024][];
+
+    private int size;
+
+    public Builder add(int id, Integer year, Float rating, Integer minute,
+                       int[] genre_ids) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        years = Arrays.copyOf(years, size * 2);
+        ratings = Arrays.copyOf(ratings, size * 2);
+        minutes = Arrays.copyOf(minutes, size * 2);
+        this.genre_ids = Arrays.copyOf(this.genre_ids, size * 2);
+      }
+      ids[size] = id;
+      years[size] = year == null ? NULL_YEAR : year;
+      ratings[size] = rating == null ? Float.NaN : rating;
+      minutes[size] = minute == null ? NULL_MINUTE : minute;
+      this.genre_ids[size] = genre_ids == null ? new int[0] : genre_ids;
+      size++;
+
+      return this;
+    }
+
+    public MovieColumns build() {
+      // rows ordered by id, the last row of a repeated id wins
+      long[] order = new long[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = ((long) ids[i] << 32) | (Integer.MAX_VALUE - i);
+      }
+      Arrays.sort(order);
+
+      int rows = 0;
+      int max_genre = -1;
+      int[] kept = new int[size];
+      for (int i = 0; i < size; i++) {
+        int row = Integer.MAX_VALUE - (int) order[i];
+        if (rows == 0 || ids[kept[rows - 1]] != ids[row]) {
+          kept[rows++] = row;
+          for (int genre : genre_ids[row]) {
+            max_genre = Math.max(max_genre, genre);
+          }
+        }
+      }
+
+      // the value columns are padded with NULL to a whole number of words
+      int padded = words(rows) << 6;
+      int[] sorted_ids = new int[rows];
+      int[] sorted_years = new int[padded];
+      int[] sorted_ratings = new int[padded];
+      int[] sorted_minutes = new int[padded];
+      Arrays.fill(sorted_years, NULL_YEAR);
+      Arrays.fill(sorted_ratings, NULL_RATING);
+      Arrays.fill(sorted_minutes, NULL_MINUTE);
+      long[][] genres = new long[max_genre + 1][];
+      for (int r = 0; r < rows; r++) {
+        int row = kept[r];
+        sorted_ids[r] = ids[row];
+        sorted_years[r] = years[row];
+        sorted_ratings[r] = sortable(ratings[row]);
+        sorted_minutes[r] = minutes[row];
+        for (int genre : genre_ids[row]) {
+          if (genre < 0) {
+            continue;
+          }
+          if (genres[genre] == null) {
+            genres[genre] = new long[words(rows)];
+          }
+          genres[genre][r >>> 6] |= 1L << r;
+        }
+      }
+
+      return new MovieColumns(sorted_ids, sorted_years, sorted_ratings,
+        sorted_minutes, genres);
+    }
+
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static int words(int rows) {
+    return (rows + 63) >>> 6;
+  }
+
+  /**
+   * @return true if the results can be sorted by the field, null meaning
+   * not sorted
+   */
+  public static boolean supportsSort(String sort_by) {
+    return sort_by == null || sort_by.equals("id") == true ||
+      sort_by.equals("date") == true || sort_by.equals("rating") == true ||
+      sort_by.equals("minute") == true;
+  }
+
+  /**
+   * @return the order of the field, null for the id order of the rows
+   */
+  private Order order(String sort_by) {
+    if (sort_by == null) {
+      return null;
+    }
+
+    return switch (sort_by) {
+      case "date" -> by_year;
+      case "rating" -> by_rating;
+      case "minute" -> by_minute;
+      default -> null;
+    };
+  }
+
+  public int size() {
+    return ids.length;
+  }
+
+  private long[] allRows() {
+    long[] match = new long[words(ids.length)];
+    Arrays.fill(match, -1L);
+    if ((ids.length & 63) != 0) {
+      match[match.length - 1] = (1L << ids.length) - 1;
+    }
+
+    return match;
+  }
+
+  private long[] genreRows(int genre_id) {
+    if (genre_id < 0 || genre_id >= genres.length) {
+      return null;
+    }
+
+    return genres[genre_id];
+  }
+
+  private void filterGenres(long[] match, Collection<Integer> genre_ids,
+                            boolean any_genre) {
+    if (any_genre == true) {
+      long[] any = new long[match.length];
+      for (Integer genre_id : genre_ids) {
+        long[] rows = genreRows(genre_id);
+        if (rows != null) {
+          for (int w = 0; w < match.length; w++) {
+            any[w] |= rows[w];
+          }
+        }
+      }
+      for (int w = 0; w < match.length; w++) {
+        match[w] &= any[w];
+      }
+      return;
+    }
+
+    for (Integer genre_id : genre_ids) {
+      long[] rows = genreRows(genre_id);
+      for (int w = 0; w < match.length; w++) {
+        match[w] &= rows == null ? 0 : rows[w];
+      }
+    }
+  }
+
+  /**
+   * @return 1 if min <= value <= max, 0 otherwise, without a branch: the
+   * range checks of the filters are taken about half of the time in no
+   * predictable order
+   */
+  private static long inRange(long value, long min, long max) {
+    return (((value - min) | (max - value)) >>> 63) ^ 1;
+  }
+
+  /**
+   * @return an int ordered like the float, -0 equal to 0 and the NaN of a
+   * NULL after the positive infinity
+   */
+  private static int sortable(float value) {
+    int bits = Float.floatToRawIntBits(value + 0f);
+    return bits ^ ((bits >> 31) & 0x7fffffff);
+  }
+
+  /**
+   * Keeps the rows whose value of the column is in [min, max].
+   */
+  private static void filterRange(long[] match, int[] column, int min,
+                                  int max) {
+    for (int w = 0; w < match.length; w++) {
+      long word = match[w];
+      if (word == 0) {
+        continue;
+      }
+      int base = w << 6;
+      long bits = 0;
+      if (Long.bitCount(word) <= SPARSE_WORD) {
+        for (; word != 0; word &= word - 1) {
+          int j = Long.numberOfTrailingZeros(word);
+          bits |= inRange(column[base + j], min, max) << j;
+        }
+      } else {
+        for (int j = 0; j < 64; j++) {
+          bits |= inRange(column[base + j], min, max) << j;
+        }
+      }
+      match[w] &= bits;
+    }
+  }
+
+  private static boolean isSet(long[] match, int row) {
+    return (match[row >>> 6] & (1L << row)) != 0;
+  }
+
+  /**
+   * Page read by walking the sort order until it is full, the cost depends
+   * on how far the page is and not on the number of matching rows.
+   */
+  private int[] walkOrder(long[] match, Order order, boolean descending,
+                          long offset, int size) {
+    int[] page = new int[size];
+    int found = 0;
+    long skipped = 0;
+    for (int i = 0; i < ids.length && found < size; i++) {
+      int rank = descending == true ? ids.length - 1 - i : i;
+      int row = order == null ? rank : order.rows()[rank];
+      if (isSet(match, row) == false) {
+        continue;
+      }
+      if (skipped < offset) {
+        skipped++;
+        continue;
+      }
+      page[found++] = ids[row];
+    }
+
+    return page;
+  }
+
+  /**
+   * Page read by keeping the needed smallest ranks of the matching rows in
+   * a bounded max-heap, the cost depends on the number of matching rows:
+   * cheaper than walking the order when only a few rows match.
+   */
+  private int[] topRanks(long[] match, Order order, boolean descending,
+                         long offset, int needed) {
+    int[] heap = new int[needed];
+    int size = 0;
+    for (int w = 0; w < match.length; w++) {
+      long word = match[w];
+      while (word != 0) {
+        int row = (w << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+        int rank = order == null ? row : order.ranks()[row];
+        if (descending == true) {
+          rank = ids.length - 1 - rank;
+        }
+        if (size < needed) {
+          // sift up
+          int at = size++;
+          while (at > 0 && heap[(at - 1) >>> 1] < rank) {
+            heap[at] = heap[(at - 1) >>> 1];
+            at = (at - 1) >>> 1;
+          }
+          heap[at] = rank;
+        } else if (rank < heap[0]) {
+          // replace the greatest and sift down
+          int at = 0;
+          while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+              break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+              child++;
+            }
+            if (heap[child] <= rank) {
+              break;
+            }
+            heap[at] = heap[child];
+            at = child;
+          }
+          heap[at] = rank;
+        }
+      }
+    }
+    Arrays.sort(heap, 0, size);
+
+    int[] page = new int[size - (int) offset];
+    for (int i = 0; i < page.length; i++) {
+      int rank = heap[(int) offset + i];
+      if (descending == true) {
+        rank = ids.length - 1 - rank;
+      }
+      page[i] = ids[order == null ? rank : order.rows()[rank]];
+    }
+
+    return page;
+  }
+
+  /**
+   * Same filters as BasicMoviesSpecifications, a null bound or an empty
+   * genre list is not checked. An unknown genre matches no movie, or is
+   * ignored with any_genre.
+   *
+   * @param sort_by one of the supportsSort fields, null sorts by id
+   */
+  public Result search(Collection<Integer> genre_ids, boolean any_genre,
+                       Float min_rating, Float max_rating, Integer min_year,
+                       Integer max_year, Integer min_duration,
+                       Integer max_duration, String sort_by,
+                       boolean descending, long offset, int limit) {
+    long[] match = allRows();
+    if (genre_ids != null && genre_ids.isEmpty() == false) {
+      filterGenres(match, genre_ids, any_genre);
+    }
+    if (min_year != null || max_year != null) {
+      filterRange(match, years, min_year == null ? NULL_YEAR + 1 : min_year,
+        max_year == null ? Integer.MAX_VALUE : max_year);
+    }
+    if (min_rating != null || max_rating != null) {
+      filterRange(match, ratings,
+        sortable(min_rating == null ? Float.NEGATIVE_INFINITY : min_rating),
+        sortable(max_rating == null ? Float.POSITIVE_INFINITY : max_rating));
+    }
+    if (min_duration != null || max_duration != null) {
+      filterRange(match, minutes, min_duration == null ? NULL_MINUTE + 1 :
+        min_duration, max_duration == null ? Integer.MAX_VALUE : max_duration);
+    }
+
+    long total = 0;
+    for (long word : match) {
+      total += Long.bitCount(word);
+    }
+    if (offset >= total || limit <= 0) {
+      return new Result(new int[0], total);
+    }
+
+    // walking the order reads about needed * rows / total rows, the heap
+    // reads the total matching rows
+    int needed = (int) Math.min(total, offset + limit);
+    Order order = order(sort_by);
+    int[] page;
+    if ((double) needed * ids.length <= (double) total * total) {
+      page = walkOrder(match, order, descending, offset, needed - (int) offset);
+    } else {
+      page = topRanks(match, order, descending, offset, needed);
+    }
+
+    return new Result(page, total);
+  }
+
+}
@@ -0,0 +1,158 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nominations and wins of the Oscar awards rolled up by nominee, film,
+ * category and ceremony year. A table is immutable and built from all the
+ * awards at once. The totals of every group are kept sorted in each Order,
+ * a ranking is a walk of one of these arrays.
+ */
+public class OscarStats {
+
+  public enum Group { PERSON, FILM, CATEGORY, YEAR }
+
+  public enum Order { WINS, NOMINATIONS, WIN_RATE, KEY }
+
+  private static final Map<Order, Comparator<Tally>> COMPARATORS = Map.of(
+    Order.WINS, Comparator.comparingLong(Tally::wins).reversed()
+      .thenComparing(Comparator.comparingLong(Tally::nominations).reversed())
+      .thenComparing(Tally::key),
+    Order.NOMINATIONS, Comparator.comparingLong(Tally::nominations).reversed()
+      .thenComparing(Comparator.comparingLong(Tally::wins).reversed())
+      .thenComparing(Tally::key),
+    // wins / nominations compared without rounding, as cross products
+    Order.WIN_RATE, ((Comparator<Tally>) (a, b) -> Long.compare(
+      b.wins() * a.nominations(), a.wins() * b.nominations()))
+      .thenComparing(Comparator.comparingLong(Tally::nominations).reversed())
+      .thenComparing(Tally::key),
+    Order.KEY, Comparator.comparing(Tally::key)
+  );
+
+  /**
+   * One row of oscar_awards, the fields not rolled up are left out.
+   */
+  public record Award(Integer year_ceremony, String category,
+                      String name, String film, boolean winner) {
+  }
+
+  public record Tally(String key, long nominations, long wins) {
+
+    public float winRate() {
+      return nominations == 0 ? 0 : (float) wins / nominations;
+    }
+
+  }
+
+  private final long award_count;
+
+  private final Map<Group, Map<String, Tally>> tallies;
+
+  private final Map<Group, Map<Order, Tally[]>> rankings =
+    new EnumMap<>(Group.class);
+
+  private OscarStats(long award_count,
+                     Map<Group, Map<String, Tally>> tallies) {
+    this.award_count = award_count;
+    this.tallies = tallies;
+
+    for (Group group : Group.values()) {
+      Tally[] all = tallies.get(group).values().toArray(new Tally[0]);
+      Map<Order, Tally[]> orders = new EnumMap<>(Order.class);
+      for (Order order : Order.values()) {
+        Tally[] sorted = all.clone();
+        Arrays.sort(sorted, COMPARATORS.get(order));
+        orders.put(order, sorted);
+      }
+      rankings.put(group, orders);
+    }
+  }
+
+  public static OscarStats empty() {
+    return of(List.of());
+  }
+
+  private static String keyOf(Award award, Group group) {
+    String key = switch (group) {
+      case PERSON -> award.name();
+      case FILM -> award.film();
+      case CATEGORY -> award.category();
+      case YEAR -> award.year_ceremony() == null ? null :
+        award.year_ceremony().toString();
+    };
+
+    return key == null || key.isBlank() == true ? null : key;
+  }
+
+  /**
+   * @return the totals of the given awards, a group is not counted for an
+   * award that has no value for it
+   */
+  public static OscarStats of(List<Award> awards) {
+    Map<Group, Map<String, Tally>> tallies = new EnumMap<>(Group.class);
+    for (Group group : Group.values()) {
+      Map<String, Tally> totals = new HashMap<>();
+      for (Award award : awards) {
+        String key = keyOf(award, group);
+        if (key == null) {
+          continue;
+        }
+        long win = award.winner() == true ? 1 : 0;
+        totals.merge(key, new Tally(key, 1, win),
+          (a, b) -> new Tally(key, a.nominations() + 1, a.wins() + win));
+      }
+      tallies.put(group, totals);
+    }
+
+    return new OscarStats(awards.size(), tallies);
+  }
+
+  /**
+   * @return true if both tables have the same totals in every group
+   */
+  public boolean sameTotals(OscarStats other) {
+    return tallies.equals(other.tallies);
+  }
+
+  public long awardCount() {
+    return award_count;
+  }
+
+  public int size(Group group) {
+    return tallies.get(group).size();
+  }
+
+  /**
+   * @return the totals of the given nominee, film, category or year, null
+   * if it has no nomination
+   */
+  public Tally tally(Group group, String key) {
+    return tallies.get(group).get(key);
+  }
+
+  /**
+   * @return at most limit totals of the group with at least min_nominations
+   * nominations, in the given order
+   */
+  public List<Tally> top(Group group, Order order, long min_nominations,
+                         int limit) {
+    List<Tally> res = new ArrayList<>();
+    for (Tally tally : rankings.get(group).get(order)) {
+      if (res.size() >= limit) {
+        break;
+      }
+      if (tally.nominations() >= min_nominations) {
+        res.add(tally);
+      }
+    }
+
+    return res;
+  }
+
+}
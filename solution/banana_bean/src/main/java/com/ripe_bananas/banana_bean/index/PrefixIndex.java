@@ -0,0 +1,234 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable in-memory index answering "names starting with" queries.
+ * The normalized names are stored one after the other in a single char
+ * array, every word of a name is a searchable start position, and the
+ * start positions are kept sorted by the text that follows them: a prefix
+ * query is a binary search followed by a scan of the matching range, with
+ * no allocation per entry and no database round trip.
+ * "god" finds "The Godfather" as well as "God's Own Country".
+ */
+public class PrefixIndex {
+
+  private static final char END = '\0';
+
+  private final int[] ids;
+
+  private final String[] labels;
+
+  private final char[] text;
+
+  private final int[] starts;
+
+  private final int[] owners;
+
+  private PrefixIndex(int[] ids, String[] labels, char[] text, int[] starts,
+                      int[] owners) {
+    this.ids = ids;
+    this.labels = labels;
+    this.text = text;
+    this.starts = starts;
+    this.owners = owners;
+  }
+
+  public record Entry(int id, String label) {
+  }
+
+  /**
+   * Lower case, without accents, with every run of characters that are
+   * not letters or digits replaced by a single space.
+   */
+  public static String normalize(String name) {
+    if (name == null) {
+      return "";
+    }
+
+    String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+    StringBuilder res = new StringBuilder(decomposed.length());
+    boolean space = true;
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK) {
+        continue;
+      }
+      if (Character.isLetterOrDigit(c) == true) {
+        res.append(Character.toLowerCase(c));
+        space = false;
+      } else if (space == false) {
+        res.append(' ');
+        space = true;
+      }
+    }
+    if (res.isEmpty() == false && res.charAt(res.length() - 1) == ' ') {
+      res.setLength(res.length() - 1);
+    }
+
+    return res.toString();
+  }
+
+  /**
+   * Collects the names one at a time, each one is normalized into the
+   * shared text as it is added so the rows read from the database are never
+   * held as a list of their own.
+   */
+  public static class Builder {
+
+    private int[] ids = new int[1024];
+
+    private final List<String> labels = new ArrayList<>();
+
+    private final StringBuilder text = new StringBuilder();
+
+    private final List<int[]> word_starts = new ArrayList<>();
+
+    public Builder add(int id, String label) {
+      int owner = labels.size();
+      if (owner == ids.length) {
+        ids = Arrays.copyOf(ids, owner * 2);
+      }
+      ids[owner] = id;
+      labels.add(label);
+
+      String key = normalize(label);
+      int base = text.length();
+      for (int j = 0; j < key.length(); j++) {
+        if (j == 0 || key.charAt(j - 1) == ' ') {
+          word_starts.add(new int[]{base + j, owner});
+        }
+      }
+      text.append(key).append(END);
+
+      return this;
+    }
+
+    public PrefixIndex build() {
+      char[] chars = new char[text.length()];
+      text.getChars(0, text.length(), chars, 0);
+
+      Comparator<int[]> by_suffix = (a, b) -> compare(chars, a[0], b[0]);
+      word_starts.sort(by_suffix.thenComparingInt(a -> a[1]));
+
+      int[] starts = new int[word_starts.size()];
+      int[] owners = new int[word_starts.size()];
+      for (int i = 0; i < starts.length; i++) {
+        starts[i] = word_starts.get(i)[0];
+        owners[i] = word_starts.get(i)[1];
+      }
+
+      return new PrefixIndex(Arrays.copyOf(ids, labels.size()),
+        labels.toArray(new String[0]), chars, starts, owners);
+    }
+
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static PrefixIndex build(List<Entry> entries) {
+    Builder builder = builder();
+    for (Entry entry : entries) {
+      builder.add(entry.id(), entry.label());
+    }
+
+    return builder.build();
+  }
+
+  private static int compare(char[] text, int a, int b) {
+    while (true) {
+      char ca = text[a++];
+      char cb = text[b++];
+      if (ca != cb) {
+        return Character.compare(ca, cb);
+      }
+      if (ca == END) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * @return < 0, 0 or > 0 if the text at position comes before, starts
+   * with or comes after the prefix
+   */
+  private int compareToPrefix(int position, String prefix) {
+    for (int i = 0; i < prefix.length(); i++) {
+      char c = text[position + i];
+      if (c != prefix.charAt(i)) {
+        return c == END ? -1 : Character.compare(c, prefix.charAt(i));
+      }
+    }
+
+    return 0;
+  }
+
+  private int lowerBound(String prefix) {
+    int low = 0;
+    int high = starts.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compareToPrefix(starts[mid], prefix) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Up to limit entries with a word starting with the given prefix, the
+   * ones whose whole name starts with it come first. Only the first
+   * limit * 8 matching words are looked at, so very common prefixes cost
+   * the same as rare ones.
+   */
+  public List<Entry> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    List<Entry> res = new ArrayList<>();
+    if (key.isEmpty() == true || limit <= 0) {
+      return res;
+    }
+
+    List<Integer> whole = new ArrayList<>();
+    List<Integer> inner = new ArrayList<>();
+    int from = lowerBound(key);
+    int to = Math.min(starts.length, from + limit * 8);
+    for (int i = from; i < to && compareToPrefix(starts[i], key) == 0; i++) {
+      int owner = owners[i];
+      if (starts[i] == 0 || text[starts[i] - 1] == END) {
+        whole.add(owner);
+      } else if (inner.contains(owner) == false) {
+        inner.add(owner);
+      }
+    }
+
+    for (Integer owner : inner) {
+      if (whole.contains(owner) == false) {
+        whole.add(owner);
+      }
+    }
+    for (int i = 0; i < whole.size() && i < limit; i++) {
+      int owner = whole.get(i);
+      res.add(new Entry(ids[owner], labels[owner]));
+    }
+
+    return res;
+  }
+
+  public int size() {
+    return ids.length;
+  }
+
+  public int maxId() {
+    return Arrays.stream(ids).max().orElse(0);
+  }
+
+}
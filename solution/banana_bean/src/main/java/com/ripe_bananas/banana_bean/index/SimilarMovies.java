@@ -0,0 +1,289 @@
+package com.ripe_bananas.banana_bean.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable table of the most similar movies of every movie, computed once
+ * from sparse feature vectors (genres, themes, studios, actors... as opaque
+ * long ids). A feature is weighted by its inverse document frequency, so a
+ * shared actor counts more than a shared "Drama", and two movies are
+ * compared by the cosine of their weighted vectors.
+ * The table is built with an inverted index: the candidates of a movie are
+ * the movies found in the posting lists of its features, the features
+ * found in more than max_posting movies are too common to select
+ * candidates and are only added to the scores of the candidates found
+ * through the others. Only the neighbours ids and scores are kept, k per
+ * movie, so a lookup is a binary search and a copy.
+ */
+public class SimilarMovies {
+
+  private final int[] movie_ids;
+
+  private final int k;
+
+  private final int[] neighbours;
+
+  private final float[] scores;
+
+  private SimilarMovies(int[] movie_ids, int k, int[] neighbours,
+                        float[] scores) {
+    this.movie_ids = movie_ids;
+    this.k = k;
+    this.neighbours = neighbours;
+    this.scores = scores;
+  }
+
+  public record Similar(int movie_id, float score) {
+  }
+
+  /**
+   * Collects the (movie, feature) pairs in growable arrays, repeated pairs
+   * are allowed and counted once.
+   */
+  public static class Builder {
+
+    private int[] movies = new int[1024];
+
+    private long[] features = new long[1024];
+
+    private int size;
+
+    public Builder add(int movie_id, long feature) {
+      if (size == movies.length) {
+        movies = Arrays.copyOf(movies, size * 2);
+        features = Arrays.copyOf(features, size * 2);
+      }
+      movies[size] = movie_id;
+      features[size] = feature;
+      size++;
+
+      return this;
+    }
+
+    /**
+     * @param k           neighbours kept per movie
+     * @param max_posting features of more movies than this do not select
+     *                    candidates
+     * @param parallelism threads of the fork-join pool scoring the movies
+     */
+    public SimilarMovies build(int k, int max_posting, int parallelism) {
+      int[] movie_ids = CompressedRows.distinct(movies, size);
+      int[] movie_index = CompressedRows.indexes(movies, size, movie_ids);
+      int[] feature_index = featureIndexes(features, size);
+      int feature_count = 0;
+      for (int i = 0; i < size; i++) {
+        feature_count = Math.max(feature_count, feature_index[i] + 1);
+      }
+
+      int[][] by_movie = CompressedRows.build(movie_index, feature_index,
+        size, movie_ids.length);
+      int[][] by_feature = CompressedRows.build(feature_index, movie_index,
+        size, feature_count);
+
+      return new Scoring(movie_ids.length, by_movie[0], by_movie[1],
+        by_feature[0], by_feature[1], max_posting)
+        .run(movie_ids, k, parallelism);
+    }
+
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static int[] featureIndexes(long[] features, int size) {
+    long[] sorted = Arrays.copyOf(features, size);
+    Arrays.sort(sorted);
+    int count = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[count++] = sorted[i];
+      }
+    }
+
+    int[] indexes = new int[size];
+    for (int i = 0; i < size; i++) {
+      indexes[i] = Arrays.binarySearch(sorted, 0, count, features[i]);
+    }
+
+    return indexes;
+  }
+
+  /**
+   * The k best neighbours of every movie, each movie is scored by a task of
+   * the pool with its own accumulators.
+   */
+  private static class Scoring {
+
+    private final int movie_count;
+
+    private final int[] movie_offsets;
+
+    private final int[] movie_features;
+
+    private final int[] feature_offsets;
+
+    private final int[] feature_movies;
+
+    private final int max_posting;
+
+    private final float[] weights;
+
+    private final float[] norms;
+
+    private Scoring(int movie_count, int[] movie_offsets,
+                    int[] movie_features, int[] feature_offsets,
+                    int[] feature_movies, int max_posting) {
+      this.movie_count = movie_count;
+      this.movie_offsets = movie_offsets;
+      this.movie_features = movie_features;
+      this.feature_offsets = feature_offsets;
+      this.feature_movies = feature_movies;
+      this.max_posting = max_posting;
+
+      int feature_count = feature_offsets.length - 1;
+      weights = new float[feature_count];
+      for (int f = 0; f < feature_count; f++) {
+        int df = feature_offsets[f + 1] - feature_offsets[f];
+        weights[f] = (float) Math.log((double) movie_count / df);
+      }
+      norms = new float[movie_count];
+      for (int m = 0; m < movie_count; m++) {
+        double sum = 0;
+        for (int i = movie_offsets[m]; i < movie_offsets[m + 1]; i++) {
+          sum += (double) weights[movie_features[i]] *
+            weights[movie_features[i]];
+        }
+        norms[m] = (float) Math.sqrt(sum);
+      }
+    }
+
+    private boolean isCommon(int feature) {
+      return feature_offsets[feature + 1] - feature_offsets[feature] >
+        max_posting;
+    }
+
+    private SimilarMovies run(int[] movie_ids, int k, int parallelism) {
+      int[] neighbours = new int[movie_count * k];
+      float[] scores = new float[movie_count * k];
+      Arrays.fill(neighbours, -1);
+
+      ThreadLocal<float[]> accumulators =
+        ThreadLocal.withInitial(() -> new float[movie_count]);
+      ThreadLocal<int[]> candidates =
+        ThreadLocal.withInitial(() -> new int[movie_count]);
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        pool.submit(() -> IntStream.range(0, movie_count).parallel()
+          .forEach(m -> score(m, k, accumulators.get(), candidates.get(),
+            neighbours, scores)))
+          .join();
+      } finally {
+        pool.shutdown();
+      }
+
+      return new SimilarMovies(movie_ids, k, neighbours, scores);
+    }
+
+    /**
+     * Writes the k best neighbours of movie m at m * k, best first, ties
+     * broken by the lower index. accumulator is all zeros on entry and on
+     * exit.
+     */
+    private void score(int m, int k, float[] accumulator, int[] candidates,
+                       int[] neighbours, float[] scores) {
+      if (norms[m] == 0) {
+        return;
+      }
+
+      // dot products over the selective features, through their postings
+      int count = 0;
+      for (int i = movie_offsets[m]; i < movie_offsets[m + 1]; i++) {
+        int f = movie_features[i];
+        float weight = weights[f] * weights[f];
+        if (weight == 0 || isCommon(f) == true) {
+          continue;
+        }
+        for (int j = feature_offsets[f]; j < feature_offsets[f + 1]; j++) {
+          int other = feature_movies[j];
+          if (other == m) {
+            continue;
+          }
+          if (accumulator[other] == 0) {
+            candidates[count++] = other;
+          }
+          accumulator[other] += weight;
+        }
+      }
+
+      int base = m * k;
+      int kept = 0;
+      for (int c = 0; c < count; c++) {
+        int other = candidates[c];
+        float dot = accumulator[other];
+        accumulator[other] = 0;
+
+        // the common features are looked up in the candidate's own vector
+        for (int i = movie_offsets[m]; i < movie_offsets[m + 1]; i++) {
+          int f = movie_features[i];
+          if (isCommon(f) == true && Arrays.binarySearch(movie_features,
+            movie_offsets[other], movie_offsets[other + 1], f) >= 0) {
+            dot += weights[f] * weights[f];
+          }
+        }
+        float score = dot / (norms[m] * norms[other]);
+
+        // insertion into the k kept so far, sorted best first
+        int at = kept;
+        while (at > 0 && (scores[base + at - 1] < score ||
+          (scores[base + at - 1] == score &&
+            neighbours[base + at - 1] > other))) {
+          at--;
+        }
+        if (at == k) {
+          continue;
+        }
+        int last = Math.min(kept, k - 1);
+        System.arraycopy(neighbours, base + at, neighbours, base + at + 1,
+          last - at);
+        System.arraycopy(scores, base + at, scores, base + at + 1,
+          last - at);
+        neighbours[base + at] = other;
+        scores[base + at] = score;
+        kept = Math.min(kept + 1, k);
+      }
+    }
+
+  }
+
+  public int movieCount() {
+    return movie_ids.length;
+  }
+
+  /**
+   * @return at most limit movies most similar to the given one, best first,
+   * empty if the movie is not in the table
+   */
+  public List<Similar> similar(int movie_id, int limit) {
+    int m = Arrays.binarySearch(movie_ids, movie_id);
+    if (m < 0) {
+      return List.of();
+    }
+
+    List<Similar> res = new ArrayList<>();
+    for (int r = 0; r < Math.min(limit, k); r++) {
+      int other = neighbours[m * k + r];
+      if (other < 0) {
+        break;
+      }
+      res.add(new Similar(movie_ids[other], scores[m * k + r]));
+    }
+
+    return res;
+  }
+
+}
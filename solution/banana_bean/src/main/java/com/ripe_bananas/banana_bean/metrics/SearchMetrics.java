@@ -0,0 +1,104 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Latency of the searches by combination of filters and sort field, the
+ * tags only hold filter names and known sort fields so their number of
+ * values stays bounded.
+ */
+public class SearchMetrics {
+
+  private static final Set<String> SORT_FIELDS = Set.of("id", "name", "date",
+    "rating", "minute", "year_film", "year_ceremony", "ceremony", "category",
+    "film", "winner");
+
+  private static final ThreadLocal<String> CURRENT_SEARCH =
+    new ThreadLocal<>();
+
+  private static final ThreadLocal<Filters> CURRENT_FILTERS =
+    new ThreadLocal<>();
+
+  /**
+   * Filters set in a search, their names are joined by '+' in the order they
+   * are added.
+   */
+  public static class Filters {
+
+    private final StringBuilder names = new StringBuilder();
+
+    public Filters add(String name, Object value) {
+      if (value == null ||
+        (value instanceof String string && string.isBlank() == true) ||
+        (value instanceof Collection<?> collection &&
+          collection.isEmpty() == true)) {
+        return this;
+      }
+      if (names.isEmpty() == false) {
+        names.append('+');
+      }
+      names.append(name);
+
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      return names.isEmpty() == true ? "none" : names.toString();
+    }
+
+  }
+
+  public static Filters filters() {
+    return new Filters();
+  }
+
+  /**
+   * @return the name of the search running on the current thread, null
+   * outside of time
+   */
+  public static String currentSearch() {
+    return CURRENT_SEARCH.get();
+  }
+
+  /**
+   * @return the names of the filters of the search running on the current
+   * thread, without their values, null outside of time
+   */
+  public static String currentFilters() {
+    Filters filters = CURRENT_FILTERS.get();
+
+    return filters == null ? null : filters.toString();
+  }
+
+  public static <T> T time(String search, Filters filters, String sort_by,
+                           Supplier<T> call) {
+    String sort = "none";
+    if (sort_by != null && sort_by.isBlank() == false) {
+      sort = SORT_FIELDS.contains(sort_by) == true ? sort_by : "other";
+    }
+
+    Timer timer = Timer.builder("banana_bean.search")
+      .description("Searches by combination of filters")
+      .tag("search", search)
+      .tag("filters", filters.toString())
+      .tag("sort", sort)
+      .publishPercentileHistogram()
+      .register(Metrics.globalRegistry);
+
+    CURRENT_SEARCH.set(search);
+    CURRENT_FILTERS.set(filters);
+    try {
+      return timer.record(call);
+    } finally {
+      CURRENT_SEARCH.remove();
+      CURRENT_FILTERS.remove();
+    }
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/slowqueries lists the slowest statements with their plan when
+ * one was sampled. It shows the SQL of the application so it is not
+ * exposed over HTTP by default, add it to
+ * management.endpoints.web.exposure.include together with a
+ * management.server.port that is not public.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueriesEndpoint {
+
+  private final SlowQueryLog slow_query_log;
+
+  @ReadOperation
+  public List<SlowQuery> slowQueries() {
+    return slow_query_log.slowest();
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that took longer than the slow query threshold, the plan is
+ * only set when the statement was sampled for EXPLAIN. The bind parameters
+ * are kept to run the EXPLAIN but only their types are serialized, and the
+ * string literals of the plan are masked, searched names do not leave the
+ * application.
+ */
+@Data
+@AllArgsConstructor
+public class SlowQuery {
+
+  private Instant executed_at;
+  private long elapsed_ms;
+  private String search;
+  private String filters;
+  private String sql;
+  private List<String> parameter_types;
+  @JsonIgnore
+  private List<Object> parameters;
+  private volatile String plan;
+
+}
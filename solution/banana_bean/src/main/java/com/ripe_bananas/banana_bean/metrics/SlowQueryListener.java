@@ -0,0 +1,65 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hands the single statement executions slower than the threshold to the
+ * SlowQueryLog with their bind parameters, batches are not captured.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+  private final ObjectProvider<SlowQueryLog> slow_query_log;
+
+  private volatile SlowQueryLog log;
+
+  public SlowQueryListener(ObjectProvider<SlowQueryLog> slow_query_log) {
+    this.slow_query_log = slow_query_log;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    if (execution.isBatch() == true || queries.size() != 1) {
+      return;
+    }
+
+    if (log == null) {
+      log = slow_query_log.getIfAvailable();
+    }
+    if (log == null ||
+      execution.getElapsedTime() < log.getThreshold().toMillis()) {
+      return;
+    }
+
+    QueryInfo query = queries.get(0);
+    List<Object> parameters = new ArrayList<>();
+    if (query.getParametersList().isEmpty() == false) {
+      List<ParameterSetOperation> operations =
+        new ArrayList<>(query.getParametersList().get(0));
+      operations.sort(Comparator.comparing(operation ->
+        operation.getArgs()[0] instanceof Integer index ? index : 0));
+      for (ParameterSetOperation operation : operations) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) ==
+          true) {
+          parameters.add(null);
+        } else {
+          parameters.add(operation.getArgs()[1]);
+        }
+      }
+    }
+
+    log.record(execution.getElapsedTime(), query.getQuery(), parameters);
+  }
+
+}
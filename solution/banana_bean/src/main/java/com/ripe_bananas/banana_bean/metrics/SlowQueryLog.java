@@ -0,0 +1,128 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * The slowest statements seen since startup, together with the search and
+ * the names of the filters that produced them. Parameter values are never
+ * logged nor listed, see SlowQuery.
+ * <p>
+ * A sample of the slow SELECTs is run again in the background with
+ * EXPLAIN (ANALYZE, BUFFERS) and the same parameters. Only one EXPLAIN runs
+ * at a time, as ANALYZE executes the statement again.
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+  private static final String EXPLAIN = "EXPLAIN (ANALYZE, BUFFERS) ";
+
+  private static final Pattern STRING_LITERAL =
+    Pattern.compile("'(?:[^']|'')*'");
+
+  private final JdbcTemplate jdbc_template;
+
+  private final Executor executor;
+
+  @Getter
+  private final Duration threshold;
+
+  private final double explain_sample_rate;
+
+  private final int capacity;
+
+  private final PriorityQueue<SlowQuery> slowest = new PriorityQueue<>(
+    Comparator.comparingLong(SlowQuery::getElapsed_ms));
+
+  private final AtomicBoolean explaining = new AtomicBoolean(false);
+
+  public SlowQueryLog(
+    JdbcTemplate jdbc_template,
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    Executor executor,
+    @Value("${banana_bean.slow-query.threshold:200ms}") Duration threshold,
+    @Value("${banana_bean.slow-query.explain-sample-rate:0.1}")
+    double explain_sample_rate,
+    @Value("${banana_bean.slow-query.capacity:50}") int capacity) {
+    this.jdbc_template = jdbc_template;
+    this.executor = executor;
+    this.threshold = threshold;
+    this.explain_sample_rate = explain_sample_rate;
+    this.capacity = capacity;
+  }
+
+  public void record(long elapsed_ms, String sql, List<Object> parameters) {
+    String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+    if (statement.startsWith("explain") == true) {
+      return;
+    }
+
+    List<String> parameter_types = parameters.stream()
+      .map(p -> p == null ? "null" : p.getClass().getSimpleName())
+      .toList();
+    SlowQuery slow_query = new SlowQuery(Instant.now(), elapsed_ms,
+      SearchMetrics.currentSearch(), SearchMetrics.currentFilters(), sql,
+      parameter_types, parameters, null);
+    log.warn("Slow query ({} ms, search {}, filters {}): {} {}", elapsed_ms,
+      slow_query.getSearch(), slow_query.getFilters(), sql, parameter_types);
+
+    synchronized (slowest) {
+      slowest.add(slow_query);
+      if (slowest.size() > capacity) {
+        slowest.poll();
+      }
+    }
+
+    if (statement.startsWith("select") == true &&
+      ThreadLocalRandom.current().nextDouble() < explain_sample_rate &&
+      explaining.compareAndSet(false, true) == true) {
+      executor.execute(() -> explain(slow_query));
+    }
+  }
+
+  /**
+   * @return the slow queries, slowest first
+   */
+  public List<SlowQuery> slowest() {
+    List<SlowQuery> res;
+    synchronized (slowest) {
+      res = new ArrayList<>(slowest);
+    }
+    res.sort(Comparator.comparingLong(SlowQuery::getElapsed_ms).reversed());
+
+    return res;
+  }
+
+  private void explain(SlowQuery slow_query) {
+    try {
+      List<String> plan = jdbc_template.queryForList(
+        EXPLAIN + slow_query.getSql(), String.class,
+        slow_query.getParameters().toArray());
+      slow_query.setPlan(STRING_LITERAL.matcher(String.join("\n", plan))
+        .replaceAll("'?'"));
+    } catch (RuntimeException e) {
+      log.debug("Could not explain slow query: {}", slow_query.getSql(), e);
+    } finally {
+      explaining.set(false);
+    }
+  }
+
+}
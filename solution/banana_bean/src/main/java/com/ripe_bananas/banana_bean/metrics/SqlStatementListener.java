@@ -0,0 +1,73 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every JDBC execution going through the DataSource and counts the
+ * ones run by the current thread between startCounting and stopCounting,
+ * a batch counts as one execution. A count can be carried over to another
+ * thread with resumeCounting, for the requests handled asynchronously.
+ */
+public class SqlStatementListener implements QueryExecutionListener {
+
+  private static final ThreadLocal<AtomicInteger> STATEMENTS =
+    new ThreadLocal<>();
+
+  /**
+   * @return the count of the executions of the current thread from now on
+   */
+  public static AtomicInteger startCounting() {
+    AtomicInteger statements = new AtomicInteger();
+    STATEMENTS.set(statements);
+
+    return statements;
+  }
+
+  /**
+   * Adds the executions of the current thread to a count started on
+   * another one.
+   */
+  public static void resumeCounting(AtomicInteger statements) {
+    STATEMENTS.set(statements);
+  }
+
+  /**
+   * @return the number of executions since startCounting, 0 if it was not
+   * called
+   */
+  public static int stopCounting() {
+    AtomicInteger statements = STATEMENTS.get();
+    STATEMENTS.remove();
+
+    return statements == null ? 0 : statements.get();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    AtomicInteger statements = STATEMENTS.get();
+    if (statements != null) {
+      statements.incrementAndGet();
+    }
+
+    Timer.builder("banana_bean.sql.executions")
+      .description("JDBC executions")
+      .tag("type", execution.isBatch() == true ? "batch" : "statement")
+      .tag("success", String.valueOf(execution.isSuccess()))
+      .publishPercentileHistogram()
+      .register(Metrics.globalRegistry)
+      .record(execution.getElapsedTime(), TimeUnit.MILLISECONDS);
+  }
+
+}
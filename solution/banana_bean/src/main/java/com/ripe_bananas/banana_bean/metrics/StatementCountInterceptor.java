@@ -0,0 +1,88 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many JDBC executions every request needed, by endpoint, the
+ * lazy loads done while serializing the response are included.
+ * The count is kept in a request attribute: when the handler goes async
+ * (the exports) the container thread stops counting, the task writing the
+ * response counts on its own thread as a CallableProcessingInterceptor and
+ * the total is recorded once, when the async dispatch completes.
+ */
+public class StatementCountInterceptor implements AsyncHandlerInterceptor,
+  CallableProcessingInterceptor {
+
+  private static final String STATEMENTS =
+    StatementCountInterceptor.class.getName() + ".statements";
+
+  @Override
+  public boolean preHandle(HttpServletRequest request,
+                           HttpServletResponse response,
+                           Object handler) {
+    Object statements = request.getAttribute(STATEMENTS);
+    if (statements instanceof AtomicInteger started) {
+      SqlStatementListener.resumeCounting(started);
+    } else {
+      request.setAttribute(STATEMENTS, SqlStatementListener.startCounting());
+    }
+
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request,
+                                             HttpServletResponse response,
+                                             Object handler) {
+    SqlStatementListener.stopCounting();
+  }
+
+  @Override
+  public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+    Object statements = request.getAttribute(STATEMENTS,
+      RequestAttributes.SCOPE_REQUEST);
+    if (statements instanceof AtomicInteger started) {
+      SqlStatementListener.resumeCounting(started);
+    }
+  }
+
+  @Override
+  public <T> void postProcess(NativeWebRequest request, Callable<T> task,
+                              Object result) {
+    SqlStatementListener.stopCounting();
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request,
+                              HttpServletResponse response,
+                              Object handler,
+                              Exception exception) {
+    SqlStatementListener.stopCounting();
+    Object statements = request.getAttribute(STATEMENTS);
+    request.removeAttribute(STATEMENTS);
+    if (statements instanceof AtomicInteger counted) {
+      Object uri = request.getAttribute(
+        HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+      DistributionSummary.builder("banana_bean.sql.statements.per_request")
+        .description("JDBC executions per request")
+        .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+        .tag("method", request.getMethod())
+        .publishPercentileHistogram()
+        .register(Metrics.globalRegistry)
+        .record(counted.get());
+    }
+  }
+
+}
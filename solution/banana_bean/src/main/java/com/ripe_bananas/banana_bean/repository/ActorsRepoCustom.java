@@ -0,0 +1,16 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.ActorDTO;
+import com.ripe_bananas.banana_bean.entity.Actor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ActorsRepoCustom {
+
+  Page<ActorDTO> findActorPage(Specification<Actor> spec, Pageable page);
+
+  Slice<ActorDTO> findActorSlice(Specification<Actor> spec, Pageable page);
+
+}
@@ -0,0 +1,35 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.ActorDTO;
+import com.ripe_bananas.banana_bean.entity.Actor;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class ActorsRepoCustomImpl implements ActorsRepoCustom {
+
+  private final SpecificationProjection<Actor, ActorDTO> projection;
+
+  public ActorsRepoCustomImpl(EntityManager entity_manager) {
+    projection = new SpecificationProjection<>(entity_manager, Actor.class,
+      (root, query) -> List.of(root.get("id"), root.get("name")),
+      row -> new ActorDTO((Integer) row.get(0), (String) row.get(1)));
+  }
+
+  @Override
+  public Page<ActorDTO> findActorPage(Specification<Actor> spec,
+                                      Pageable page) {
+    return projection.page(spec, page);
+  }
+
+  @Override
+  public Slice<ActorDTO> findActorSlice(Specification<Actor> spec,
+                                        Pageable page) {
+    return projection.slice(spec, page);
+  }
+
+}
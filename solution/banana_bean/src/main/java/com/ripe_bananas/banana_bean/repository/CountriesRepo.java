@@ -0,0 +1,16 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.entity.Country;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CountriesRepo extends JpaRepository<Country, Integer> {
+
+  @Query(value = "SELECT id, name FROM country", nativeQuery = true)
+  List<Country> findCountryList();
+
+}
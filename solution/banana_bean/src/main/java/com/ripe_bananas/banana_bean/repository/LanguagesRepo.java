@@ -0,0 +1,18 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.entity.Language;
+import com.ripe_bananas.banana_bean.entity.LanguageId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LanguagesRepo extends JpaRepository<Language, LanguageId> {
+
+  @Query(value = "SELECT DISTINCT language FROM languages " +
+    "WHERE language IS NOT NULL ORDER BY language", nativeQuery = true)
+  List<String> findLanguageList();
+
+}
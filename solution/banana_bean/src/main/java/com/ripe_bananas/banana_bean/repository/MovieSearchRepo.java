@@ -0,0 +1,11 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MovieSearchRepo extends JpaRepository<MovieSearchRow, Integer>,
+  JpaSpecificationExecutor<MovieSearchRow>, MovieSearchRepoCustom {
+}
@@ -0,0 +1,50 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface MovieSearchRepoCustom {
+
+  Page<MovieSummaryDTO> findSummaryPage(Specification<MovieSearchRow> spec,
+                                        Pageable page);
+
+  Slice<MovieSummaryDTO> findSummarySlice(Specification<MovieSearchRow> spec,
+                                          Pageable page);
+
+  /**
+   * First limit summaries in the order set by the Specification.
+   */
+  List<MovieSummaryDTO> findSummaries(Specification<MovieSearchRow> spec,
+                                      int limit);
+
+  /**
+   * Summaries of the given movies in the order of the ids, unknown ids are
+   * skipped.
+   */
+  List<MovieSummaryDTO> findSummariesByIds(List<Integer> ids);
+
+  /**
+   * All the summaries matching the Specification read through a cursor,
+   * fetch_size rows at a time, to be consumed and closed inside a
+   * transaction.
+   */
+  Stream<MovieSummaryDTO> streamSummaries(Specification<MovieSearchRow> spec,
+                                          Sort sort,
+                                          int fetch_size);
+
+  /**
+   * Number of movies matching the Specification in each bucket, counted
+   * in a single query.
+   */
+  long[] countInBuckets(Specification<MovieSearchRow> spec,
+                        List<Specification<MovieSearchRow>> buckets);
+
+}
@@ -0,0 +1,104 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import com.ripe_bananas.banana_bean.specification_builders.BasicMoviesSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Movie search results as MovieSummaryDTO: one query per page selecting
+ * the columns of movie_search, the poster and the genres are already
+ * denormalized there so no join nor subquery is needed.
+ */
+public class MovieSearchRepoCustomImpl implements MovieSearchRepoCustom {
+
+  private final SpecificationProjection<MovieSearchRow, MovieSummaryDTO>
+    projection;
+
+  public MovieSearchRepoCustomImpl(EntityManager entity_manager) {
+    projection = new SpecificationProjection<>(entity_manager,
+      MovieSearchRow.class,
+      (root, query) -> summaryColumns(root),
+      MovieSearchRepoCustomImpl::toSummary);
+  }
+
+  private static List<Selection<?>> summaryColumns(Root<MovieSearchRow> root) {
+    return List.of(root.get("id"), root.get("name"), root.get("date"),
+      root.get("tagline"), root.get("description"), root.get("minute"),
+      root.get("rating"), root.get("poster_link"), root.get("genres"));
+  }
+
+  private static MovieSummaryDTO toSummary(Tuple row) {
+    String[] genres = (String[]) row.get(8);
+    List<String> genre_list = genres == null ? List.of() : List.of(genres);
+
+    return new MovieSummaryDTO((Integer) row.get(0), (String) row.get(1),
+      (Integer) row.get(2), (String) row.get(3), (String) row.get(4),
+      (Integer) row.get(5), (Float) row.get(6), genre_list,
+      (String) row.get(7));
+  }
+
+  @Override
+  public Page<MovieSummaryDTO> findSummaryPage(
+    Specification<MovieSearchRow> spec,
+    Pageable page) {
+    return projection.page(spec, page);
+  }
+
+  @Override
+  public Slice<MovieSummaryDTO> findSummarySlice(
+    Specification<MovieSearchRow> spec,
+    Pageable page) {
+    return projection.slice(spec, page);
+  }
+
+  @Override
+  public List<MovieSummaryDTO> findSummaries(Specification<MovieSearchRow> spec,
+                                             int limit) {
+    return projection.list(spec, Sort.unsorted(), 0, limit);
+  }
+
+  @Override
+  public List<MovieSummaryDTO> findSummariesByIds(List<Integer> ids) {
+    if (ids.isEmpty() == true) {
+      return List.of();
+    }
+
+    Map<Integer, MovieSummaryDTO> summaries = new HashMap<>();
+    for (MovieSummaryDTO summary : findSummaries(
+      BasicMoviesSpecifications.idIn(ids), ids.size())) {
+      summaries.put(summary.getId(), summary);
+    }
+
+    return ids.stream().map(summaries::get).filter(Objects::nonNull).toList();
+  }
+
+  @Override
+  public Stream<MovieSummaryDTO> streamSummaries(
+    Specification<MovieSearchRow> spec,
+    Sort sort,
+    int fetch_size) {
+    return projection.stream(spec, sort, fetch_size);
+  }
+
+  @Override
+  public long[] countInBuckets(Specification<MovieSearchRow> spec,
+                               List<Specification<MovieSearchRow>> buckets) {
+    return projection.countEach(spec, buckets);
+  }
+
+}
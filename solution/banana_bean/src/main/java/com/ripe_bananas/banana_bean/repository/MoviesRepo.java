@@ -1,16 +1,89 @@
 package com.ripe_bananas.banana_bean.repository;
 
 import com.ripe_bananas.banana_bean.entity.Movie;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The details of a Movie are loaded one collection per query: fetching all
+ * the collections in a single join would multiply the rows by the size of
+ * every collection. Each query re-selects the same Movie, so once they run
+ * inside the same transaction the managed instance ends up fully initialized.
+ * The ...ByIds variants do the same for many movies at once, the number of
+ * queries does not depend on the number of ids.
+ */
 @Repository
 public interface MoviesRepo extends JpaRepository<Movie, Integer>,
   JpaSpecificationExecutor<Movie> {
 
+  @EntityGraph(attributePaths = {"genres", "poster"})
   @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
   Movie findMovieDetailById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"actors", "actors.actor"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchActorsById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"crew"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchCrewById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"themes"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchThemesById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"studios"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchStudiosById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"languages"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchLanguagesById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"countries"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchCountriesById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"releases", "releases.country"})
+  @Query("SELECT m FROM Movie m WHERE m.id = :movie_id")
+  Movie fetchReleasesById(@Param("movie_id") Integer movie_id);
+
+  @EntityGraph(attributePaths = {"genres", "poster"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> findMovieDetailsByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"actors", "actors.actor"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchActorsByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"crew"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchCrewByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"themes"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchThemesByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"studios"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchStudiosByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"languages"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchLanguagesByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"countries"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchCountriesByIds(@Param("movie_ids") Collection<Integer> movie_ids);
+
+  @EntityGraph(attributePaths = {"releases", "releases.country"})
+  @Query("SELECT m FROM Movie m WHERE m.id IN :movie_ids")
+  List<Movie> fetchReleasesByIds(@Param("movie_ids") Collection<Integer> movie_ids);
 }
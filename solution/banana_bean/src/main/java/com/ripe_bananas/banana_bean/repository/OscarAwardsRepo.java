@@ -7,5 +7,5 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OscarAwardsRepo extends JpaRepository<OscarAward, Integer>,
-  JpaSpecificationExecutor<OscarAward> {
+  JpaSpecificationExecutor<OscarAward>, OscarAwardsRepoCustom {
 }
@@ -0,0 +1,18 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.OscarAwardDTO;
+import com.ripe_bananas.banana_bean.entity.OscarAward;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface OscarAwardsRepoCustom {
+
+  Page<OscarAwardDTO> findOscarAwardPage(Specification<OscarAward> spec,
+                                         Pageable page);
+
+  Slice<OscarAwardDTO> findOscarAwardSlice(Specification<OscarAward> spec,
+                                           Pageable page);
+
+}
@@ -0,0 +1,40 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.dto.OscarAwardDTO;
+import com.ripe_bananas.banana_bean.entity.OscarAward;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class OscarAwardsRepoCustomImpl implements OscarAwardsRepoCustom {
+
+  private final SpecificationProjection<OscarAward, OscarAwardDTO> projection;
+
+  public OscarAwardsRepoCustomImpl(EntityManager entity_manager) {
+    projection = new SpecificationProjection<>(entity_manager,
+      OscarAward.class,
+      (root, query) -> List.of(root.get("id"), root.get("year_film"),
+        root.get("year_ceremony"), root.get("ceremony"), root.get("category"),
+        root.get("name"), root.get("film"), root.get("winner")),
+      row -> new OscarAwardDTO((Integer) row.get(0), (Integer) row.get(1),
+        (Integer) row.get(2), (Integer) row.get(3), (String) row.get(4),
+        (String) row.get(5), (String) row.get(6), (Boolean) row.get(7)));
+  }
+
+  @Override
+  public Page<OscarAwardDTO> findOscarAwardPage(Specification<OscarAward> spec,
+                                                Pageable page) {
+    return projection.page(spec, page);
+  }
+
+  @Override
+  public Slice<OscarAwardDTO> findOscarAwardSlice(Specification<OscarAward> spec,
+                                                  Pageable page) {
+    return projection.slice(spec, page);
+  }
+
+}
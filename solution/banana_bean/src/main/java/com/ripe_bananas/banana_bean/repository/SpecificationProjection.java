@@ -0,0 +1,168 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Runs a Specification as a tuple query selecting only the given columns
+ * and maps every row straight to a DTO: no entity is hydrated, so no lazy
+ * association is loaded while the results are serialized.
+ * The Specifications are applied exactly like the JpaSpecificationExecutor
+ * does, ordering set by a Specification is kept when the Pageable is not
+ * sorted.
+ */
+public class SpecificationProjection<E, R> {
+
+  private final EntityManager entity_manager;
+
+  private final Class<E> domain_class;
+
+  private final BiFunction<Root<E>, CriteriaQuery<Tuple>, List<Selection<?>>> columns;
+
+  private final Function<Tuple, R> mapper;
+
+  public SpecificationProjection(EntityManager entity_manager,
+                                 Class<E> domain_class,
+                                 BiFunction<Root<E>, CriteriaQuery<Tuple>,
+                                   List<Selection<?>>> columns,
+                                 Function<Tuple, R> mapper) {
+    this.entity_manager = entity_manager;
+    this.domain_class = domain_class;
+    this.columns = columns;
+    this.mapper = mapper;
+  }
+
+  private TypedQuery<Tuple> createQuery(Specification<E> spec, Sort sort) {
+    CriteriaBuilder criteriaBuilder = entity_manager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<E> root = query.from(domain_class);
+
+    Predicate where = spec.toPredicate(root, query, criteriaBuilder);
+    if (where != null) {
+      query.where(where);
+    }
+    query.multiselect(columns.apply(root, query));
+    if (sort.isSorted() == true) {
+      query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+    }
+
+    return entity_manager.createQuery(query);
+  }
+
+  public List<R> list(Specification<E> spec, Sort sort, long offset,
+                      int limit) {
+    TypedQuery<Tuple> typed_query = createQuery(spec, sort);
+    typed_query.setFirstResult((int) offset);
+    typed_query.setMaxResults(limit);
+
+    return typed_query.getResultList().stream().map(mapper).toList();
+  }
+
+  /**
+   * All the results read through a single forward-only cursor, fetch_size
+   * rows at a time, the stream must be closed once consumed. PostgreSQL
+   * only honors the fetch size inside a transaction, otherwise the whole
+   * result is loaded at once.
+   */
+  public Stream<R> stream(Specification<E> spec, Sort sort, int fetch_size) {
+    TypedQuery<Tuple> typed_query = createQuery(spec, sort);
+    typed_query.setHint(HibernateHints.HINT_FETCH_SIZE, fetch_size);
+    typed_query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+    return typed_query.getResultStream().map(mapper);
+  }
+
+  public long count(Specification<E> spec) {
+    CriteriaBuilder criteriaBuilder = entity_manager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+    Root<E> root = query.from(domain_class);
+
+    Predicate where = spec.toPredicate(root, query, criteriaBuilder);
+    if (where != null) {
+      query.where(where);
+    }
+    query.select(query.isDistinct() == true ?
+      criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+    query.orderBy(List.of());
+
+    return entity_manager.createQuery(query).getSingleResult();
+  }
+
+  /**
+   * Counts the rows matching spec that also match each bucket, all in the
+   * same scan: a single row of sum(CASE WHEN bucket THEN 1 ELSE 0 END),
+   * one per bucket, instead of a count query per bucket.
+   *
+   * @return the counts in the order of the buckets
+   */
+  public long[] countEach(Specification<E> spec,
+                          List<Specification<E>> buckets) {
+    if (buckets.isEmpty() == true) {
+      return new long[0];
+    }
+
+    CriteriaBuilder criteriaBuilder = entity_manager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<E> root = query.from(domain_class);
+
+    Predicate where = spec.toPredicate(root, query, criteriaBuilder);
+    if (where != null) {
+      query.where(where);
+    }
+    List<Selection<?>> sums = new ArrayList<>();
+    for (Specification<E> bucket : buckets) {
+      sums.add(criteriaBuilder.sum(criteriaBuilder.<Integer>selectCase()
+        .when(bucket.toPredicate(root, query, criteriaBuilder),
+          criteriaBuilder.literal(1))
+        .otherwise(criteriaBuilder.literal(0))));
+    }
+    query.multiselect(sums);
+    query.orderBy(List.of());
+
+    Tuple row = entity_manager.createQuery(query).getSingleResult();
+    long[] counts = new long[buckets.size()];
+    for (int i = 0; i < counts.length; i++) {
+      Number count = (Number) row.get(i);
+      counts[i] = count == null ? 0 : count.longValue();
+    }
+
+    return counts;
+  }
+
+  public Page<R> page(Specification<E> spec, Pageable page) {
+    if (page.isUnpaged() == true) {
+      List<R> content = list(spec, page.getSort(), 0, Integer.MAX_VALUE);
+      return new PageImpl<>(content);
+    }
+
+    List<R> content = list(spec, page.getSort(), page.getOffset(),
+      page.getPageSize());
+
+    return PageableExecutionUtils.getPage(content, page, () -> count(spec));
+  }
+
+  public Slice<R> slice(Specification<E> spec, Pageable page) {
+    List<R> content = list(spec, page.getSort(), page.getOffset(),
+      page.getPageSize() + 1);
+    boolean has_next = content.size() > page.getPageSize();
+    if (has_next == true) {
+      content = content.subList(0, page.getPageSize());
+    }
+
+    return new SliceImpl<>(content, page, has_next);
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.ripe_bananas.banana_bean.repository;
+
+import com.ripe_bananas.banana_bean.entity.Studio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudiosRepo extends JpaRepository<Studio, Integer> {
+
+  @Query(value = "SELECT id, name FROM studio", nativeQuery = true)
+  List<Studio> findStudioList();
+
+}
@@ -0,0 +1,129 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.ActorPathDTO;
+import com.ripe_bananas.banana_bean.dto.CoStarDTO;
+import com.ripe_bananas.banana_bean.index.ActorMovieGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Co-star queries answered from an ActorMovieGraph of movies_have_actors
+ * kept in memory, no query reaches the database. The graph is built when
+ * the application starts and rebuilt every
+ * banana_bean.actor-graph.refresh-interval, the rows are read through a
+ * cursor inside a read-only transaction so they are never all loaded at
+ * once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActorGraphService {
+
+  public static final int MAX_CO_STARS = 100;
+
+  public static final int MAX_DEGREES = 6;
+
+  private final JdbcTemplate jdbc_template;
+
+  private final PlatformTransactionManager transaction_manager;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  @Value("${banana_bean.actor-graph.fetch-size:10000}")
+  private int fetch_size;
+
+  private volatile ActorMovieGraph graph = ActorMovieGraph.builder().build();
+
+  @Scheduled(initialDelayString = "${banana_bean.actor-graph.initial-delay:0}",
+    fixedDelayString = "${banana_bean.actor-graph.refresh-interval:3600000}")
+  public void refreshGraph() {
+    long started = System.nanoTime();
+    TransactionTemplate read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+
+    ActorMovieGraph.Builder builder = ActorMovieGraph.builder();
+    read_only.executeWithoutResult(status -> jdbc_template.query(
+      connection -> {
+        PreparedStatement statement = connection.prepareStatement(
+          "SELECT movie_id, actor_id FROM movies_have_actors");
+        statement.setFetchSize(fetch_size);
+        return statement;
+      },
+      rs -> {
+        builder.add(rs.getInt(1), rs.getInt(2));
+      }));
+
+    graph = builder.build();
+    event_publisher.publishEvent(new SnapshotReloadedEvent("actor graph"));
+    log.info("Actor graph built in {} ms, {} actors, {} movies, {} edges",
+      (System.nanoTime() - started) / 1000000, graph.actorCount(),
+      graph.movieCount(), graph.edgeCount());
+  }
+
+  /**
+   * @return the ids of the movies both actors play in, null if one of them
+   * is not known
+   */
+  public List<Integer> findSharedMovies(Integer actor_id,
+                                        Integer other_actor_id) {
+    ActorMovieGraph current = graph;
+    if (actor_id == null || other_actor_id == null ||
+      current.hasActor(actor_id) == false ||
+      current.hasActor(other_actor_id) == false) {
+      return null;
+    }
+
+    return Arrays.stream(current.sharedMovies(actor_id, other_actor_id))
+      .boxed().toList();
+  }
+
+  /**
+   * @return the actors sharing the most movies with the given one, at most
+   * MAX_CO_STARS, null if the actor is not known
+   */
+  public List<CoStarDTO> findTopCoStars(Integer actor_id, int limit) {
+    ActorMovieGraph current = graph;
+    if (actor_id == null || current.hasActor(actor_id) == false) {
+      return null;
+    }
+
+    return current.topCoStars(actor_id, Math.min(limit, MAX_CO_STARS))
+      .stream()
+      .map(c -> new CoStarDTO(c.actor_id(), c.shared_movies()))
+      .toList();
+  }
+
+  /**
+   * @return the shortest chain of co-stars linking the two actors, null if
+   * there is none within max_degrees (at most MAX_DEGREES) movies
+   */
+  public ActorPathDTO findActorPath(Integer actor_id,
+                                    Integer other_actor_id,
+                                    int max_degrees) {
+    if (actor_id == null || other_actor_id == null) {
+      return null;
+    }
+
+    ActorMovieGraph.Path path = graph.shortestPath(actor_id, other_actor_id,
+      Math.min(max_degrees, MAX_DEGREES));
+    if (path == null) {
+      return null;
+    }
+
+    return new ActorPathDTO(path.movie_ids().length,
+      Arrays.stream(path.actor_ids()).boxed().toList(),
+      Arrays.stream(path.movie_ids()).boxed().toList());
+  }
+
+}
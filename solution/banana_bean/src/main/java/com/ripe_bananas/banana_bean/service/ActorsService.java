@@ -1,43 +1,107 @@
 package com.ripe_bananas.banana_bean.service;
 
-import com.ripe_bananas.banana_bean.entity.Actor;
+import com.ripe_bananas.banana_bean.dto.ActorDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
 import com.ripe_bananas.banana_bean.repository.ActorsRepo;
+import com.ripe_bananas.banana_bean.specification_builders.ActorsSpecifications;
 import com.ripe_bananas.banana_bean.utility.Utility;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class ActorsService {
 
+  public static final int MAX_ACTORS_BATCH = 200;
+
   private final ActorsRepo actors_repo;
 
-  public Page<Actor> searchActorByName(String name,
-                                       String sort_by,
-                                       String sort_direction,
-                                       int page_num,
-                                       int page_size){
-    Pageable page;
-
-    Sort sort = Utility.buildSortBy(sort_by, sort_direction);
-    if (sort == null) {
-      page = PageRequest.of(page_num, page_size);
-    } else {
-      page = PageRequest.of(page_num, page_size, sort);
+  /**
+   * @return the actors which name contains the given one, every actor if it
+   * is empty, null if no name is given
+   */
+  public Page<ActorDTO> searchActorByName(String name,
+                                          String sort_by,
+                                          String sort_direction,
+                                          int page_num,
+                                          int page_size){
+    if (name == null) {
+      return null;
+    }
+
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    return actors_repo.findActorPage(ActorsSpecifications.nameLikeTo(name),
+      page);
+  }
+
+  /**
+   * Same search as searchActorByName without the count(*) query, a name
+   * search has no estimated total.
+   */
+  public SliceDTO<ActorDTO> searchActorSliceByName(String name,
+                                                   String sort_by,
+                                                   String sort_direction,
+                                                   int page_num,
+                                                   int page_size){
+    if (name == null) {
+      return null;
+    }
+
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+    Slice<ActorDTO> actors = actors_repo.findActorSlice(
+      ActorsSpecifications.nameLikeTo(name), page);
+
+    return SliceDTO.of(actors, null);
+  }
+
+  /**
+   * @return the actors found in the order of the given ids, unknown and
+   * repeated ids are skipped, null if no id or more than MAX_ACTORS_BATCH
+   * ids are given
+   */
+  public List<ActorDTO> findActorsByIds(List<Integer> actor_ids) {
+    if (actor_ids == null || actor_ids.isEmpty() == true ||
+      actor_ids.size() > MAX_ACTORS_BATCH) {
+      return null;
+    }
+
+    Set<Integer> ids = new LinkedHashSet<>();
+    for (Integer actor_id : actor_ids) {
+      if (actor_id != null && actor_id > 0) {
+        ids.add(actor_id);
+      }
+    }
+    if (ids.isEmpty() == true) {
+      return List.of();
+    }
+
+    Map<Integer, ActorDTO> actors = new HashMap<>();
+    for (ActorDTO actor : actors_repo.findActorPage(
+      ActorsSpecifications.idIn(ids), Pageable.unpaged())) {
+      actors.put(actor.getId(), actor);
+    }
+
+    List<ActorDTO> response = new ArrayList<>();
+    for (Integer actor_id : ids) {
+      ActorDTO actor = actors.get(actor_id);
+      if (actor != null) {
+        response.add(actor);
+      }
     }
 
-    return actors_repo.findByName(name, page);
+    return response;
   }
 
 }
@@ -0,0 +1,167 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.SuggestionDTO;
+import com.ripe_bananas.banana_bean.index.PrefixIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type-ahead suggestions for movie, actor and Oscar nominee names served
+ * from one PrefixIndex per kind. The indexes are built from the database
+ * when the application starts, every refresh then only reads the
+ * data_version row and rebuilds them when it was bumped since the last
+ * build. The names are read through a cursor inside a read-only
+ * transaction and added to the index as they come. Without a data_version
+ * row (a database without banana_stem/migrations/003_data_version.sql)
+ * the indexes are rebuilt at every refresh.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutocompleteService {
+
+  public static final String MOVIE = "movie";
+
+  public static final String ACTOR = "actor";
+
+  public static final String OSCAR = "oscar";
+
+  public static final int MAX_LIMIT = 50;
+
+  private static final Map<String, String> SOURCES = Map.of(
+    MOVIE, "SELECT id, name FROM movies " +
+      "WHERE name IS NOT NULL ORDER BY id",
+    ACTOR, "SELECT id, name FROM actors " +
+      "WHERE name IS NOT NULL ORDER BY id",
+    OSCAR, "SELECT min(id), name FROM oscar_awards " +
+      "WHERE name IS NOT NULL GROUP BY name ORDER BY 1"
+  );
+
+  private static final List<String> KINDS = List.of(MOVIE, ACTOR, OSCAR);
+
+  private final JdbcTemplate jdbc_template;
+
+  private final PlatformTransactionManager transaction_manager;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  @Value("${banana_bean.autocomplete.fetch-size:10000}")
+  private int fetch_size;
+
+  private final Map<String, PrefixIndex> indexes = new ConcurrentHashMap<>();
+
+  private Long indexed_version;
+
+  /**
+   * @return the version of the data_version row, null if it can not be read
+   */
+  private Long readDataVersion() {
+    try {
+      return jdbc_template.query("SELECT version FROM data_version",
+        rs -> rs.next() == true ? rs.getLong(1) : null);
+    } catch (DataAccessException e) {
+      log.debug("Could not read data_version, autocomplete indexes rebuilt",
+        e);
+      return null;
+    }
+  }
+
+  private void refreshIndex(String kind) {
+    TransactionTemplate read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+
+    PrefixIndex.Builder builder = PrefixIndex.builder();
+    read_only.executeWithoutResult(status -> jdbc_template.query(
+      connection -> {
+        PreparedStatement statement = connection.prepareStatement(
+          SOURCES.get(kind));
+        statement.setFetchSize(fetch_size);
+        return statement;
+      },
+      rs -> {
+        builder.add(rs.getInt(1), rs.getString(2));
+      }));
+
+    PrefixIndex index = builder.build();
+    indexes.put(kind, index);
+    event_publisher.publishEvent(new SnapshotReloadedEvent(
+      "autocomplete " + kind));
+    log.info("Autocomplete index for {} refreshed, {} names", kind,
+      index.size());
+  }
+
+  @Scheduled(initialDelayString = "${banana_bean.autocomplete.initial-delay:0}",
+    fixedDelayString = "${banana_bean.autocomplete.refresh-interval:60000}")
+  public synchronized void refreshIndexes() {
+    Long data_version = readDataVersion();
+    if (data_version != null && data_version.equals(indexed_version) == true) {
+      return;
+    }
+
+    for (String kind : KINDS) {
+      refreshIndex(kind);
+    }
+    indexed_version = data_version;
+  }
+
+  private List<SuggestionDTO> suggestKind(String kind, String prefix,
+                                          int limit) {
+    PrefixIndex index = indexes.get(kind);
+    if (index == null) {
+      return List.of();
+    }
+
+    return index.suggest(prefix, limit).stream()
+      .map(e -> new SuggestionDTO(kind, e.id(), e.label()))
+      .toList();
+  }
+
+  /**
+   * @param kind movie, actor or oscar, null to search all of them, the
+   *             results of the kinds are interleaved
+   * @return null if the kind is not known
+   */
+  public List<SuggestionDTO> suggest(String prefix, String kind, int limit) {
+    if (kind != null && kind.isEmpty() == false &&
+      KINDS.contains(kind) == false) {
+      return null;
+    }
+    limit = Math.min(limit, MAX_LIMIT);
+    if (prefix == null || limit <= 0) {
+      return List.of();
+    }
+
+    if (kind != null && kind.isEmpty() == false) {
+      return suggestKind(kind, prefix, limit);
+    }
+
+    List<List<SuggestionDTO>> by_kind = new ArrayList<>();
+    for (String k : KINDS) {
+      by_kind.add(suggestKind(k, prefix, limit));
+    }
+
+    List<SuggestionDTO> res = new ArrayList<>();
+    for (int i = 0; res.size() < limit && i < limit; i++) {
+      for (List<SuggestionDTO> list : by_kind) {
+        if (i < list.size() && res.size() < limit) {
+          res.add(list.get(i));
+        }
+      }
+    }
+
+    return res;
+  }
+
+}
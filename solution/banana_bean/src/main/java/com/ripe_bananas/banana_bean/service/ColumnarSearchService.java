@@ -0,0 +1,103 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.index.MovieColumns;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Movie searches without a name filter answered from a MovieColumns copy
+ * of movie_search instead of SQL, only the page is then read by id. Off
+ * unless banana_bean.columnar.enabled is true; the copy is loaded once at
+ * startup, then reloaded by MovieSearchViewService after each refresh of
+ * the view, before the cached search results are dropped.
+ */
+@Service
+@ConditionalOnProperty(name = "banana_bean.columnar.enabled",
+  havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ColumnarSearchService {
+
+  private final JdbcTemplate jdbc_template;
+
+  private final PlatformTransactionManager transaction_manager;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  @Value("${banana_bean.columnar.fetch-size:10000}")
+  private int fetch_size;
+
+  private volatile MovieColumns columns;
+
+  @Scheduled(initialDelayString = "${banana_bean.columnar.initial-delay:0}")
+  public void refreshColumns() {
+    long started = System.nanoTime();
+    TransactionTemplate read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+
+    MovieColumns.Builder builder = MovieColumns.builder();
+    read_only.executeWithoutResult(status -> jdbc_template.query(
+      connection -> {
+        PreparedStatement statement = connection.prepareStatement(
+          "SELECT id, date, rating, minute, genre_ids FROM movie_search");
+        statement.setFetchSize(fetch_size);
+        return statement;
+      },
+      rs -> {
+        int[] genre_ids = null;
+        Array genres = rs.getArray(5);
+        if (genres != null) {
+          Object[] values = (Object[]) genres.getArray();
+          genre_ids = new int[values.length];
+          for (int i = 0; i < values.length; i++) {
+            genre_ids[i] = ((Number) values[i]).intValue();
+          }
+        }
+        builder.add(rs.getInt(1), rs.getObject(2, Integer.class),
+          rs.getObject(3, Float.class), rs.getObject(4, Integer.class),
+          genre_ids);
+      }));
+
+    columns = builder.build();
+    event_publisher.publishEvent(new SnapshotReloadedEvent("movie columns"));
+    log.info("Movie columns loaded in {} ms, {} movies",
+      (System.nanoTime() - started) / 1000000, columns.size());
+  }
+
+  /**
+   * @return true if the search can be answered here: the columns are
+   * loaded, there is no name filter and the sort is on a column
+   */
+  public boolean supports(MovieSearchKey key) {
+    return columns != null && key.name() == null &&
+      MovieColumns.supportsSort(key.sort_by()) == true;
+  }
+
+  /**
+   * @param genre_ids the ids of the genres of the key
+   */
+  public MovieColumns.Result search(MovieSearchKey key,
+                                    List<Integer> genre_ids,
+                                    Pageable page) {
+    return columns.search(genre_ids, key.genre_mode() != null,
+      key.min_rating(), key.max_rating(), key.min_year(), key.max_year(),
+      key.min_duration(), key.max_duration(), key.sort_by(),
+      "desc".equals(key.sort_direction()) == true, page.getOffset(),
+      page.getPageSize());
+  }
+
+}
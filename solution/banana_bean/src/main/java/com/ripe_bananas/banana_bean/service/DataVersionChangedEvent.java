@@ -0,0 +1,10 @@
+package com.ripe_bananas.banana_bean.service;
+
+/**
+ * Published by DatasetVersionService when it reads a data_version greater
+ * than the last one, a table the API reads was written to since.
+ *
+ * @param version the data_version read
+ */
+public record DataVersionChangedEvent(long version) {
+}
@@ -0,0 +1,127 @@
+package com.ripe_bananas.banana_bean.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Version of the data served by the API, used to build the ETags of the
+ * responses. It is made of the data_version row of
+ * banana_stem/migrations/003_data_version.sql, bumped by a trigger on every
+ * write to the tables the API reads, and of the generation of every
+ * snapshot: the responses built from the in-memory copies and from
+ * movie_search change when these are reloaded, not when the tables do.
+ * The generation of a snapshot is the data_version read when its
+ * SnapshotReloadedEvent is published, so instances serving the same data
+ * from snapshots reloaded since the same write give the same version, the
+ * ETags hold behind a load balancer. Without a data_version row the
+ * generations are counted by this instance.
+ * The row is read again every banana_bean.dataset-version.check-interval,
+ * a change is seen at most that late and published as a
+ * DataVersionChangedEvent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetVersionService {
+
+  private final JdbcTemplate jdbc_template;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  private long data_version;
+
+  private long reloads;
+
+  private final Map<String, Long> generations = new TreeMap<>();
+
+  private volatile String version = "0";
+
+  private volatile Instant last_modified =
+    Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+  private synchronized void update() {
+    String current = Long.toHexString(data_version);
+    if (generations.isEmpty() == false) {
+      current += "." + DigestUtils.md5DigestAsHex(generations.toString()
+        .getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+    if (current.equals(version) == true) {
+      return;
+    }
+
+    version = current;
+    last_modified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    log.debug("Dataset version is now {}", version);
+  }
+
+  /**
+   * @return the version of the data_version row, null if it can not be read
+   */
+  private Long readDataVersion() {
+    try {
+      return jdbc_template.query("SELECT version FROM data_version",
+        rs -> rs.next() == true ? rs.getLong(1) : null);
+    } catch (DataAccessException e) {
+      log.debug("Could not read data_version, dataset version kept to {}",
+        version, e);
+      return null;
+    }
+  }
+
+  private synchronized boolean dataVersionRead(long read) {
+    if (read <= data_version) {
+      return false;
+    }
+
+    data_version = read;
+    update();
+    return true;
+  }
+
+  @Scheduled(fixedDelayString =
+    "${banana_bean.dataset-version.check-interval:30000}")
+  public void check() {
+    Long read = readDataVersion();
+    if (read != null && dataVersionRead(read) == true) {
+      event_publisher.publishEvent(new DataVersionChangedEvent(read));
+    }
+  }
+
+  @EventListener
+  public void snapshotReloaded(SnapshotReloadedEvent event) {
+    Long read = readDataVersion();
+    synchronized (this) {
+      reloads++;
+      generations.put(event.snapshot(), read != null ? read : -reloads);
+      update();
+      log.debug("{} reloaded, dataset version is now {}", event.snapshot(),
+        version);
+    }
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * @return when the current version was first seen, to the second like
+   * the Last-Modified header
+   */
+  public Instant getLast_modified() {
+    return last_modified;
+  }
+
+}
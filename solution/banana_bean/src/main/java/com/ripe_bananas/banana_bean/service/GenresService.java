@@ -5,15 +5,20 @@ import com.ripe_bananas.banana_bean.entity.Genre;
 import com.ripe_bananas.banana_bean.repository.GenresRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class GenresService {
 
   private final GenresRepo genres_repo;
@@ -24,15 +29,26 @@ public class GenresService {
         g.getGenre_id(),
         g.getGenre_name()
       )
-    ).collect(Collectors.toList());
+    ).toList();
 
     return list_of_genres;
   }
 
+  /**
+   * @return an unmodifiable list, the cached one is shared by every caller
+   */
+  @Cacheable(value = "genres", sync = true)
   public List<GenreDTO> findGenresList(){
     List<Genre> res = genres_repo.findGenreList();
 
     return convertGenre(res.stream());
   }
 
+  @EventListener
+  @CacheEvict(value = "genres", allEntries = true)
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public void dataVersionChanged(DataVersionChangedEvent event) {
+    log.debug("Genres cache cleared, data_version is now {}", event.version());
+  }
+
 }
@@ -0,0 +1,64 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Keeps the movie_search materialized view (see
+ * banana_stem/migrations/002_movie_search.sql) up to date. The refresh is
+ * CONCURRENTLY so the searches keep reading the previous content while it
+ * runs, the columnar copy of the view (if enabled) is reloaded and the
+ * cached search results are dropped once it is done.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSearchViewService {
+
+  private final JdbcTemplate jdbc_template;
+
+  private final CacheManager cache_manager;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  private final Optional<ColumnarSearchService> columnar_search;
+
+  @Scheduled(
+    initialDelayString = "${banana_bean.movie-search.initial-delay:600000}",
+    fixedDelayString = "${banana_bean.movie-search.refresh-interval:600000}")
+  public void refresh() {
+    long start = System.nanoTime();
+    try {
+      jdbc_template.execute(
+        "REFRESH MATERIALIZED VIEW CONCURRENTLY movie_search");
+    } catch (DataAccessException e) {
+      log.warn("Could not refresh movie_search", e);
+      return;
+    }
+
+    try {
+      columnar_search.ifPresent(ColumnarSearchService::refreshColumns);
+    } catch (DataAccessException e) {
+      log.warn("Could not reload the movie columns", e);
+    }
+
+    Cache search_cache = cache_manager.getCache(CacheConfig.MOVIE_SEARCHES);
+    if (search_cache != null) {
+      search_cache.clear();
+    }
+    event_publisher.publishEvent(new SnapshotReloadedEvent("movie_search"));
+    log.info("movie_search refreshed in {} ms",
+      (System.nanoTime() - start) / 1000000);
+  }
+
+}
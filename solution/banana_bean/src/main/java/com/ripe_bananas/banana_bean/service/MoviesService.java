@@ -1,27 +1,61 @@
 package com.ripe_bananas.banana_bean.service;
 
-import com.ripe_bananas.banana_bean.entity.BasicMovie;
+import com.ripe_bananas.banana_bean.config.CacheConfig;
+import com.ripe_bananas.banana_bean.dto.CursorPageDTO;
+import com.ripe_bananas.banana_bean.dto.FacetedPageDTO;
+import com.ripe_bananas.banana_bean.dto.GenreDTO;
+import com.ripe_bananas.banana_bean.dto.MovieFacetsDTO;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
 import com.ripe_bananas.banana_bean.entity.Movie;
-import com.ripe_bananas.banana_bean.repository.BasicMoviesRepo;
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import com.ripe_bananas.banana_bean.index.MovieColumns;
+import com.ripe_bananas.banana_bean.metrics.SearchMetrics;
+import com.ripe_bananas.banana_bean.repository.MovieSearchRepo;
 import com.ripe_bananas.banana_bean.repository.MoviesRepo;
 import com.ripe_bananas.banana_bean.specification_builders.BasicMoviesSpecifications;
+import com.ripe_bananas.banana_bean.utility.KeysetCursor;
+import com.ripe_bananas.banana_bean.utility.MovieFacets;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
 import com.ripe_bananas.banana_bean.utility.Utility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Year;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class MoviesService {
 
+  public static final int MAX_DETAILS_BATCH = 50;
+
   private final MoviesRepo movies_repo;
 
-  private final BasicMoviesRepo basic_movies_repo;
+  private final MovieSearchRepo movie_search_repo;
+
+  private final TableStatsService table_stats;
+
+  private final GenresService genres_service;
+
+  private final CacheManager cache_manager;
+
+  private final Optional<ColumnarSearchService> columnar_search;
+
+  @Value("${banana_bean.export.fetch-size:1000}")
+  private int export_fetch_size;
 
   private static Sort buildSortBy (String sort_by, String sort_direction){
     Sort sort;
@@ -39,25 +73,82 @@ public class MoviesService {
     return sort;
   }
 
-  public Page<BasicMovie> findMoviesWithFilters(String name,
-                                                List<String> genres,
-                                                Float min_rating,
-                                                Float max_rating,
-                                                Integer min_year,
-                                                Integer max_year,
-                                                Integer min_duration,
-                                                Integer max_duration,
-                                                String sort_by,
-                                                String sort_direction,
-                                                int page_num,
-                                                int page_size) {
-    Specification<BasicMovie> specs = BasicMoviesSpecifications.nameLikeTo(name);
-
-    if (genres != null && genres.isEmpty() == false) {
-      for (String genre : genres) {
-        specs = specs.and(BasicMoviesSpecifications.hasGenre(genre));
+  /**
+   * Ids of the genres with the given names, taken from the cached genres
+   * list. A name that is not a genre maps to -1 so that the search finds
+   * no movie.
+   */
+  private List<Integer> genreIds(List<String> genres) {
+    if (genres == null || genres.isEmpty() == true) {
+      return null;
+    }
+
+    Map<String, Integer> ids = new HashMap<>();
+    for (GenreDTO genre : genres_service.findGenresList()) {
+      ids.put(genre.getGenre(), genre.getGenre_id());
+    }
+
+    List<Integer> genre_ids = new ArrayList<>();
+    for (String genre : genres) {
+      if (genre != null && genre.isBlank() == false) {
+        genre_ids.add(ids.getOrDefault(genre, -1));
       }
     }
+
+    return genre_ids;
+  }
+
+  /**
+   * @return true if the genre_mode asks for the movies having any of the
+   * genres (case insensitive "any"), false for the ones having all of them
+   */
+  private static boolean isAnyGenre(String genre_mode) {
+    return genre_mode != null && genre_mode.equalsIgnoreCase("any") == true;
+  }
+
+  /**
+   * @return true if the genre_mode is missing, blank, "all" or "any" (case
+   * insensitive)
+   */
+  public static boolean isValidGenreMode(String genre_mode) {
+    return genre_mode == null || genre_mode.isBlank() == true ||
+      genre_mode.equalsIgnoreCase("all") == true || isAnyGenre(genre_mode);
+  }
+
+  /**
+   * @return true if the page size is between 1 and
+   * MovieSearchKey.MAX_PAGE_SIZE
+   */
+  public static boolean isValidPageSize(int page_size) {
+    return page_size > 0 && page_size <= MovieSearchKey.MAX_PAGE_SIZE;
+  }
+
+  /**
+   * @return true if the movies can be exported or paged with a cursor
+   * sorted by sort_by, see KeysetCursor.SORT_FIELDS
+   */
+  public static boolean isValidSortField(String sort_by) {
+    return KeysetCursor.first(sort_by, null) != null;
+  }
+
+  private Specification<MovieSearchRow> buildFilterSpecs(String name,
+                                                         List<String> genres,
+                                                         String genre_mode,
+                                                         Float min_rating,
+                                                         Float max_rating,
+                                                         Integer min_year,
+                                                         Integer max_year,
+                                                         Integer min_duration,
+                                                         Integer max_duration) {
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.nameLikeTo(name);
+
+    if (isAnyGenre(genre_mode) == true) {
+      specs = specs
+        .and(BasicMoviesSpecifications.hasAnyGenre(genreIds(genres)));
+    } else {
+      specs = specs.and(BasicMoviesSpecifications.hasGenres(genreIds(genres)));
+    }
     specs = specs
       .and(BasicMoviesSpecifications.ratingGreaterThanOrEqual(min_rating));
     specs = specs
@@ -71,17 +162,357 @@ public class MoviesService {
     specs = specs
       .and(BasicMoviesSpecifications.durationLowerThanOrEqual(max_duration));
 
-    Pageable page;
+    return specs;
+  }
+
+  private static boolean isUnfiltered(String name,
+                                      List<String> genres,
+                                      Float min_rating,
+                                      Float max_rating,
+                                      Integer min_year,
+                                      Integer max_year,
+                                      Integer min_duration,
+                                      Integer max_duration) {
+    return (name == null || name.isEmpty() == true) &&
+      (genres == null || genres.isEmpty() == true) &&
+      min_rating == null && max_rating == null && min_year == null &&
+      max_year == null && min_duration == null && max_duration == null;
+  }
+
+  private static SearchMetrics.Filters describeFilters(String name,
+                                                       List<String> genres,
+                                                       String genre_mode,
+                                                       Float min_rating,
+                                                       Float max_rating,
+                                                       Integer min_year,
+                                                       Integer max_year,
+                                                       Integer min_duration,
+                                                       Integer max_duration) {
+    return SearchMetrics.filters()
+      .add("name", name)
+      .add("genres", genres)
+      .add("any_genre", genres != null && isAnyGenre(genre_mode) == true ?
+        genre_mode : null)
+      .add("min_rating", min_rating)
+      .add("max_rating", max_rating)
+      .add("min_year", min_year)
+      .add("max_year", max_year)
+      .add("min_duration", min_duration)
+      .add("max_duration", max_duration);
+  }
+
+  private static String sortField(Pageable page) {
+    return page.getSort().stream().findFirst().map(Sort.Order::getProperty)
+      .orElse(null);
+  }
+
+  private SliceDTO<MovieSummaryDTO> findSlice(String search,
+                                              SearchMetrics.Filters filters,
+                                              Specification<MovieSearchRow> specs,
+                                              Pageable page,
+                                              Long approximate_total) {
+    Slice<MovieSummaryDTO> res = SearchMetrics.time(search, filters,
+      sortField(page), () -> movie_search_repo.findSummarySlice(specs, page));
+
+    return SliceDTO.of(res, approximate_total);
+  }
+
+  /**
+   * Cached result of a search: the rows of the page as DTOs and the total
+   * number of matching movies.
+   */
+  private record CachedSearch(MovieSummaryDTO[] content, long total) {
+  }
+
+  /**
+   * When the columnar engine is enabled and supports the search, the
+   * filtering, counting and sorting are done in memory and only the rows
+   * of the page are read, by id.
+   */
+  private CachedSearch loadSearch(MovieSearchKey key, Pageable page) {
+    Specification<MovieSearchRow> specs = buildFilterSpecs(key.name(),
+      key.genres(), key.genre_mode(), key.min_rating(), key.max_rating(),
+      key.min_year(), key.max_year(), key.min_duration(), key.max_duration());
+
+    SearchMetrics.Filters filters = describeFilters(key.name(), key.genres(),
+      key.genre_mode(), key.min_rating(), key.max_rating(), key.min_year(),
+      key.max_year(), key.min_duration(), key.max_duration());
+    if (columnar_search.isPresent() == true &&
+      columnar_search.get().supports(key) == true) {
+      MovieColumns.Result res = SearchMetrics.time("movies_columnar",
+        filters, key.sort_by(), () -> columnar_search.get().search(key,
+          genreIds(key.genres()), page));
+      List<MovieSummaryDTO> content = movie_search_repo.findSummariesByIds(
+        Arrays.stream(res.ids()).boxed().toList());
+
+      return new CachedSearch(content.toArray(MovieSummaryDTO[]::new),
+        res.total());
+    }
+
+    Page<MovieSummaryDTO> res = SearchMetrics.time("movies_page", filters,
+      key.sort_by(), () -> movie_search_repo.findSummaryPage(specs, page));
+
+    return new CachedSearch(res.getContent().toArray(MovieSummaryDTO[]::new),
+      res.getTotalElements());
+  }
+
+  /**
+   * Results are cached by their canonical MovieSearchKey, concurrent
+   * requests for a search that is not cached yet wait for a single load
+   * instead of all querying the database. The page size is capped at
+   * MovieSearchKey.MAX_PAGE_SIZE.
+   */
+  public Page<MovieSummaryDTO> findMoviesWithFilters(String name,
+                                                     List<String> genres,
+                                                     String genre_mode,
+                                                     Float min_rating,
+                                                     Float max_rating,
+                                                     Integer min_year,
+                                                     Integer max_year,
+                                                     Integer min_duration,
+                                                     Integer max_duration,
+                                                     String sort_by,
+                                                     String sort_direction,
+                                                     int page_num,
+                                                     int page_size) {
+    MovieSearchKey key = MovieSearchKey.of(name, genres, genre_mode,
+      min_rating, max_rating, min_year, max_year, min_duration, max_duration,
+      sort_by, sort_direction, page_num, page_size);
+    Pageable page = Utility.buildPageRequest(key.sort_by(),
+      key.sort_direction(), key.page_num(), key.page_size());
+
+    Cache search_cache = cache_manager.getCache(CacheConfig.MOVIE_SEARCHES);
+    CachedSearch res = search_cache.get(key, () -> loadSearch(key, page));
+    List<MovieSummaryDTO> content = Arrays.stream(res.content())
+      .map(MovieSummaryDTO::copy)
+      .toList();
+
+    return new PageImpl<>(content, page, res.total());
+  }
+
+  private MovieFacetsDTO loadFacets(MovieSearchKey key) {
+    Specification<MovieSearchRow> specs = buildFilterSpecs(key.name(),
+      key.genres(), key.genre_mode(), key.min_rating(), key.max_rating(),
+      key.min_year(), key.max_year(), key.min_duration(), key.max_duration());
+    MovieFacets facets = MovieFacets.of(genres_service.findGenresList(),
+      Year.now().getValue());
+
+    SearchMetrics.Filters filters = describeFilters(key.name(), key.genres(),
+      key.genre_mode(), key.min_rating(), key.max_rating(), key.min_year(),
+      key.max_year(), key.min_duration(), key.max_duration());
+    long[] counts = SearchMetrics.time("movies_facets", filters, null,
+      () -> movie_search_repo.countInBuckets(specs, facets.specifications()));
+
+    return facets.toDTO(counts);
+  }
+
+  /**
+   * Faceted mode of findMoviesWithFilters: the page comes with the number
+   * of matching movies per genre, decade, rating and duration, all counted
+   * by a single query over movie_search. The counts do not depend on the
+   * page nor on the sort, they are cached once for every page of the
+   * search and copied on read like the pages.
+   */
+  public FacetedPageDTO<MovieSummaryDTO> findMoviesWithFacets(String name,
+                                                              List<String> genres,
+                                                              String genre_mode,
+                                                              Float min_rating,
+                                                              Float max_rating,
+                                                              Integer min_year,
+                                                              Integer max_year,
+                                                              Integer min_duration,
+                                                              Integer max_duration,
+                                                              String sort_by,
+                                                              String sort_direction,
+                                                              int page_num,
+                                                              int page_size) {
+    Page<MovieSummaryDTO> page = findMoviesWithFilters(name, genres,
+      genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+      max_duration, sort_by, sort_direction, page_num, page_size);
+    if (page.isEmpty() == true) {
+      return FacetedPageDTO.of(page, null);
+    }
+
+    MovieSearchKey key = MovieSearchKey.of(name, genres, genre_mode,
+      min_rating, max_rating, min_year, max_year, min_duration, max_duration,
+      sort_by, sort_direction, page_num, page_size).filtersOnly();
+    Cache search_cache = cache_manager.getCache(CacheConfig.MOVIE_SEARCHES);
+    MovieFacetsDTO facets = search_cache.get(key, () -> loadFacets(key));
+
+    return FacetedPageDTO.of(page, facets.copy());
+  }
+
+  /**
+   * Same search as findMoviesWithFilters without the count(*) query, the
+   * total is only estimated when no filter is applied.
+   */
+  public SliceDTO<MovieSummaryDTO> findMoviesSliceWithFilters(String name,
+                                                              List<String> genres,
+                                                              String genre_mode,
+                                                              Float min_rating,
+                                                              Float max_rating,
+                                                              Integer min_year,
+                                                              Integer max_year,
+                                                              Integer min_duration,
+                                                              Integer max_duration,
+                                                              String sort_by,
+                                                              String sort_direction,
+                                                              int page_num,
+                                                              int page_size) {
+    Specification<MovieSearchRow> specs = buildFilterSpecs(name, genres,
+      genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+      max_duration);
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    Long approximate_total = null;
+    if (isUnfiltered(name, genres, min_rating, max_rating, min_year, max_year,
+      min_duration, max_duration) == true) {
+      approximate_total = table_stats.estimateRows("movies");
+    }
+
+    return findSlice("movies_slice", describeFilters(name, genres, genre_mode,
+      min_rating, max_rating, min_year, max_year, min_duration, max_duration),
+      specs, page, approximate_total);
+  }
+
+  /**
+   * Keyset version of findMoviesWithFilters: every page starts right after
+   * the last row of the previous one, so it costs the same whatever its
+   * position and no COUNT query is needed.
+   * The sort is taken from the cursor when one is given.
+   *
+   * @return the page and the cursor of the next one, null if the cursor,
+   * the sort field or the page size is not valid
+   */
+  public CursorPageDTO<MovieSummaryDTO> findMoviesByCursor(String name,
+                                                           List<String> genres,
+                                                           String genre_mode,
+                                                           Float min_rating,
+                                                           Float max_rating,
+                                                           Integer min_year,
+                                                           Integer max_year,
+                                                           Integer min_duration,
+                                                           Integer max_duration,
+                                                           String sort_by,
+                                                           String sort_direction,
+                                                           String cursor,
+                                                           int page_size) {
+    KeysetCursor position;
+    if (cursor != null && cursor.isEmpty() == false) {
+      position = KeysetCursor.decode(cursor);
+    } else {
+      position = KeysetCursor.first(sort_by, sort_direction);
+    }
+    if (position == null || isValidPageSize(page_size) == false) {
+      return null;
+    }
+
+    Specification<MovieSearchRow> specs = buildFilterSpecs(name, genres,
+      genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+      max_duration);
+
+    List<MovieSummaryDTO> rows = SearchMetrics.time("movies_cursor",
+      describeFilters(name, genres, genre_mode, min_rating, max_rating,
+        min_year, max_year, min_duration, max_duration), position.getSort_by(),
+      () -> seek(specs, position, page_size));
+
+    boolean has_next = rows.size() > page_size;
+    if (has_next == true) {
+      rows = rows.subList(0, page_size);
+    }
+
+    String next_cursor = null;
+    if (has_next == true) {
+      MovieSummaryDTO last = rows.get(rows.size() - 1);
+      Object value = position.isSortedById() == true ? null :
+        new BeanWrapperImpl(last).getPropertyValue(position.getSort_by());
+      next_cursor = position.next(last.getId(), value).encode();
+    }
+
+    return new CursorPageDTO<>(rows, rows.size(), has_next, next_cursor);
+  }
+
+  /**
+   * Rows of a keyset page plus one to tell if a next page exists: the rows
+   * with a sort key after the cursor, then the ones without a sort key.
+   */
+  private List<MovieSummaryDTO> seek(Specification<MovieSearchRow> specs,
+                                     KeysetCursor position,
+                                     int page_size) {
+    List<MovieSummaryDTO> rows = new ArrayList<>();
+    if (position.isNull_region() == false) {
+      rows.addAll(movie_search_repo.findSummaries(specs.and(
+          BasicMoviesSpecifications.seekAfter(position.getSort_by(),
+            position.isDescending(), position.getLast_value(),
+            position.getLast_id())),
+        page_size + 1));
+    }
+    if (position.isSortedById() == false && rows.size() <= page_size) {
+      Integer last_id = position.isNull_region() == true ?
+        position.getLast_id() : null;
+      int missing = page_size + 1 - rows.size();
+      rows.addAll(movie_search_repo.findSummaries(specs.and(
+          BasicMoviesSpecifications.seekNullsAfter(position.getSort_by(),
+            position.isDescending(), last_id)),
+        missing));
+    }
+
+    return rows;
+  }
+
+  /**
+   * Every movie matching the filters, sorted by sort_by then id (by id
+   * alone when no sort is given), handed to the consumer as soon as it is
+   * fetched. A single query is run and read through a cursor
+   * banana_bean.export.fetch-size rows at a time, so the memory used does
+   * not depend on the number of results.
+   *
+   * @return the number of movies exported
+   */
+  public long exportMoviesWithFilters(Integer actor_id,
+                                      String actor_name,
+                                      String name,
+                                      List<String> genres,
+                                      String genre_mode,
+                                      Float min_rating,
+                                      Float max_rating,
+                                      Integer min_year,
+                                      Integer max_year,
+                                      Integer min_duration,
+                                      Integer max_duration,
+                                      String sort_by,
+                                      String sort_direction,
+                                      Consumer<MovieSummaryDTO> consumer) {
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.hasActor(actor_id)
+        .and(BasicMoviesSpecifications.hasActorName(actor_name))
+        .and(buildFilterSpecs(name, genres, genre_mode, min_rating,
+          max_rating, min_year, max_year, min_duration, max_duration));
+
     Sort sort = Utility.buildSortBy(sort_by, sort_direction);
     if (sort == null) {
-      page = PageRequest.of(page_num, page_size);
+      sort = Sort.by("id");
     } else {
-      page = PageRequest.of(page_num, page_size, sort);
+      sort = sort.and(Sort.by(sort.iterator().next().getDirection(), "id"));
     }
+    Sort export_sort = sort;
 
-    Page<BasicMovie> res = basic_movies_repo.findAll(specs, page);
+    return SearchMetrics.time("movies_export", describeFilters(name, genres,
+      genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+      max_duration), sort_by, () -> {
+      long exported = 0;
+      try (Stream<MovieSummaryDTO> movies = movie_search_repo
+        .streamSummaries(specs, export_sort, export_fetch_size)) {
+        Iterator<MovieSummaryDTO> iterator = movies.iterator();
+        while (iterator.hasNext() == true) {
+          consumer.accept(iterator.next());
+          exported++;
+        }
+      }
 
-    return res;
+      return exported;
+    });
   }
 
   public Movie findMovieDetailsById(Integer movie_id) {
@@ -90,111 +521,192 @@ public class MoviesService {
     }
 
     Movie response = movies_repo.findMovieDetailById(movie_id);
+    if (response == null) {
+      return null;
+    }
+
+    movies_repo.fetchActorsById(movie_id);
+    movies_repo.fetchCrewById(movie_id);
+    movies_repo.fetchThemesById(movie_id);
+    movies_repo.fetchStudiosById(movie_id);
+    movies_repo.fetchLanguagesById(movie_id);
+    movies_repo.fetchCountriesById(movie_id);
+    movies_repo.fetchReleasesById(movie_id);
 
     return response;
   }
 
-  public Page<BasicMovie> findMoviesWithActorId(Integer actor_id,
-                                                String name,
-                                                List<String> genres,
-                                                Float min_rating,
-                                                Float max_rating,
-                                                Integer min_year,
-                                                Integer max_year,
-                                                Integer min_duration,
-                                                Integer max_duration,
-                                                String sort_by,
-                                                String sort_direction,
-                                                int page_num,
-                                                int page_size) {
-    if (actor_id == null || actor_id <= 0) {
+  /**
+   * Batch version of findMovieDetailsById, the details of all the movies
+   * are loaded with the same number of queries needed for a single one.
+   *
+   * @return the movies found in the order of the given ids, unknown and
+   * repeated ids are skipped, null if no id or more than
+   * MAX_DETAILS_BATCH ids are given
+   */
+  public List<Movie> findMovieDetailsByIds(List<Integer> movie_ids) {
+    if (movie_ids == null || movie_ids.isEmpty() == true ||
+      movie_ids.size() > MAX_DETAILS_BATCH) {
       return null;
     }
 
-    Specification<BasicMovie> specs = BasicMoviesSpecifications.hasActor(actor_id);
+    Set<Integer> ids = new LinkedHashSet<>();
+    for (Integer movie_id : movie_ids) {
+      if (movie_id != null && movie_id > 1000000) {
+        ids.add(movie_id);
+      }
+    }
+    if (ids.isEmpty() == true) {
+      return List.of();
+    }
+
+    Map<Integer, Movie> movies = new HashMap<>();
+    for (Movie movie : movies_repo.findMovieDetailsByIds(ids)) {
+      movies.put(movie.getId(), movie);
+    }
+    if (movies.isEmpty() == true) {
+      return List.of();
+    }
 
-    if (genres != null && genres.isEmpty() == false) {
-      for (String genre : genres) {
-        specs = specs.and(BasicMoviesSpecifications.hasGenre(genre));
+    Set<Integer> found = movies.keySet();
+    movies_repo.fetchActorsByIds(found);
+    movies_repo.fetchCrewByIds(found);
+    movies_repo.fetchThemesByIds(found);
+    movies_repo.fetchStudiosByIds(found);
+    movies_repo.fetchLanguagesByIds(found);
+    movies_repo.fetchCountriesByIds(found);
+    movies_repo.fetchReleasesByIds(found);
+
+    List<Movie> response = new ArrayList<>();
+    for (Integer movie_id : ids) {
+      Movie movie = movies.get(movie_id);
+      if (movie != null) {
+        response.add(movie);
       }
     }
 
-    specs = specs
-      .and(BasicMoviesSpecifications.nameLikeTo(name));
-    specs = specs
-      .and(BasicMoviesSpecifications.ratingGreaterThanOrEqual(min_rating));
-    specs = specs
-      .and(BasicMoviesSpecifications.ratingLowerThanOrEqual(max_rating));
-    specs = specs
-      .and(BasicMoviesSpecifications.yearGreatThanOrEqual(min_year));
-    specs = specs
-      .and(BasicMoviesSpecifications.yearLowerThanOrEqual(max_year));
-    specs = specs
-      .and(BasicMoviesSpecifications.durationGreaterThanOrEqual(min_duration));
-    specs = specs
-      .and(BasicMoviesSpecifications.durationLowerThanOrEqual(max_duration));
+    return response;
+  }
 
-    Pageable page;
-    Sort sort = Utility.buildSortBy(sort_by, sort_direction);
-    if (sort == null) {
-      page = PageRequest.of(page_num, page_size);
-    } else {
-      page = PageRequest.of(page_num, page_size, sort);
+  public Page<MovieSummaryDTO> findMoviesWithActorId(Integer actor_id,
+                                                     String name,
+                                                     List<String> genres,
+                                                     String genre_mode,
+                                                     Float min_rating,
+                                                     Float max_rating,
+                                                     Integer min_year,
+                                                     Integer max_year,
+                                                     Integer min_duration,
+                                                     Integer max_duration,
+                                                     String sort_by,
+                                                     String sort_direction,
+                                                     int page_num,
+                                                     int page_size) {
+    if (actor_id == null || actor_id <= 0) {
+      return null;
     }
 
-    Page<BasicMovie> movies = basic_movies_repo
-      .findAll(specs, page);
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.hasActor(actor_id)
+        .and(buildFilterSpecs(name, genres, genre_mode, min_rating,
+          max_rating, min_year, max_year, min_duration, max_duration));
+
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    Page<MovieSummaryDTO> movies = SearchMetrics.time("movies_with_actor",
+      describeFilters(name, genres, genre_mode, min_rating, max_rating,
+        min_year, max_year, min_duration, max_duration), sort_by,
+      () -> movie_search_repo.findSummaryPage(specs, page));
 
     return movies;
   }
 
-  public Page<BasicMovie> findMoviesWithActorName(String actor_name,
-                                                  String movie_name,
-                                                  List<String> genres,
-                                                  Float min_rating,
-                                                  Float max_rating,
-                                                  Integer min_year,
-                                                  Integer max_year,
-                                                  Integer min_duration,
-                                                  Integer max_duration,
-                                                  String sort_by,
-                                                  String sort_direction,
-                                                  int page_num,
-                                                  int page_size) {
-    Specification<BasicMovie> specs =
-      BasicMoviesSpecifications.hasActorName(actor_name);
-
-    if (genres != null && genres.isEmpty() == false) {
-      for (String genre : genres) {
-        specs = specs.and(BasicMoviesSpecifications.hasGenre(genre));
-      }
-    }
+  public Page<MovieSummaryDTO> findMoviesWithActorName(String actor_name,
+                                                       String movie_name,
+                                                       List<String> genres,
+                                                       String genre_mode,
+                                                       Float min_rating,
+                                                       Float max_rating,
+                                                       Integer min_year,
+                                                       Integer max_year,
+                                                       Integer min_duration,
+                                                       Integer max_duration,
+                                                       String sort_by,
+                                                       String sort_direction,
+                                                       int page_num,
+                                                       int page_size) {
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.hasActorName(actor_name)
+        .and(buildFilterSpecs(movie_name, genres, genre_mode, min_rating,
+          max_rating, min_year, max_year, min_duration, max_duration));
 
-    specs = specs.and(BasicMoviesSpecifications.nameLikeTo(movie_name));
-    specs = specs
-      .and(BasicMoviesSpecifications.ratingGreaterThanOrEqual(min_rating));
-    specs = specs
-      .and(BasicMoviesSpecifications.ratingLowerThanOrEqual(max_rating));
-    specs = specs
-      .and(BasicMoviesSpecifications.yearGreatThanOrEqual(min_year));
-    specs = specs
-      .and(BasicMoviesSpecifications.yearLowerThanOrEqual(max_year));
-    specs = specs
-      .and(BasicMoviesSpecifications.durationGreaterThanOrEqual(min_duration));
-    specs = specs
-      .and(BasicMoviesSpecifications.durationLowerThanOrEqual(max_duration));
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
 
-    Pageable page;
-    Sort sort = Utility.buildSortBy(sort_by, sort_direction);
-    if (sort == null) {
-      page = PageRequest.of(page_num, page_size);
-    } else {
-      page = PageRequest.of(page_num, page_size, sort);
+    Page<MovieSummaryDTO> movies = SearchMetrics.time(
+      "movies_with_actor_name", describeFilters(movie_name, genres,
+        genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+        max_duration), sort_by,
+      () -> movie_search_repo.findSummaryPage(specs, page));
+
+    return movies;
+  }
+
+  public SliceDTO<MovieSummaryDTO> findMoviesSliceWithActorId(Integer actor_id,
+                                                              String name,
+                                                              List<String> genres,
+                                                              String genre_mode,
+                                                              Float min_rating,
+                                                              Float max_rating,
+                                                              Integer min_year,
+                                                              Integer max_year,
+                                                              Integer min_duration,
+                                                              Integer max_duration,
+                                                              String sort_by,
+                                                              String sort_direction,
+                                                              int page_num,
+                                                              int page_size) {
+    if (actor_id == null || actor_id <= 0) {
+      return null;
     }
 
-    Page<BasicMovie> movies = basic_movies_repo.findAll(specs, page);
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.hasActor(actor_id)
+        .and(buildFilterSpecs(name, genres, genre_mode, min_rating,
+          max_rating, min_year, max_year, min_duration, max_duration));
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
 
-    return movies;
+    return findSlice("movies_with_actor_slice", describeFilters(name, genres,
+      genre_mode, min_rating, max_rating, min_year, max_year, min_duration,
+      max_duration), specs, page, null);
+  }
+
+  public SliceDTO<MovieSummaryDTO> findMoviesSliceWithActorName(String actor_name,
+                                                                String movie_name,
+                                                                List<String> genres,
+                                                                String genre_mode,
+                                                                Float min_rating,
+                                                                Float max_rating,
+                                                                Integer min_year,
+                                                                Integer max_year,
+                                                                Integer min_duration,
+                                                                Integer max_duration,
+                                                                String sort_by,
+                                                                String sort_direction,
+                                                                int page_num,
+                                                                int page_size) {
+    Specification<MovieSearchRow> specs =
+      BasicMoviesSpecifications.hasActorName(actor_name)
+        .and(buildFilterSpecs(movie_name, genres, genre_mode, min_rating,
+          max_rating, min_year, max_year, min_duration, max_duration));
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    return findSlice("movies_with_actor_name_slice", describeFilters(
+      movie_name, genres, genre_mode, min_rating, max_rating, min_year,
+      max_year, min_duration, max_duration), specs, page, null);
   }
 
 }
@@ -1,39 +1,41 @@
 package com.ripe_bananas.banana_bean.service;
 
+import com.ripe_bananas.banana_bean.dto.OscarAwardDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
 import com.ripe_bananas.banana_bean.entity.OscarAward;
+import com.ripe_bananas.banana_bean.metrics.SearchMetrics;
 import com.ripe_bananas.banana_bean.repository.OscarAwardsRepo;
 import com.ripe_bananas.banana_bean.specification_builders.OscarAwardsSpecifications;
 import com.ripe_bananas.banana_bean.utility.Utility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class OscarAwardsService {
 
   private final OscarAwardsRepo oscar_repo;
 
-  public Page<OscarAward> findOscarAwardsWithFilers(String name,
-                                                    String film_name,
-                                                    String category,
-                                                    Integer min_year_film,
-                                                    Integer max_year_film,
-                                                    Integer min_year_ceremony,
-                                                    Integer max_year_ceremony,
-                                                    Integer min_ceremony,
-                                                    Integer max_ceremony,
-                                                    Boolean winner,
-                                                    String sort_by,
-                                                    String sort_direction,
-                                                    int page_num,
-                                                    int page_size) {
+  private final TableStatsService table_stats;
+
+  private static Specification<OscarAward> buildFilterSpecs(String name,
+                                                           String film_name,
+                                                           String category,
+                                                           Integer min_year_film,
+                                                           Integer max_year_film,
+                                                           Integer min_year_ceremony,
+                                                           Integer max_year_ceremony,
+                                                           Integer min_ceremony,
+                                                           Integer max_ceremony,
+                                                           Boolean winner) {
     Specification<OscarAward> specs =
       OscarAwardsSpecifications.nameLikeTo(name);
     specs = specs
@@ -55,18 +57,117 @@ public class OscarAwardsService {
     specs = specs
       .and(OscarAwardsSpecifications.winnerEqualsTo(winner));
 
-    Pageable page;
-    Sort sort = Utility.buildSortBy(sort_by, sort_direction);
-    if (sort == null) {
-      page = PageRequest.of(page_num, page_size);
-    } else {
-      page = PageRequest.of(page_num, page_size, sort);
-    }
+    return specs;
+  }
+
+  private static boolean isUnfiltered(String name,
+                                      String film_name,
+                                      String category,
+                                      Integer min_year_film,
+                                      Integer max_year_film,
+                                      Integer min_year_ceremony,
+                                      Integer max_year_ceremony,
+                                      Integer min_ceremony,
+                                      Integer max_ceremony,
+                                      Boolean winner) {
+    return (name == null || name.isEmpty() == true) &&
+      (film_name == null || film_name.isEmpty() == true) &&
+      (category == null || category.isEmpty() == true) &&
+      min_year_film == null && max_year_film == null &&
+      min_year_ceremony == null && max_year_ceremony == null &&
+      min_ceremony == null && max_ceremony == null && winner == null;
+  }
+
+  private static SearchMetrics.Filters describeFilters(String name,
+                                                       String film_name,
+                                                       String category,
+                                                       Integer min_year_film,
+                                                       Integer max_year_film,
+                                                       Integer min_year_ceremony,
+                                                       Integer max_year_ceremony,
+                                                       Integer min_ceremony,
+                                                       Integer max_ceremony,
+                                                       Boolean winner) {
+    return SearchMetrics.filters()
+      .add("name", name)
+      .add("film_name", film_name)
+      .add("category", category)
+      .add("min_year_film", min_year_film)
+      .add("max_year_film", max_year_film)
+      .add("min_year_ceremony", min_year_ceremony)
+      .add("max_year_ceremony", max_year_ceremony)
+      .add("min_ceremony", min_ceremony)
+      .add("max_ceremony", max_ceremony)
+      .add("winner", winner);
+  }
+
+  public Page<OscarAwardDTO> findOscarAwardsWithFilers(String name,
+                                                       String film_name,
+                                                       String category,
+                                                       Integer min_year_film,
+                                                       Integer max_year_film,
+                                                       Integer min_year_ceremony,
+                                                       Integer max_year_ceremony,
+                                                       Integer min_ceremony,
+                                                       Integer max_ceremony,
+                                                       Boolean winner,
+                                                       String sort_by,
+                                                       String sort_direction,
+                                                       int page_num,
+                                                       int page_size) {
+    Specification<OscarAward> specs = buildFilterSpecs(name, film_name,
+      category, min_year_film, max_year_film, min_year_ceremony,
+      max_year_ceremony, min_ceremony, max_ceremony, winner);
 
-    Page<OscarAward> oscar_awards = oscar_repo
-      .findAll(specs, page);
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    Page<OscarAwardDTO> oscar_awards = SearchMetrics.time("oscar_awards_page",
+      describeFilters(name, film_name, category, min_year_film, max_year_film,
+        min_year_ceremony, max_year_ceremony, min_ceremony, max_ceremony,
+        winner), sort_by, () -> oscar_repo.findOscarAwardPage(specs, page));
 
     return oscar_awards;
   }
 
+  /**
+   * Same search as findOscarAwardsWithFilers without the count(*) query,
+   * the total is only estimated when no filter is applied.
+   */
+  public SliceDTO<OscarAwardDTO> findOscarAwardsSliceWithFilters(String name,
+                                                                 String film_name,
+                                                                 String category,
+                                                                 Integer min_year_film,
+                                                                 Integer max_year_film,
+                                                                 Integer min_year_ceremony,
+                                                                 Integer max_year_ceremony,
+                                                                 Integer min_ceremony,
+                                                                 Integer max_ceremony,
+                                                                 Boolean winner,
+                                                                 String sort_by,
+                                                                 String sort_direction,
+                                                                 int page_num,
+                                                                 int page_size) {
+    Specification<OscarAward> specs = buildFilterSpecs(name, film_name,
+      category, min_year_film, max_year_film, min_year_ceremony,
+      max_year_ceremony, min_ceremony, max_ceremony, winner);
+    Pageable page = Utility.buildPageRequest(sort_by, sort_direction,
+      page_num, page_size);
+
+    Long approximate_total = null;
+    if (isUnfiltered(name, film_name, category, min_year_film, max_year_film,
+      min_year_ceremony, max_year_ceremony, min_ceremony, max_ceremony,
+      winner) == true) {
+      approximate_total = table_stats.estimateRows("oscar_awards");
+    }
+
+    Slice<OscarAwardDTO> oscar_awards = SearchMetrics.time(
+      "oscar_awards_slice", describeFilters(name, film_name, category,
+        min_year_film, max_year_film, min_year_ceremony, max_year_ceremony,
+        min_ceremony, max_ceremony, winner), sort_by,
+      () -> oscar_repo.findOscarAwardSlice(specs, page));
+
+    return SliceDTO.of(oscar_awards, approximate_total);
+  }
+
 }
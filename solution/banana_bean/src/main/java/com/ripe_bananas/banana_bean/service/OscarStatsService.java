@@ -0,0 +1,111 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.OscarStatsDTO;
+import com.ripe_bananas.banana_bean.index.OscarStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Oscar nominations and wins per nominee, film, category and ceremony year
+ * served from an OscarStats table kept in memory instead of GROUP BY
+ * queries over oscar_awards. The table is built again from all the rows
+ * at every refresh, so inserted, updated and deleted awards are all
+ * counted; it only replaces the served one when a total changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OscarStatsService {
+
+  public static final int MAX_LIMIT = 100;
+
+  private static final Map<String, OscarStats.Order> ORDERS = Map.of(
+    "wins", OscarStats.Order.WINS,
+    "nominations", OscarStats.Order.NOMINATIONS,
+    "win_rate", OscarStats.Order.WIN_RATE,
+    "key", OscarStats.Order.KEY
+  );
+
+  private final JdbcTemplate jdbc_template;
+
+  private final PlatformTransactionManager transaction_manager;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  private volatile OscarStats stats = OscarStats.empty();
+
+  @Scheduled(initialDelayString = "${banana_bean.oscar-stats.initial-delay:0}",
+    fixedDelayString = "${banana_bean.oscar-stats.refresh-interval:600000}")
+  public void refreshStats() {
+    long started = System.nanoTime();
+    TransactionTemplate read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+
+    List<OscarStats.Award> awards = read_only.execute(status ->
+      jdbc_template.query(
+        "SELECT year_ceremony, category, name, film, winner FROM oscar_awards",
+        (rs, row_num) -> new OscarStats.Award(rs.getObject(1, Integer.class),
+          rs.getString(2), rs.getString(3), rs.getString(4),
+          rs.getBoolean(5))));
+    OscarStats updated = OscarStats.of(awards);
+    if (updated.sameTotals(stats) == true) {
+      return;
+    }
+
+    stats = updated;
+    event_publisher.publishEvent(new SnapshotReloadedEvent("oscar stats"));
+    log.info("Oscar stats of {} awards refreshed in {} ms",
+      updated.awardCount(), (System.nanoTime() - started) / 1000000);
+  }
+
+  /**
+   * @param key             the nominee, film, category or year to read the
+   *                        totals of, null to rank the whole group
+   * @param sort_by         wins, nominations, win_rate or key, null for
+   *                        default_order
+   * @param min_nominations totals with fewer nominations are left out of
+   *                        the ranking
+   * @return at most limit (and MAX_LIMIT) totals, empty if the key has no
+   * nomination, null if sort_by is not valid or limit is not positive
+   */
+  public List<OscarStatsDTO> findStats(OscarStats.Group group,
+                                       String key,
+                                       String sort_by,
+                                       OscarStats.Order default_order,
+                                       int min_nominations,
+                                       int limit) {
+    OscarStats.Order order = sort_by == null ? default_order :
+      ORDERS.get(sort_by.toLowerCase(Locale.ROOT));
+    if (order == null || limit <= 0) {
+      return null;
+    }
+
+    OscarStats current = stats;
+    if (key != null) {
+      OscarStats.Tally tally = current.tally(group, key);
+      return tally == null ? List.of() : List.of(toDTO(tally));
+    }
+
+    return current.top(group, order, min_nominations,
+        Math.min(limit, MAX_LIMIT))
+      .stream()
+      .map(OscarStatsService::toDTO)
+      .toList();
+  }
+
+  private static OscarStatsDTO toDTO(OscarStats.Tally tally) {
+    return new OscarStatsDTO(tally.key(), tally.nominations(), tally.wins(),
+      tally.winRate());
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.CountryDTO;
+import com.ripe_bananas.banana_bean.dto.StudioDTO;
+import com.ripe_bananas.banana_bean.repository.CountriesRepo;
+import com.ripe_bananas.banana_bean.repository.LanguagesRepo;
+import com.ripe_bananas.banana_bean.repository.StudiosRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Lookups of the near-static reference tables, cached like the genres
+ * list (see spring.cache.* in application.properties). The caches are
+ * cleared when DatasetVersionService sees the data_version bumped, the
+ * entries otherwise expire after REFERENCE_CACHE_TTL. The cached lists are
+ * unmodifiable since every caller gets the same one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ReferenceDataService {
+
+  private final CountriesRepo countries_repo;
+
+  private final StudiosRepo studios_repo;
+
+  private final LanguagesRepo languages_repo;
+
+  @Cacheable(value = "countries", sync = true)
+  public List<CountryDTO> findCountriesList() {
+    return countries_repo.findCountryList().stream()
+      .map(c -> new CountryDTO(c.getId(), c.getCountry_name()))
+      .toList();
+  }
+
+  @Cacheable(value = "studios", sync = true)
+  public List<StudioDTO> findStudiosList() {
+    return studios_repo.findStudioList().stream()
+      .map(s -> new StudioDTO(s.getId(), s.getName()))
+      .toList();
+  }
+
+  @Cacheable(value = "languages", sync = true)
+  public List<String> findLanguagesList() {
+    return List.copyOf(languages_repo.findLanguageList());
+  }
+
+  @EventListener
+  @CacheEvict(value = {"countries", "studios", "languages"},
+    allEntries = true)
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public void dataVersionChanged(DataVersionChangedEvent event) {
+    log.debug("Reference data caches cleared, data_version is now {}",
+      event.version());
+  }
+
+}
@@ -0,0 +1,169 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.dto.SimilarMovieDTO;
+import com.ripe_bananas.banana_bean.index.SimilarMovies;
+import com.ripe_bananas.banana_bean.repository.MovieSearchRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Related movies read from a SimilarMovies table kept in memory. Every
+ * movie is described by its genres, themes, studios and main actors; the
+ * dataset has no billing order, so the main actors of a movie are the
+ * banana_bean.similar-movies.max-actors ones with the most movies. The
+ * table is computed when the application starts and again every
+ * banana_bean.similar-movies.refresh-interval, only the summaries of the
+ * movies returned are read from the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarMoviesService {
+
+  public static final int MAX_LIMIT = 20;
+
+  private static final int GENRE = 1;
+
+  private static final int THEME = 2;
+
+  private static final int STUDIO = 3;
+
+  private static final int ACTOR = 4;
+
+  private static final String MAIN_ACTORS = "SELECT movie_id, actor_id " +
+    "FROM (SELECT a.movie_id, a.actor_id, ROW_NUMBER() OVER (" +
+    "PARTITION BY a.movie_id ORDER BY c.movies DESC, a.actor_id) AS billing " +
+    "FROM (SELECT DISTINCT movie_id, actor_id FROM movies_have_actors) a " +
+    "JOIN (SELECT actor_id, count(DISTINCT movie_id) AS movies " +
+    "FROM movies_have_actors GROUP BY actor_id) c " +
+    "ON c.actor_id = a.actor_id) ranked " +
+    "WHERE billing <= ?";
+
+  private final JdbcTemplate jdbc_template;
+
+  private final PlatformTransactionManager transaction_manager;
+
+  private final MovieSearchRepo movie_search_repo;
+
+  private final ApplicationEventPublisher event_publisher;
+
+  @Value("${banana_bean.similar-movies.fetch-size:10000}")
+  private int fetch_size;
+
+  @Value("${banana_bean.similar-movies.neighbours:" + MAX_LIMIT + "}")
+  private int neighbours;
+
+  @Value("${banana_bean.similar-movies.max-actors:10}")
+  private int max_actors;
+
+  @Value("${banana_bean.similar-movies.max-posting:2000}")
+  private int max_posting;
+
+  @Value("${banana_bean.similar-movies.parallelism:0}")
+  private int parallelism;
+
+  private volatile SimilarMovies similar_movies =
+    SimilarMovies.builder().build(1, 0, 1);
+
+  private static long feature(int kind, int value) {
+    return ((long) kind << 32) | (value & 0xffffffffL);
+  }
+
+  private void read(String sql, RowCallbackHandler handler,
+                    Object... arguments) {
+    jdbc_template.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(sql);
+      statement.setFetchSize(fetch_size);
+      for (int i = 0; i < arguments.length; i++) {
+        statement.setObject(i + 1, arguments[i]);
+      }
+      return statement;
+    }, handler);
+  }
+
+  @Scheduled(
+    initialDelayString = "${banana_bean.similar-movies.initial-delay:0}",
+    fixedDelayString = "${banana_bean.similar-movies.refresh-interval:86400000}")
+  public void refreshSimilarMovies() {
+    long started = System.nanoTime();
+    TransactionTemplate read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+
+    SimilarMovies.Builder builder = SimilarMovies.builder();
+    Map<String, Integer> themes = new HashMap<>();
+    read_only.executeWithoutResult(status -> {
+      read("SELECT movie_id, genre_id FROM movie_has_genres",
+        rs -> {
+          builder.add(rs.getInt(1), feature(GENRE, rs.getInt(2)));
+        });
+      read("SELECT id, theme FROM themes",
+        rs -> {
+          int theme = themes.computeIfAbsent(rs.getString(2),
+            t -> themes.size());
+          builder.add(rs.getInt(1), feature(THEME, theme));
+        });
+      read("SELECT movie_id, studio_id FROM movie_have_studios",
+        rs -> {
+          builder.add(rs.getInt(1), feature(STUDIO, rs.getInt(2)));
+        });
+      read(MAIN_ACTORS,
+        rs -> {
+          builder.add(rs.getInt(1), feature(ACTOR, rs.getInt(2)));
+        }, max_actors);
+    });
+    long loaded = System.nanoTime();
+
+    int threads = parallelism > 0 ? parallelism :
+      Runtime.getRuntime().availableProcessors();
+    similar_movies = builder.build(neighbours, max_posting, threads);
+    event_publisher.publishEvent(new SnapshotReloadedEvent("similar movies"));
+    log.info("Similar movies of {} movies read in {} ms, scored in {} ms " +
+        "on {} threads", similar_movies.movieCount(),
+      (loaded - started) / 1000000, (System.nanoTime() - loaded) / 1000000,
+      threads);
+  }
+
+  /**
+   * @return at most limit (and MAX_LIMIT) movies most similar to the given
+   * one, best first, empty if the movie has none, null if the id is not
+   * valid
+   */
+  @Transactional(readOnly = true)
+  public List<SimilarMovieDTO> findSimilarMovies(Integer movie_id,
+                                                 int limit) {
+    if (movie_id == null || movie_id <= 1000000) {
+      return null;
+    }
+
+    List<SimilarMovies.Similar> similar = similar_movies.similar(movie_id,
+      Math.min(limit, MAX_LIMIT));
+    if (similar.isEmpty() == true) {
+      return List.of();
+    }
+
+    Map<Integer, Float> scores = new HashMap<>();
+    similar.forEach(s -> scores.put(s.movie_id(), s.score()));
+    List<MovieSummaryDTO> summaries = movie_search_repo.findSummariesByIds(
+      similar.stream().map(SimilarMovies.Similar::movie_id).toList());
+
+    return summaries.stream()
+      .map(m -> new SimilarMovieDTO(scores.get(m.getId()), m))
+      .toList();
+  }
+
+}
@@ -0,0 +1,10 @@
+package com.ripe_bananas.banana_bean.service;
+
+/**
+ * Published once an in-memory copy of the data (or the movie_search view)
+ * was reloaded, the responses built from it may have changed.
+ *
+ * @param snapshot name of what was reloaded, for the logs
+ */
+public record SnapshotReloadedEvent(String snapshot) {
+}
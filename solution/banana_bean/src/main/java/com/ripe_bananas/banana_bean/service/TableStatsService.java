@@ -0,0 +1,38 @@
+package com.ripe_bananas.banana_bean.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TableStatsService {
+
+  private final JdbcTemplate jdbc_template;
+
+  /**
+   * Number of rows of a table as estimated by PostgreSQL statistics
+   * (pg_class.reltuples), it costs a catalog lookup instead of a full
+   * count(*) and it is kept up to date by ANALYZE / autovacuum.
+   *
+   * @return the estimate, null if the table is unknown or never analyzed
+   */
+  @Cacheable(value = "table_row_estimates", sync = true)
+  public Long estimateRows(String table_name) {
+    List<Long> res = jdbc_template.queryForList(
+      "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)",
+      Long.class, table_name);
+
+    if (res.isEmpty() == true || res.get(0) == null || res.get(0) < 0) {
+      return null;
+    }
+
+    return res.get(0);
+  }
+
+}
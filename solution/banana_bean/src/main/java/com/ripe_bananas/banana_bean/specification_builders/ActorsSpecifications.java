@@ -0,0 +1,31 @@
+package com.ripe_bananas.banana_bean.specification_builders;
+
+import com.ripe_bananas.banana_bean.entity.Actor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public class ActorsSpecifications {
+
+  public static Specification<Actor> nameLikeTo(String name) {
+    return (root, query, criteriaBuilder) -> {
+      if (name != null && name.isEmpty() == false) {
+        return TrigramSearch.containsIgnoreCase(criteriaBuilder, query,
+          root.get("id"), root.get("name"), name);
+      }
+
+      return criteriaBuilder.conjunction();
+    };
+  }
+
+  public static Specification<Actor> idIn(Collection<Integer> ids) {
+    return (root, query, criteriaBuilder) -> {
+      if (ids != null && ids.isEmpty() == false) {
+        return root.get("id").in(ids);
+      }
+
+      return criteriaBuilder.disjunction();
+    };
+  }
+
+}
@@ -2,11 +2,19 @@ package com.ripe_bananas.banana_bean.specification_builders;
 
 import com.ripe_bananas.banana_bean.entity.*;
 import jakarta.persistence.criteria.*;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
+/**
+ * Filters of the movie searches, they run against the movie_search read
+ * model: apart from the actor name search, which looks up the actors
+ * first, a filter only reads that table.
+ */
 public class BasicMoviesSpecifications {
 
-  public static Specification<BasicMovie> nameEqualsTo(String name) {
+  public static Specification<MovieSearchRow> nameEqualsTo(String name) {
     return (root, query, criteriaBuilder) -> {
       if (name != null && !name.isEmpty()) {
         return criteriaBuilder.equal(criteriaBuilder.lower(root.get("name")),
@@ -17,18 +25,18 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> nameLikeTo(String name) {
+  public static Specification<MovieSearchRow> nameLikeTo(String name) {
     return (root, query, criteriaBuilder) -> {
       if (name != null && !name.isEmpty()) {
-        return criteriaBuilder.like(criteriaBuilder.lower(root.get("name")),
-          "%" + name.toLowerCase() + "%");
+        return TrigramSearch.containsIgnoreCase(criteriaBuilder, query,
+          root.get("id"), root.get("name"), name);
       }
 
       return criteriaBuilder.conjunction();
     };
   }
 
-  public static Specification<BasicMovie> yearEqualsTo(Integer year) {
+  public static Specification<MovieSearchRow> yearEqualsTo(Integer year) {
     return (root, query, criteriaBuilder) -> {
       if (year != null && year > 0) {
         return criteriaBuilder.equal(root.get("date"), year);
@@ -38,7 +46,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> yearGreatThanOrEqual(Integer year){
+  public static Specification<MovieSearchRow> yearGreatThanOrEqual(Integer year){
     return (root, query, criteriaBuilder) -> {
       if(year != null && year > 0){
         return criteriaBuilder.greaterThanOrEqualTo(root.get("date"), year);
@@ -48,7 +56,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> yearLowerThanOrEqual(Integer year){
+  public static Specification<MovieSearchRow> yearLowerThanOrEqual(Integer year){
     return (root, query, criteriaBuilder) -> {
       if(year != null && year > 0){
         return criteriaBuilder.lessThanOrEqualTo(root.get("date"), year);
@@ -58,7 +66,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> yearBetween(Integer year_min,
+  public static Specification<MovieSearchRow> yearBetween(Integer year_min,
                                                  Integer year_max) {
     return (root, query, criteriaBuilder) -> {
       if(year_min != null && year_max != null){
@@ -72,7 +80,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> ratingGreaterThanOrEqual(Float rating){
+  public static Specification<MovieSearchRow> ratingGreaterThanOrEqual(Float rating){
     return (root, query, criteriaBuilder) -> {
       if(rating != null && rating >= 0){
         return criteriaBuilder.greaterThanOrEqualTo(root.get("rating"), rating);
@@ -82,7 +90,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> ratingLowerThanOrEqual(Float rating){
+  public static Specification<MovieSearchRow> ratingLowerThanOrEqual(Float rating){
     return (root, query, criteriaBuilder) -> {
       if(rating != null && rating >= 0){
         return criteriaBuilder.lessThanOrEqualTo(root.get("rating"), rating);
@@ -92,7 +100,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> ratingBetween(Float rating_min,
+  public static Specification<MovieSearchRow> ratingBetween(Float rating_min,
                                                    Float rating_max){
     return (root, query, criteriaBuilder) -> {
       if(rating_min != null && rating_max != null){
@@ -107,7 +115,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> durationGreaterThanOrEqual(Integer duration){
+  public static Specification<MovieSearchRow> durationGreaterThanOrEqual(Integer duration){
     return (root, query, criteriaBuilder) -> {
       if(duration != null && duration >= 0){
         return criteriaBuilder.greaterThanOrEqualTo(root.get("minute"),
@@ -118,7 +126,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> durationLowerThanOrEqual(Integer duration){
+  public static Specification<MovieSearchRow> durationLowerThanOrEqual(Integer duration){
     return (root, query, criteriaBuilder) -> {
       if(duration != null && duration >= 0){
         return criteriaBuilder.lessThanOrEqualTo(root.get("minute"), duration);
@@ -128,7 +136,7 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> durationBetween(Integer duration_min,
+  public static Specification<MovieSearchRow> durationBetween(Integer duration_min,
                                                      Integer duration_max){
     return (root, query, criteriaBuilder) -> {
       if(duration_min != null && duration_max != null){
@@ -143,48 +151,189 @@ public class BasicMoviesSpecifications {
     };
   }
 
-  public static Specification<BasicMovie> hasGenre(String genre_name){
+  /**
+   * Movies whose field is in [from, to), a null bound is not checked. Used
+   * for the facet buckets, consecutive buckets never overlap.
+   */
+  public static <T extends Comparable<? super T>> Specification<MovieSearchRow>
+  fieldInRange(String field, T from, T to) {
+    return (root, query, criteriaBuilder) -> {
+      Path<T> value = root.get(field);
+      Predicate range = criteriaBuilder.isNotNull(value);
+      if (from != null) {
+        range = criteriaBuilder.and(range,
+          criteriaBuilder.greaterThanOrEqualTo(value, from));
+      }
+      if (to != null) {
+        range = criteriaBuilder.and(range,
+          criteriaBuilder.lessThan(value, to));
+      }
+
+      return range;
+    };
+  }
+
+  /**
+   * Movies having all the given genres, a single genre_ids @> ARRAY[...]
+   * condition whatever the number of genres.
+   */
+  public static Specification<MovieSearchRow> hasGenres(
+    Collection<Integer> genre_ids) {
+    return (root, query, criteriaBuilder) -> {
+      if (genre_ids != null && genre_ids.isEmpty() == false) {
+        return ((HibernateCriteriaBuilder) criteriaBuilder).arrayIncludes(
+          root.get("genre_ids"), genre_ids.toArray(Integer[]::new));
+      }
+
+      return criteriaBuilder.conjunction();
+    };
+  }
+
+  /**
+   * Movies having at least one of the given genres, a single
+   * genre_ids && ARRAY[...] condition. The ids are written as a literal,
+   * H2 can not type an array parameter in its emulation of &&.
+   */
+  public static Specification<MovieSearchRow> hasAnyGenre(
+    Collection<Integer> genre_ids) {
     return (root, query, criteriaBuilder) -> {
-      if(genre_name != null && !genre_name.isEmpty()){
-        Join<Movie, Genre> genre_join = root.join("genres", JoinType.INNER);
-        return criteriaBuilder.equal(genre_join.get("genre_name"), genre_name);
+      if (genre_ids != null && genre_ids.isEmpty() == false) {
+        return ((HibernateCriteriaBuilder) criteriaBuilder).arrayIntersects(
+          root.get("genre_ids"),
+          criteriaBuilder.literal(genre_ids.toArray(Integer[]::new)));
       }
 
       return criteriaBuilder.conjunction();
     };
   }
 
-  public static Specification<BasicMovie> hasPoster(Path<?> movie_id){
+  public static Specification<MovieSearchRow> idIn(Collection<Integer> ids) {
     return (root, query, criteriaBuilder) -> {
-      if(movie_id != null){
-        Join<Movie, Poster> poster_join = root.join("poster", JoinType.INNER);
-        return criteriaBuilder.equal(poster_join.get("id"), movie_id);
+      if (ids != null && ids.isEmpty() == false) {
+        return root.get("id").in(ids);
       }
 
       return criteriaBuilder.conjunction();
     };
   }
 
-  public static Specification<BasicMovie> hasActor(Integer actor_id) {
-    return (root, query, cb) -> {
-      if (actor_id == null) return cb.conjunction();
-      Join<BasicMovie, MoviesHaveActors> actors = root.join("actors");
-      Join<MoviesHaveActors, Actor> actor = actors.join("actor");
-      return cb.equal(actor.get("id"), actor_id);
+  public static Specification<MovieSearchRow> hasActor(Integer actor_id) {
+    return (root, query, criteriaBuilder) -> {
+      if (actor_id == null) {
+        return criteriaBuilder.conjunction();
+      }
+
+      return ((HibernateCriteriaBuilder) criteriaBuilder).arrayContains(
+        root.get("actor_ids"), actor_id);
     };
   }
 
-  public static Specification<BasicMovie> hasActorName(String actor_name) {
+  /**
+   * Movies with an actor whose name contains actor_name, the actors are
+   * found through their trigram index and their movies through
+   * movies_have_actors, unlike the other filters the results are not
+   * ranked by similarity.
+   */
+  public static Specification<MovieSearchRow> hasActorName(String actor_name) {
     return (root, query, criteriaBuilder) -> {
-      if(actor_name != null && actor_name.isEmpty() == false){
-        Join<BasicMovie, MoviesHaveActors> actors = root.join("actors");
-        Join<MoviesHaveActors, Actor> actor = actors.join("actor");
-        return criteriaBuilder.like(criteriaBuilder.lower(actor.get("name")),
-          "%" + actor_name.toLowerCase() + "%");
+      if (actor_name != null && actor_name.isEmpty() == false) {
+        Subquery<Integer> movie_ids = query.subquery(Integer.class);
+        Root<MoviesHaveActors> movie_actor =
+          movie_ids.from(MoviesHaveActors.class);
+        Join<MoviesHaveActors, Actor> actor = movie_actor.join("actor");
+        movie_ids.select(movie_actor.get("id").get("movie_id"))
+          .where(TrigramSearch.containsIgnoreCase(criteriaBuilder, null,
+            null, actor.get("name"), actor_name));
+
+        return root.get("id").in(movie_ids);
       }
 
       return criteriaBuilder.conjunction();
     };
   }
 
+  private static Comparable<?> toKeyValue(Class<?> key_type, String value) {
+    if (key_type == Integer.class) {
+      return Integer.valueOf(value);
+    }
+    if (key_type == Float.class) {
+      return Float.valueOf(value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Keyset condition for the rows that come after the given position when
+   * sorting by sort_by (then by id) among the rows with a non NULL key.
+   * Written as key >= v AND (key > v OR id > last_id) so that PostgreSQL
+   * can start an index range scan at v instead of skipping rows.
+   * The ordering of the query is set here as well, a null sort_by means
+   * the search is sorted by id only.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static Specification<MovieSearchRow> seekAfter(String sort_by,
+                                                    boolean descending,
+                                                    String last_value,
+                                                    Integer last_id) {
+    return (root, query, criteriaBuilder) -> {
+      Path<Integer> id = root.get("id");
+      Order id_order = descending == true ? criteriaBuilder.desc(id) :
+        criteriaBuilder.asc(id);
+
+      if (sort_by == null) {
+        query.orderBy(id_order);
+        if (last_id == null) {
+          return criteriaBuilder.conjunction();
+        }
+
+        return descending == true ? criteriaBuilder.lessThan(id, last_id) :
+          criteriaBuilder.greaterThan(id, last_id);
+      }
+
+      Path<Comparable> key = root.get(sort_by);
+      query.orderBy(descending == true ? criteriaBuilder.desc(key) :
+        criteriaBuilder.asc(key), id_order);
+      Predicate not_null = criteriaBuilder.isNotNull(key);
+      if (last_id == null || last_value == null) {
+        return not_null;
+      }
+
+      Comparable value = toKeyValue(key.getJavaType(), last_value);
+      if (descending == true) {
+        return criteriaBuilder.and(not_null,
+          criteriaBuilder.lessThanOrEqualTo(key, value),
+          criteriaBuilder.or(criteriaBuilder.lessThan(key, value),
+            criteriaBuilder.lessThan(id, last_id)));
+      }
+
+      return criteriaBuilder.and(not_null,
+        criteriaBuilder.greaterThanOrEqualTo(key, value),
+        criteriaBuilder.or(criteriaBuilder.greaterThan(key, value),
+          criteriaBuilder.greaterThan(id, last_id)));
+    };
+  }
+
+  /**
+   * Keyset condition for the rows with a NULL sort key, which are returned
+   * after all the others ordered by id.
+   */
+  public static Specification<MovieSearchRow> seekNullsAfter(String sort_by,
+                                                         boolean descending,
+                                                         Integer last_id) {
+    return (root, query, criteriaBuilder) -> {
+      Path<Integer> id = root.get("id");
+      query.orderBy(descending == true ? criteriaBuilder.desc(id) :
+        criteriaBuilder.asc(id));
+      Predicate is_null = criteriaBuilder.isNull(root.get(sort_by));
+      if (last_id == null) {
+        return is_null;
+      }
+
+      return criteriaBuilder.and(is_null, descending == true ?
+        criteriaBuilder.lessThan(id, last_id) :
+        criteriaBuilder.greaterThan(id, last_id));
+    };
+  }
+
 }
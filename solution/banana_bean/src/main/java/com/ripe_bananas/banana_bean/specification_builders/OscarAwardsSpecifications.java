@@ -8,8 +8,8 @@ public class OscarAwardsSpecifications {
   public static Specification<OscarAward> nameLikeTo(String name) {
     return (root, query, criteriaBuilder) -> {
       if(name != null && name.isEmpty() == false) {
-        return criteriaBuilder.like(criteriaBuilder.lower(root.get("name")),
-          "%" + name.toLowerCase() + "%");
+        return TrigramSearch.containsIgnoreCase(criteriaBuilder, query,
+          root.get("id"), root.get("name"), name);
       }
 
       return criteriaBuilder.conjunction();
@@ -19,8 +19,8 @@ public class OscarAwardsSpecifications {
   public static Specification<OscarAward> filmLikeTo(String film_name) {
     return (root, query, criteriaBuilder) -> {
       if(film_name != null && film_name.isEmpty() == false) {
-        return criteriaBuilder.like(criteriaBuilder.lower(root.get("film")),
-          "%" + film_name.toLowerCase() + "%");
+        return TrigramSearch.containsIgnoreCase(criteriaBuilder, query,
+          root.get("id"), root.get("film"), film_name);
       }
 
       return criteriaBuilder.conjunction();
@@ -30,8 +30,8 @@ public class OscarAwardsSpecifications {
   public static Specification<OscarAward> categoryLikeTo(String category) {
     return (root, query, criteriaBuilder) -> {
       if(category != null && category.isEmpty() == false) {
-        return criteriaBuilder.like(criteriaBuilder.lower(root.get("category")),
-          "%" + category.toLowerCase() + "%");
+        return TrigramSearch.containsIgnoreCase(criteriaBuilder, query,
+          root.get("id"), root.get("category"), category);
       }
 
       return criteriaBuilder.conjunction();
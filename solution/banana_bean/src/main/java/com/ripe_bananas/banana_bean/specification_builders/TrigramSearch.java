@@ -0,0 +1,53 @@
+package com.ripe_bananas.banana_bean.specification_builders;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Case insensitive "contains" search on a text column backed by the
+ * pg_trgm GIN indexes of banana_stem/migrations/001_trigram_search.sql.
+ * The condition is written as lower(column) LIKE '%term%' so it matches the
+ * indexed expression, and unless the query is already sorted the results
+ * are ranked by their trigram similarity to the searched term, then by id so
+ * that equally similar rows keep the same order from one page to the next.
+ */
+public class TrigramSearch {
+
+  private static final char ESCAPE = '\\';
+
+  public static String toContainsPattern(String term) {
+    StringBuilder pattern = new StringBuilder(term.length() + 2);
+    pattern.append('%');
+    for (char c : term.toLowerCase().toCharArray()) {
+      if (c == '%' || c == '_' || c == ESCAPE) {
+        pattern.append(ESCAPE);
+      }
+      pattern.append(c);
+    }
+    pattern.append('%');
+
+    return pattern.toString();
+  }
+
+  public static Predicate containsIgnoreCase(CriteriaBuilder criteriaBuilder,
+                                             CriteriaQuery<?> query,
+                                             Expression<?> id,
+                                             Expression<String> column,
+                                             String term) {
+    Expression<String> lower_column = criteriaBuilder.lower(column);
+
+    if (query != null && query.getOrderList().isEmpty() == true &&
+      Long.class.equals(query.getResultType()) == false) {
+      query.orderBy(criteriaBuilder.desc(criteriaBuilder.function(
+          "similarity", Float.class, lower_column,
+          criteriaBuilder.literal(term.toLowerCase()))),
+        criteriaBuilder.asc(id));
+    }
+
+    return criteriaBuilder.like(lower_column, toContainsPattern(term),
+      ESCAPE);
+  }
+
+}
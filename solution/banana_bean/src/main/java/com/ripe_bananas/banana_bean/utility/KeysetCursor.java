@@ -0,0 +1,147 @@
+package com.ripe_bananas.banana_bean.utility;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Position of a keyset (seek) search: the sort of the search and the sort
+ * key and id of the last row returned. It travels to the clients as an
+ * opaque URL-safe token, so the next page can continue right after that
+ * row instead of skipping an OFFSET.
+ * Rows with a NULL sort key always come after the others, null_region
+ * tells that the search already reached them.
+ * Only the fields of SORT_FIELDS can be sorted on, a token naming another
+ * field or holding a last value of the wrong type is not a valid cursor.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+
+  private static final String VERSION = "k1";
+
+  private static final String SEPARATOR = "\n";
+
+  public static final Set<String> SORT_FIELDS = Set.of("name", "date",
+    "rating", "minute");
+
+  private String sort_by;
+
+  private boolean descending;
+
+  private boolean null_region;
+
+  private Integer last_id;
+
+  private String last_value;
+
+  /**
+   * @return the cursor of the first page, null if the search cannot be
+   * sorted by sort_by
+   */
+  public static KeysetCursor first(String sort_by, String sort_direction) {
+    if (sort_by == null || sort_by.isEmpty() == true ||
+      sort_by.equals("id") == true) {
+      sort_by = null;
+    } else if (SORT_FIELDS.contains(sort_by) == false) {
+      return null;
+    }
+    boolean descending = sort_direction != null &&
+      sort_direction.equalsIgnoreCase("desc") == true;
+
+    return new KeysetCursor(sort_by, descending, false, null, null);
+  }
+
+  public boolean isSortedById() {
+    return sort_by == null;
+  }
+
+  public KeysetCursor next(Integer id, Object value) {
+    if (isSortedById() == true) {
+      return new KeysetCursor(null, descending, false, id, null);
+    }
+    if (value == null) {
+      return new KeysetCursor(sort_by, descending, true, id, null);
+    }
+
+    return new KeysetCursor(sort_by, descending, false, id,
+      value.toString());
+  }
+
+  public String encode() {
+    String raw = VERSION + SEPARATOR +
+      (sort_by == null ? "" : sort_by) + SEPARATOR +
+      (descending == true ? "d" : "a") + (null_region == true ? "n" : "v") +
+      SEPARATOR + (last_id == null ? "" : last_id.toString()) + SEPARATOR +
+      (last_value == null ? "" : last_value);
+
+    return Base64.getUrlEncoder().withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static boolean isValidValue(String sort_by, String last_value) {
+    if (last_value == null || sort_by.equals("name") == true) {
+      return true;
+    }
+
+    try {
+      if (sort_by.equals("rating") == true) {
+        Float.valueOf(last_value);
+      } else {
+        Integer.valueOf(last_value);
+      }
+    } catch (NumberFormatException e) {
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * @return the decoded cursor, null if the token is not a valid cursor
+   */
+  public static KeysetCursor decode(String token) {
+    if (token == null || token.isEmpty() == true) {
+      return null;
+    }
+
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+
+    String[] fields = raw.split(SEPARATOR, 5);
+    if (fields.length != 5 || fields[0].equals(VERSION) == false ||
+      fields[2].matches("[ad][nv]") == false || fields[3].isEmpty() == true ||
+      (fields[1].isEmpty() == false &&
+        SORT_FIELDS.contains(fields[1]) == false)) {
+      return null;
+    }
+
+    Integer last_id;
+    try {
+      last_id = Integer.valueOf(fields[3]);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+
+    String sort_by = fields[1].isEmpty() == true ? null : fields[1];
+    boolean descending = fields[2].charAt(0) == 'd';
+    boolean null_region = fields[2].charAt(1) == 'n';
+    String last_value = null_region == true || sort_by == null ? null :
+      fields[4];
+    if (isValidValue(sort_by, last_value) == false) {
+      return null;
+    }
+
+    return new KeysetCursor(sort_by, descending, null_region, last_id,
+      last_value);
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.ripe_bananas.banana_bean.utility;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes the movies of an export one at a time as they are read, either as
+ * NDJSON (one MovieSummaryDTO per line, serialized like the search results)
+ * or as CSV with a header line, the genres joined by '|'.
+ * Write errors are rethrown as UncheckedIOException so that the export
+ * query stops when the client goes away.
+ */
+public abstract class MovieExportWriter implements Consumer<MovieSummaryDTO>,
+  Closeable {
+
+  public static final String NDJSON = "application/x-ndjson";
+
+  public static final String CSV = "text/csv";
+
+  private static final String CSV_HEADER =
+    "id,name,date,tagline,description,minute,rating,genres,poster\n";
+
+  /**
+   * @return true for a case insensitive "csv", every other format is NDJSON
+   */
+  public static boolean isCsv(String format) {
+    return format != null && format.equalsIgnoreCase("csv") == true;
+  }
+
+  public static MovieExportWriter of(String format,
+                                     ObjectMapper object_mapper,
+                                     OutputStream output) throws IOException {
+    if (isCsv(format) == true) {
+      return new Csv(output);
+    }
+
+    return new Ndjson(object_mapper, output);
+  }
+
+  protected abstract void write(MovieSummaryDTO movie) throws IOException;
+
+  @Override
+  public void accept(MovieSummaryDTO movie) {
+    try {
+      write(movie);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static class Ndjson extends MovieExportWriter {
+
+    private final ObjectWriter object_writer;
+
+    private final JsonGenerator generator;
+
+    /**
+     * Rows are not flushed one by one, the response goes out whenever the
+     * buffer of the servlet container is full.
+     */
+    private Ndjson(ObjectMapper object_mapper, OutputStream output)
+      throws IOException {
+      object_writer = object_mapper.writer()
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      generator = object_mapper.getFactory().createGenerator(output);
+      generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    protected void write(MovieSummaryDTO movie) throws IOException {
+      object_writer.writeValue(generator, movie);
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+
+  }
+
+  private static class Csv extends MovieExportWriter {
+
+    private final Writer writer;
+
+    private Csv(OutputStream output) throws IOException {
+      writer = new BufferedWriter(new OutputStreamWriter(output,
+        StandardCharsets.UTF_8));
+      writer.write(CSV_HEADER);
+    }
+
+    /**
+     * Field quoted only when it contains a separator, a quote or a line
+     * break, quotes doubled as in RFC 4180. Null fields are left empty.
+     */
+    private void field(Object value, boolean last) throws IOException {
+      if (value != null) {
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 ||
+          text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+          text = "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        writer.write(text);
+      }
+      writer.write(last == true ? '\n' : ',');
+    }
+
+    @Override
+    protected void write(MovieSummaryDTO movie) throws IOException {
+      field(movie.getId(), false);
+      field(movie.getName(), false);
+      field(movie.getDate(), false);
+      field(movie.getTagline(), false);
+      field(movie.getDescription(), false);
+      field(movie.getMinute(), false);
+      field(movie.getRating(), false);
+      field(movie.getGenres() == null ? null :
+        String.join("|", movie.getGenres()), false);
+      field(movie.getPoster(), true);
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.ripe_bananas.banana_bean.utility;
+
+import com.ripe_bananas.banana_bean.dto.GenreDTO;
+import com.ripe_bananas.banana_bean.dto.MovieFacetsDTO;
+import com.ripe_bananas.banana_bean.entity.MovieSearchRow;
+import com.ripe_bananas.banana_bean.specification_builders.BasicMoviesSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buckets of the facet counts of a movie search: one per genre, per decade
+ * from FIRST_DECADE to the one of last_year, per rating star and per half
+ * hour of duration up to three hours. Every bucket is a Specification, so
+ * all of them are counted together by
+ * MovieSearchRepoCustom.countInBuckets.
+ */
+public class MovieFacets {
+
+  public static final int FIRST_DECADE = 1870;
+
+  private static final int MAX_RATING = 5;
+
+  private static final int DURATION_STEP = 30;
+
+  private static final int MAX_DURATION = 180;
+
+  private enum Facet { GENRES, DECADES, RATINGS, DURATIONS }
+
+  private record Bucket(Facet facet, String label,
+                        Specification<MovieSearchRow> spec) {
+  }
+
+  private final List<Bucket> buckets = new ArrayList<>();
+
+  private MovieFacets() {
+  }
+
+  public static MovieFacets of(List<GenreDTO> genres, int last_year) {
+    MovieFacets facets = new MovieFacets();
+    for (GenreDTO genre : genres) {
+      facets.buckets.add(new Bucket(Facet.GENRES, genre.getGenre(),
+        BasicMoviesSpecifications.hasGenres(List.of(genre.getGenre_id()))));
+    }
+    for (int decade = FIRST_DECADE; decade <= last_year; decade += 10) {
+      facets.buckets.add(new Bucket(Facet.DECADES, decade + "s",
+        BasicMoviesSpecifications.fieldInRange("date", decade, decade + 10)));
+    }
+    for (int star = 0; star < MAX_RATING; star++) {
+      // the last bucket is left open to include the movies rated 5
+      Float to = star + 1 < MAX_RATING ? (float) star + 1 : null;
+      facets.buckets.add(new Bucket(Facet.RATINGS, star + "-" + (star + 1),
+        BasicMoviesSpecifications.fieldInRange("rating", (float) star, to)));
+    }
+    for (int minute = 0; minute < MAX_DURATION; minute += DURATION_STEP) {
+      facets.buckets.add(new Bucket(Facet.DURATIONS,
+        minute + "-" + (minute + DURATION_STEP),
+        BasicMoviesSpecifications.fieldInRange("minute", minute,
+          minute + DURATION_STEP)));
+    }
+    facets.buckets.add(new Bucket(Facet.DURATIONS, MAX_DURATION + "+",
+      BasicMoviesSpecifications.fieldInRange("minute", MAX_DURATION, null)));
+
+    return facets;
+  }
+
+  public List<Specification<MovieSearchRow>> specifications() {
+    return buckets.stream().map(Bucket::spec).toList();
+  }
+
+  /**
+   * @param counts the number of movies of every bucket, in the order of
+   *               specifications()
+   */
+  public MovieFacetsDTO toDTO(long[] counts) {
+    Map<Facet, Map<String, Long>> facets = new LinkedHashMap<>();
+    for (Facet facet : Facet.values()) {
+      facets.put(facet, new LinkedHashMap<>());
+    }
+    for (int i = 0; i < buckets.size(); i++) {
+      if (counts[i] > 0) {
+        facets.get(buckets.get(i).facet()).put(buckets.get(i).label(),
+          counts[i]);
+      }
+    }
+
+    return new MovieFacetsDTO(facets.get(Facet.GENRES),
+      facets.get(Facet.DECADES), facets.get(Facet.RATINGS),
+      facets.get(Facet.DURATIONS));
+  }
+
+}
@@ -0,0 +1,111 @@
+package com.ripe_bananas.banana_bean.utility;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Canonical form of a movie search, used as the key of the search results
+ * cache: two requests returning the same rows get equal keys.
+ * Blank strings and the values ignored by BasicMoviesSpecifications become
+ * null, the name is lower cased (the search is case insensitive), the
+ * genres are deduplicated and sorted, the genre_mode is only kept when it
+ * is "any" and a sort without a field or a direction is dropped like
+ * Utility.buildSortBy does. The controllers reject a page_sz above
+ * MAX_PAGE_SIZE, the page size is capped here as well so that no caller
+ * can fill the cache with huge pages.
+ */
+public record MovieSearchKey(String name,
+                             List<String> genres,
+                             String genre_mode,
+                             Float min_rating,
+                             Float max_rating,
+                             Integer min_year,
+                             Integer max_year,
+                             Integer min_duration,
+                             Integer max_duration,
+                             String sort_by,
+                             String sort_direction,
+                             int page_num,
+                             int page_size) {
+
+  public static final int MAX_PAGE_SIZE = 100;
+
+  private static String blankToNull(String value) {
+    if (value == null || value.isBlank() == true) {
+      return null;
+    }
+
+    return value;
+  }
+
+  public static MovieSearchKey of(String name,
+                                  List<String> genres,
+                                  String genre_mode,
+                                  Float min_rating,
+                                  Float max_rating,
+                                  Integer min_year,
+                                  Integer max_year,
+                                  Integer min_duration,
+                                  Integer max_duration,
+                                  String sort_by,
+                                  String sort_direction,
+                                  int page_num,
+                                  int page_size) {
+    name = blankToNull(name);
+    if (name != null) {
+      name = name.toLowerCase(Locale.ROOT);
+    }
+
+    List<String> genre_set = null;
+    if (genres != null) {
+      genre_set = genres.stream()
+        .map(MovieSearchKey::blankToNull)
+        .filter(g -> g != null)
+        .distinct()
+        .sorted()
+        .toList();
+      if (genre_set.isEmpty() == true) {
+        genre_set = null;
+      }
+    }
+
+    // with a single genre any and all return the same movies
+    if (genre_set == null || genre_set.size() < 2 || genre_mode == null ||
+      genre_mode.equalsIgnoreCase("any") == false) {
+      genre_mode = null;
+    } else {
+      genre_mode = "any";
+    }
+
+    sort_by = blankToNull(sort_by);
+    sort_direction = blankToNull(sort_direction);
+    if (sort_by == null || sort_direction == null) {
+      sort_by = null;
+      sort_direction = null;
+    } else if (sort_direction.equalsIgnoreCase("desc") == true) {
+      sort_direction = "desc";
+    } else {
+      sort_direction = "asc";
+    }
+
+    return new MovieSearchKey(name, genre_set, genre_mode,
+      min_rating != null && min_rating >= 0 ? min_rating : null,
+      max_rating != null && max_rating >= 0 ? max_rating : null,
+      min_year != null && min_year > 0 ? min_year : null,
+      max_year != null && max_year > 0 ? max_year : null,
+      min_duration != null && min_duration >= 0 ? min_duration : null,
+      max_duration != null && max_duration >= 0 ? max_duration : null,
+      sort_by, sort_direction, page_num, Math.min(page_size, MAX_PAGE_SIZE));
+  }
+
+  /**
+   * @return the key of the results depending only on the filters, like the
+   * facet counts: no sort and a page_size of 0, which no page can have
+   */
+  public MovieSearchKey filtersOnly() {
+    return new MovieSearchKey(name, genres, genre_mode, min_rating,
+      max_rating, min_year, max_year, min_duration, max_duration, null, null,
+      0, 0);
+  }
+
+}
@@ -1,5 +1,7 @@
 package com.ripe_bananas.banana_bean.utility;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 public class Utility {
@@ -20,4 +22,16 @@ public class Utility {
     return sort;
   }
 
+  public static Pageable buildPageRequest(String sort_by,
+                                          String sort_direction,
+                                          int page_num,
+                                          int page_size) {
+    Sort sort = buildSortBy(sort_by, sort_direction);
+    if (sort == null) {
+      return PageRequest.of(page_num, page_size);
+    }
+
+    return PageRequest.of(page_num, page_size, sort);
+  }
+
 }
@@ -0,0 +1,151 @@
+package com.ripe_bananas.banana_bean.config;
+
+import com.ripe_bananas.banana_bean.service.DatasetVersionService;
+import com.ripe_bananas.banana_bean.service.SnapshotReloadedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConditionalRequestInterceptorTests {
+
+  @RestController
+  static class Movies {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @GetMapping("/api/movies/get_movie_details/{id}")
+    ResponseEntity<Map<String, Integer>> details(@PathVariable int id) {
+      calls.incrementAndGet();
+      if (id == 0) {
+        return ResponseEntity.notFound().build();
+      }
+      if (id < 0) {
+        return ResponseEntity.internalServerError().body(Map.of("id", id));
+      }
+
+      return ResponseEntity.ok(Map.of("id", id));
+    }
+
+    @GetMapping("/api/movies/export_movies")
+    StreamingResponseBody export() {
+      return out -> out.write("id\n1\n".getBytes());
+    }
+
+  }
+
+  private final DatasetVersionService dataset_version =
+    new DatasetVersionService(new JdbcTemplate(
+      new DriverManagerDataSource("jdbc:h2:mem:etags")), event -> {
+    });
+
+  private final Movies movies = new Movies();
+
+  private final MockMvc mvc;
+
+  ConditionalRequestInterceptorTests() {
+    ConditionalRequestInterceptor interceptor =
+      new ConditionalRequestInterceptor(dataset_version);
+    interceptor.addCacheMapping(
+      CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic(),
+      "/api/movies/get_movie_details/**");
+    mvc = MockMvcBuilders.standaloneSetup(movies)
+      .addInterceptors(interceptor)
+      .setControllerAdvice(new ConditionalResponseAdvice(interceptor))
+      .build();
+  }
+
+  private String etag(String url) throws Exception {
+    return mvc.perform(get(url)).andExpect(status().isOk())
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+  }
+
+  @Test
+  void successfulResponsesCarryTheCachingHeaders() throws Exception {
+    mvc.perform(get("/api/movies/get_movie_details/1"))
+      .andExpect(status().isOk())
+      .andExpect(header().exists(HttpHeaders.ETAG))
+      .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+        "max-age=600, public"));
+
+    assertThat(etag("/api/movies/get_movie_details/1"))
+      .isNotEqualTo(etag("/api/movies/get_movie_details/2"));
+  }
+
+  @Test
+  void aMatchingIfNoneMatchIsAnsweredWithoutTheHandler() throws Exception {
+    String etag = etag("/api/movies/get_movie_details/1");
+
+    mvc.perform(get("/api/movies/get_movie_details/1")
+        .header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+      .andExpect(status().isNotModified())
+      .andExpect(header().string(HttpHeaders.ETAG, etag))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+        "max-age=600, public"));
+
+    assertThat(movies.calls).hasValue(1);
+  }
+
+  @Test
+  void aReloadedSnapshotChangesTheETag() throws Exception {
+    String etag = etag("/api/movies/get_movie_details/1");
+
+    dataset_version.snapshotReloaded(
+      new SnapshotReloadedEvent("movie_search"));
+
+    mvc.perform(get("/api/movies/get_movie_details/1")
+        .header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.ETAG,
+        etag("/api/movies/get_movie_details/1")));
+    assertThat(etag("/api/movies/get_movie_details/1")).isNotEqualTo(etag);
+  }
+
+  @Test
+  void errorsAndEmptyResponsesCarryNoCachingHeaders() throws Exception {
+    mvc.perform(get("/api/movies/get_movie_details/0"))
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+      .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+      .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+
+    mvc.perform(get("/api/movies/get_movie_details/-1"))
+      .andExpect(status().isInternalServerError())
+      .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+      .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+  }
+
+  @Test
+  void streamedExportsCarryNoCachingHeaders() throws Exception {
+    MvcResult started = mvc.perform(get("/api/movies/export_movies"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    mvc.perform(asyncDispatch(started))
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+      .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+  }
+
+}
@@ -0,0 +1,145 @@
+package com.ripe_bananas.banana_bean.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig({ExportConfig.class, ExportLimiterTests.Mvc.class})
+@TestPropertySource(properties = {"banana_bean.export.max-concurrent=1",
+  "banana_bean.export.timeout=10m"})
+class ExportLimiterTests {
+
+  private static CountDownLatch written = new CountDownLatch(0);
+
+  @Configuration
+  @EnableWebMvc
+  static class Mvc implements WebMvcConfigurer {
+
+    // converts the Duration of banana_bean.export.timeout, as Spring Boot
+    @Bean
+    static ConversionService conversionService() {
+      return ApplicationConversionService.getSharedInstance();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+      configurer.setDefaultTimeout(30000);
+    }
+
+    @Bean
+    Movies movies(ExportLimiter export_limiter) {
+      return new Movies(export_limiter);
+    }
+
+  }
+
+  @RestController
+  static class Movies {
+
+    private final ExportLimiter export_limiter;
+
+    Movies(ExportLimiter export_limiter) {
+      this.export_limiter = export_limiter;
+    }
+
+    @GetMapping("/api/movies/export_movies")
+    ResponseEntity<StreamingResponseBody> export() {
+      CountDownLatch latch = written;
+      StreamingResponseBody limited = export_limiter.limit(output -> {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        output.write("id\n1\n".getBytes());
+      });
+      if (limited == null) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, "10")
+          .build();
+      }
+
+      return ResponseEntity.ok(limited);
+    }
+
+    @GetMapping("/api/movies/other")
+    StreamingResponseBody other() {
+      return output -> output.write("other".getBytes());
+    }
+
+  }
+
+  private final MockMvc mvc;
+
+  ExportLimiterTests(@Autowired WebApplicationContext context) {
+    mvc = MockMvcBuilders.webAppContextSetup(context).build();
+  }
+
+  private static long asyncTimeout(MvcResult result) {
+    return result.getRequest().getAsyncContext().getTimeout();
+  }
+
+  @Test
+  void onlyTheExportsGetTheLongerTimeout() throws Exception {
+    MvcResult export = mvc.perform(get("/api/movies/export_movies"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    MvcResult other = mvc.perform(get("/api/movies/other"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    assertThat(asyncTimeout(export))
+      .isEqualTo(Duration.ofMinutes(10).toMillis());
+    assertThat(asyncTimeout(other)).isEqualTo(30000);
+  }
+
+  @Test
+  void exportsOverTheLimitAreTurnedAwayUntilThePermitIsBack()
+    throws Exception {
+    written = new CountDownLatch(1);
+    MvcResult running = mvc.perform(get("/api/movies/export_movies"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    mvc.perform(get("/api/movies/export_movies"))
+      .andExpect(status().isServiceUnavailable())
+      .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+    written.countDown();
+    mvc.perform(asyncDispatch(running))
+      .andExpect(status().isOk())
+      .andExpect(content().string("id\n1\n"));
+    mvc.perform(get("/api/movies/export_movies"))
+      .andExpect(request().asyncStarted());
+  }
+
+}
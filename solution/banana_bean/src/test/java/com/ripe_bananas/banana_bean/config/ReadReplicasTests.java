@@ -0,0 +1,180 @@
+package com.ripe_bananas.banana_bean.config;
+
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The application DataSource and JpaTransactionManager, with the H2
+ * database of the h2 profile as the primary and a second in-memory one as
+ * the replica, each one knows its own name. The replication functions and
+ * pg_stat_wal_receiver used by the health check are stood in by Standby.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(ReadReplicaConfig.class)
+@TestPropertySource(properties = {
+  "banana_bean.replicas.urls=" + ReadReplicasTests.REPLICA_URL,
+  "banana_bean.replicas.check-interval=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicasTests {
+
+  static final String REPLICA_URL = "h2:mem:replica-1;DB_CLOSE_DELAY=-1";
+
+  /**
+   * WAL positions of the primary and of the standby, of the same length so
+   * that they compare as strings.
+   */
+  public static class Standby {
+
+    static volatile String primary_lsn;
+
+    static volatile String replay_lsn;
+
+    static volatile long lag_ms;
+
+    public static boolean inRecovery() {
+      return true;
+    }
+
+    public static String currentWalLsn() {
+      return primary_lsn;
+    }
+
+    public static String replayLsn() {
+      return replay_lsn;
+    }
+
+    public static Timestamp replayTimestamp() {
+      return new Timestamp(System.currentTimeMillis() - lag_ms);
+    }
+
+  }
+
+  @Autowired
+  private ReadReplicas read_replicas;
+
+  @Autowired
+  private PlatformTransactionManager transaction_manager;
+
+  @Autowired
+  private EntityManager entity_manager;
+
+  private final JdbcTemplate replica = new JdbcTemplate(
+    new DriverManagerDataSource("jdbc:" + REPLICA_URL, "sa", ""));
+
+  private TransactionTemplate read_only;
+
+  private TransactionTemplate read_write;
+
+  private static void createNode(JdbcTemplate jdbc_template, String name) {
+    jdbc_template.execute("DROP TABLE IF EXISTS node");
+    jdbc_template.execute("CREATE TABLE node AS SELECT '" + name +
+      "' AS name");
+  }
+
+  private static void createAlias(JdbcTemplate jdbc_template, String name,
+                                  String method) {
+    jdbc_template.execute("CREATE ALIAS IF NOT EXISTS " + name + " FOR '" +
+      Standby.class.getName() + "." + method + "'");
+  }
+
+  @BeforeEach
+  void createNodes() {
+    JdbcTemplate primary = new JdbcTemplate(read_replicas.primary());
+    createNode(primary, "primary");
+    createAlias(primary, "pg_current_wal_lsn", "currentWalLsn");
+    createNode(replica, "replica-1");
+    replica.execute("CREATE DOMAIN IF NOT EXISTS pg_lsn AS VARCHAR(20)");
+    createAlias(replica, "pg_is_in_recovery", "inRecovery");
+    createAlias(replica, "pg_last_wal_replay_lsn", "replayLsn");
+    createAlias(replica, "pg_last_wal_receive_lsn", "replayLsn");
+    createAlias(replica, "pg_last_xact_replay_timestamp", "replayTimestamp");
+    replica.execute("DROP TABLE IF EXISTS pg_stat_wal_receiver");
+    replica.execute("CREATE TABLE pg_stat_wal_receiver AS " +
+      "SELECT 'streaming' AS status");
+
+    Standby.primary_lsn = "0/20";
+    Standby.replay_lsn = "0/20";
+    Standby.lag_ms = 0;
+    read_replicas.checkReplicas();
+
+    read_only = new TransactionTemplate(transaction_manager);
+    read_only.setReadOnly(true);
+    read_write = new TransactionTemplate(transaction_manager);
+  }
+
+  private String node(TransactionTemplate transaction) {
+    return transaction.execute(status -> (String) entity_manager
+      .createNativeQuery("SELECT name FROM node").getSingleResult());
+  }
+
+  @Test
+  void readOnlyTransactionsGoToTheReplica() {
+    assertThat(transaction_manager).isInstanceOf(JpaTransactionManager.class);
+    assertThat(node(read_only)).isEqualTo("replica-1");
+    assertThat(node(read_write)).isEqualTo("primary");
+  }
+
+  @Test
+  void aStandbyBehindThePrimaryIsSkipped() {
+    Standby.primary_lsn = "0/30";
+    Standby.lag_ms = 60000;
+    read_replicas.checkReplicas();
+
+    assertThat(node(read_only)).isEqualTo("primary");
+
+    Standby.replay_lsn = "0/30";
+    read_replicas.checkReplicas();
+
+    assertThat(node(read_only)).isEqualTo("replica-1");
+  }
+
+  @Test
+  void aStandbyThatIsNotStreamingIsSkipped() {
+    // it received nothing more, so its receive and replay positions agree
+    replica.update("UPDATE pg_stat_wal_receiver SET status = 'waiting'");
+    read_replicas.checkReplicas();
+
+    assertThat(node(read_only)).isEqualTo("primary");
+  }
+
+  @Test
+  void aStandbyThatFailsItsCheckIsSkipped() {
+    replica.execute("DROP TABLE pg_stat_wal_receiver");
+    read_replicas.checkReplicas();
+
+    assertThat(node(read_only)).isEqualTo("primary");
+  }
+
+  @Test
+  void everyPoolPublishesItsMetrics() {
+    node(read_only);
+    node(read_write);
+
+    assertThat(Metrics.globalRegistry.find("hikaricp.connections.max")
+      .tag("pool", "primary").gauge()).isNotNull();
+    assertThat(Metrics.globalRegistry.find("hikaricp.connections.max")
+      .tag("pool", "replica-1").gauge()).isNotNull();
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.ripe_bananas.banana_bean.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLimitFilterTests {
+
+  private final RequestLimitFilter filter =
+    new RequestLimitFilter(1, Duration.ofMillis(10));
+
+  @Test
+  void requestsAboveTheLimitAreTurnedAway() throws Exception {
+    MockHttpServletResponse first = new MockHttpServletResponse();
+    MockHttpServletResponse second = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), first,
+      (request, response) -> filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/actors"), second,
+        (inner_request, inner_response) -> {
+        }));
+
+    assertThat(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(second.getStatus())
+      .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    assertThat(second.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+  }
+
+  @Test
+  void permitsAreGivenBackWhenTheRequestEnds() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"),
+        response, (inner_request, inner_response) -> {
+        });
+
+      assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+  }
+
+}
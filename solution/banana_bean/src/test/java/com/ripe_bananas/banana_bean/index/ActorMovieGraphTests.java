@@ -0,0 +1,150 @@
+package com.ripe_bananas.banana_bean.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActorMovieGraphTests {
+
+  // 1 and 2 play together twice, 2 -> 4 -> 5 through movies 20 and 30,
+  // 6 only plays alone
+  private final ActorMovieGraph graph = ActorMovieGraph.builder()
+    .add(10, 1).add(10, 2).add(10, 3).add(10, 1)
+    .add(20, 2).add(20, 4)
+    .add(30, 4).add(30, 5)
+    .add(40, 2).add(40, 1)
+    .add(50, 6)
+    .build();
+
+  @Test
+  void repeatedRolesAreCountedOnce() {
+    assertThat(graph.actorCount()).isEqualTo(6);
+    assertThat(graph.movieCount()).isEqualTo(5);
+    assertThat(graph.edgeCount()).isEqualTo(10);
+  }
+
+  @Test
+  void sharedMoviesAreIntersected() {
+    assertThat(graph.sharedMovies(2, 1)).containsExactly(10, 40);
+    assertThat(graph.sharedMovies(1, 5)).isEmpty();
+    assertThat(graph.sharedMovies(1, 99)).isEmpty();
+  }
+
+  @Test
+  void coStarsAreRankedBySharedMoviesThenId() {
+    assertThat(graph.topCoStars(2, 10)).containsExactly(
+      new ActorMovieGraph.CoStar(1, 2), new ActorMovieGraph.CoStar(3, 1),
+      new ActorMovieGraph.CoStar(4, 1));
+    assertThat(graph.topCoStars(2, 2)).extracting(
+      ActorMovieGraph.CoStar::actor_id).containsExactly(1, 3);
+    assertThat(graph.topCoStars(6, 10)).isEmpty();
+  }
+
+  @Test
+  void shortestPathLinksTheActorsThroughTheirMovies() {
+    ActorMovieGraph.Path path = graph.shortestPath(1, 5, 6);
+    assertThat(path.actor_ids()).containsExactly(1, 2, 4, 5);
+    assertThat(path.movie_ids()).hasSize(3).endsWith(20, 30);
+
+    ActorMovieGraph.Path reversed = graph.shortestPath(5, 3, 6);
+    assertThat(reversed.actor_ids()).containsExactly(5, 4, 2, 3);
+    assertThat(reversed.movie_ids()).containsExactly(30, 20, 10);
+  }
+
+  @Test
+  void shortestPathHandlesTrivialAndMissingPaths() {
+    assertThat(graph.shortestPath(3, 3, 6).actor_ids()).containsExactly(3);
+    assertThat(graph.shortestPath(1, 2, 1).movie_ids()).hasSize(1);
+    assertThat(graph.shortestPath(1, 5, 2)).isNull();
+    assertThat(graph.shortestPath(1, 6, 6)).isNull();
+    assertThat(graph.shortestPath(1, 99, 6)).isNull();
+  }
+
+  /**
+   * Length in movies of the shortest chain between two actors, by a plain
+   * breadth first search over the roles.
+   */
+  private static int distance(int[][] roles, int from, int to) {
+    Map<Integer, Integer> depths = new HashMap<>(Map.of(from, 0));
+    Deque<Integer> queue = new ArrayDeque<>(List.of(from));
+    while (queue.isEmpty() == false) {
+      int actor = queue.poll();
+      for (int[] role : roles) {
+        if (role[1] != actor) {
+          continue;
+        }
+        for (int[] co_role : roles) {
+          if (co_role[0] == role[0] &&
+            depths.containsKey(co_role[1]) == false) {
+            depths.put(co_role[1], depths.get(actor) + 1);
+            queue.add(co_role[1]);
+          }
+        }
+      }
+    }
+
+    return depths.getOrDefault(to, -1);
+  }
+
+  @Test
+  void searchesAfterAnotherOneSeeNoneOfItsVisits() {
+    Random random = new Random(42);
+    int[][] roles = new int[300][];
+    ActorMovieGraph.Builder builder = ActorMovieGraph.builder();
+    for (int i = 0; i < roles.length; i++) {
+      roles[i] = new int[]{random.nextInt(100), random.nextInt(150)};
+      builder.add(roles[i][0], roles[i][1]);
+    }
+    ActorMovieGraph random_graph = builder.build();
+
+    for (int i = 0; i < 500; i++) {
+      int from = roles[random.nextInt(roles.length)][1];
+      int to = roles[random.nextInt(roles.length)][1];
+      ActorMovieGraph.Path path = random_graph.shortestPath(from, to, 6);
+      int distance = distance(roles, from, to);
+
+      if (distance < 0 || distance > 6) {
+        assertThat(path).isNull();
+        continue;
+      }
+      assertThat(path.movie_ids()).hasSize(distance);
+      assertThat(path.actor_ids()).startsWith(from).endsWith(to);
+      for (int k = 0; k < distance; k++) {
+        assertThat(random_graph.sharedMovies(path.actor_ids()[k],
+          path.actor_ids()[k + 1])).contains(path.movie_ids()[k]);
+      }
+    }
+  }
+
+  @Test
+  void concurrentSearchesKeepABoundedPool() throws Exception {
+    int calls = ActorMovieGraph.MAX_CONCURRENT_SEARCHES * 4;
+    ExecutorService executor = Executors.newFixedThreadPool(calls);
+    try {
+      List<Future<ActorMovieGraph.Path>> paths = new ArrayList<>();
+      for (int i = 0; i < calls * 10; i++) {
+        paths.add(executor.submit(() -> graph.shortestPath(1, 5, 6)));
+      }
+      for (Future<ActorMovieGraph.Path> path : paths) {
+        assertThat(path.get().movie_ids()).hasSize(3).endsWith(20, 30);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(graph.pooledSearches())
+      .isBetween(1, ActorMovieGraph.MAX_CONCURRENT_SEARCHES);
+  }
+
+}
@@ -0,0 +1,131 @@
+package com.ripe_bananas.banana_bean.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieColumnsTests {
+
+  // added out of order, 5 has no value at all
+  private final MovieColumns columns = MovieColumns.builder()
+    .add(3, 2023, 4.25f, 181, new int[]{2})
+    .add(1, 2023, 3.86f, 114, new int[]{1, 2, 3})
+    .add(2, 2019, 4.56f, 133, new int[]{4})
+    .add(5, null, null, null, null)
+    .add(4, 2023, 4.25f, 106, new int[]{1})
+    .build();
+
+  private static MovieColumns.Result all(MovieColumns columns, String sort_by,
+                                         boolean descending) {
+    return columns.search(null, false, null, null, null, null, null, null,
+      sort_by, descending, 0, 25);
+  }
+
+  @Test
+  void rangesNeverMatchNull() {
+    assertThat(columns.search(null, false, null, 4.3f, null, null, null,
+      null, null, false, 0, 25).ids()).containsExactly(1, 3, 4);
+    assertThat(columns.search(null, false, null, null, null, 2020, null,
+      null, null, false, 0, 25).ids()).containsExactly(2);
+    assertThat(columns.search(null, false, null, null, null, null, 110, 140,
+      null, false, 0, 25).ids()).containsExactly(1, 2);
+    assertThat(all(columns, null, false).total()).isEqualTo(5);
+  }
+
+  @Test
+  void genresMatchAllOrAnyOfTheList() {
+    assertThat(columns.search(List.of(1, 2), false, null, null, null, null,
+      null, null, null, false, 0, 25).ids()).containsExactly(1);
+    assertThat(columns.search(List.of(4, 3), true, null, null, null, null,
+      null, null, null, false, 0, 25).ids()).containsExactly(1, 2);
+    assertThat(columns.search(List.of(1, -1), false, null, null, null, null,
+      null, null, null, false, 0, 25).total()).isZero();
+    assertThat(columns.search(List.of(1, -1), true, null, null, null, null,
+      null, null, null, false, 0, 25).ids()).containsExactly(1, 4);
+  }
+
+  @Test
+  void sortsNullsLikePostgresAndTiesById() {
+    assertThat(all(columns, "rating", false).ids())
+      .containsExactly(1, 3, 4, 2, 5);
+    assertThat(all(columns, "rating", true).ids())
+      .containsExactly(5, 2, 4, 3, 1);
+    assertThat(all(columns, "date", false).ids())
+      .containsExactly(2, 1, 3, 4, 5);
+    assertThat(all(columns, "id", true).ids())
+      .containsExactly(5, 4, 3, 2, 1);
+    assertThat(MovieColumns.supportsSort("name")).isFalse();
+  }
+
+  @Test
+  void pagesAreTakenAfterTheOffset() {
+    MovieColumns.Result page = columns.search(null, false, null, null, null,
+      null, null, null, "minute", false, 3, 2);
+
+    assertThat(page.ids()).containsExactly(3, 5);
+    assertThat(page.total()).isEqualTo(5);
+    assertThat(columns.search(null, false, null, null, null, null, null,
+      null, null, false, 5, 2).ids()).isEmpty();
+  }
+
+  private record Row(int id, Integer year, Float rating, Integer minute,
+                     int[] genres) {
+  }
+
+  @Test
+  void matchesANaiveScanOverManyWords() {
+    Random random = new Random(7);
+    List<Row> rows = new ArrayList<>();
+    MovieColumns.Builder builder = MovieColumns.builder();
+    for (int id = 1; id <= 1000; id++) {
+      Row row = new Row(id,
+        random.nextInt(8) == 0 ? null : 1950 + random.nextInt(70),
+        random.nextInt(5) == 0 ? null : random.nextInt(11) / 2f,
+        random.nextInt(8) == 0 ? null : random.nextInt(200),
+        random.ints(random.nextInt(3), 1, 6).toArray());
+      rows.add(row);
+      builder.add(row.id(), row.year(), row.rating(), row.minute(),
+        row.genres());
+    }
+    MovieColumns many = builder.build();
+
+    List<Integer> expected = rows.stream()
+      .filter(r -> IntStream.of(r.genres()).anyMatch(g -> g == 2))
+      .filter(r -> r.rating() != null && r.rating() >= 2f)
+      .filter(r -> r.year() != null && r.year() >= 1970 && r.year() <= 2000)
+      .filter(r -> r.minute() != null && r.minute() <= 150)
+      .sorted(Comparator.comparing(Row::rating)
+        .thenComparing(Row::id).reversed())
+      .map(Row::id)
+      .toList();
+
+    // a page of a few matches, then most of them
+    for (int limit : new int[]{5, 1000}) {
+      MovieColumns.Result res = many.search(List.of(2), false, 2f, null,
+        1970, 2000, null, 150, "rating", true, 10, limit);
+
+      assertThat(res.total()).isEqualTo(expected.size());
+      assertThat(res.ids()).containsExactly(expected.subList(10,
+        Math.min(10 + limit, expected.size())).stream().mapToInt(i -> i)
+        .toArray());
+    }
+
+    // a page of all the rows, NULL first when descending
+    List<Integer> by_minute = rows.stream()
+      .sorted(Comparator.comparing(Row::minute,
+          Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Row::id).reversed())
+      .map(Row::id)
+      .toList();
+    assertThat(many.search(null, false, null, null, null, null, null, null,
+      "minute", true, 100, 25).ids()).containsExactly(by_minute
+      .subList(100, 125).stream().mapToInt(i -> i).toArray());
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.ripe_bananas.banana_bean.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OscarStatsTests {
+
+  private static final List<OscarStats.Award> AWARDS = List.of(
+    new OscarStats.Award(1990, "ACTOR", "Smith", "Alpha", true),
+    new OscarStats.Award(1990, "ACTRESS", "Jones", "Alpha", false),
+    new OscarStats.Award(1991, "ACTOR", "Smith", "Beta", false),
+    new OscarStats.Award(1991, "ACTOR", "Brown", "Gamma", true),
+    new OscarStats.Award(1992, "ACTRESS", "Jones", "Delta", true),
+    new OscarStats.Award(1992, "ACTRESS", "Jones", "Epsilon", true),
+    new OscarStats.Award(null, "HONORARY", "", null, true)
+  );
+
+  @Test
+  void rollsUpEveryGroupAndSkipsMissingValues() {
+    OscarStats stats = OscarStats.of(AWARDS);
+
+    assertThat(stats.awardCount()).isEqualTo(7);
+    assertThat(stats.tally(OscarStats.Group.PERSON, "Smith"))
+      .isEqualTo(new OscarStats.Tally("Smith", 2, 1));
+    assertThat(stats.tally(OscarStats.Group.FILM, "Alpha"))
+      .isEqualTo(new OscarStats.Tally("Alpha", 2, 1));
+    assertThat(stats.tally(OscarStats.Group.CATEGORY, "HONORARY"))
+      .isEqualTo(new OscarStats.Tally("HONORARY", 1, 1));
+    assertThat(stats.tally(OscarStats.Group.YEAR, "1992"))
+      .isEqualTo(new OscarStats.Tally("1992", 2, 2));
+    assertThat(stats.size(OscarStats.Group.PERSON)).isEqualTo(3);
+    assertThat(stats.size(OscarStats.Group.FILM)).isEqualTo(5);
+    assertThat(stats.size(OscarStats.Group.YEAR)).isEqualTo(3);
+    assertThat(stats.tally(OscarStats.Group.PERSON, "Nobody")).isNull();
+  }
+
+  @Test
+  void ranksByEveryOrder() {
+    OscarStats stats = OscarStats.of(AWARDS);
+
+    assertThat(stats.top(OscarStats.Group.PERSON, OscarStats.Order.WINS, 1,
+      10)).extracting(OscarStats.Tally::key)
+      .containsExactly("Jones", "Smith", "Brown");
+    assertThat(stats.top(OscarStats.Group.PERSON,
+      OscarStats.Order.NOMINATIONS, 1, 2)).extracting(OscarStats.Tally::key)
+      .containsExactly("Jones", "Smith");
+    // Brown won 1 of 1, Jones 2 of 3 and Smith 1 of 2
+    assertThat(stats.top(OscarStats.Group.PERSON, OscarStats.Order.WIN_RATE,
+      1, 10)).extracting(OscarStats.Tally::key)
+      .containsExactly("Brown", "Jones", "Smith");
+    assertThat(stats.top(OscarStats.Group.PERSON, OscarStats.Order.WIN_RATE,
+      2, 10)).extracting(OscarStats.Tally::key)
+      .containsExactly("Jones", "Smith");
+    assertThat(stats.top(OscarStats.Group.YEAR, OscarStats.Order.KEY, 1,
+      10)).extracting(OscarStats.Tally::key)
+      .containsExactly("1990", "1991", "1992");
+  }
+
+  @Test
+  void sameTotalsComparesEveryGroup() {
+    List<OscarStats.Award> reversed = new ArrayList<>(AWARDS);
+    Collections.reverse(reversed);
+    List<OscarStats.Award> changed = new ArrayList<>(AWARDS);
+    changed.set(1, new OscarStats.Award(1990, "ACTRESS", "Jones", "Alpha",
+      true));
+
+    assertThat(OscarStats.of(reversed).sameTotals(OscarStats.of(AWARDS)))
+      .isTrue();
+    assertThat(OscarStats.of(changed).sameTotals(OscarStats.of(AWARDS)))
+      .isFalse();
+    assertThat(OscarStats.of(AWARDS.subList(0, 6))
+      .sameTotals(OscarStats.of(AWARDS))).isFalse();
+  }
+
+}
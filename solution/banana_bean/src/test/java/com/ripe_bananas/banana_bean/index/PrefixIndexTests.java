@@ -0,0 +1,55 @@
+package com.ripe_bananas.banana_bean.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTests {
+
+  private final PrefixIndex index = PrefixIndex.build(List.of(
+    new PrefixIndex.Entry(1, "The Godfather"),
+    new PrefixIndex.Entry(2, "The Godfather Part II"),
+    new PrefixIndex.Entry(3, "God's Own Country"),
+    new PrefixIndex.Entry(4, "Amélie"),
+    new PrefixIndex.Entry(5, "Goodfellas"),
+    new PrefixIndex.Entry(6, "Alien")
+  ));
+
+  @Test
+  void normalizesCaseAccentsAndPunctuation() {
+    assertThat(PrefixIndex.normalize("  Amélie!!  Poulain ")).isEqualTo(
+      "amelie poulain");
+    assertThat(PrefixIndex.normalize("God's")).isEqualTo("god s");
+  }
+
+  @Test
+  void wholeNameMatchesComeBeforeWordMatches() {
+    assertThat(index.suggest("GOD", 10)).extracting(PrefixIndex.Entry::id)
+      .containsExactly(3, 1, 2);
+  }
+
+  @Test
+  void matchesEveryWordOfTheName() {
+    assertThat(index.suggest("part", 10)).extracting(PrefixIndex.Entry::id)
+      .containsExactly(2);
+    assertThat(index.suggest("ame", 10)).extracting(PrefixIndex.Entry::label)
+      .containsExactly("Amélie");
+  }
+
+  @Test
+  void limitsAndMissesAreHandled() {
+    assertThat(index.suggest("the godfather", 1)).hasSize(1);
+    assertThat(index.suggest("x", 10)).isEmpty();
+    assertThat(index.suggest("godfathers", 10)).isEmpty();
+    assertThat(index.suggest("", 10)).isEmpty();
+  }
+
+  @Test
+  void keepsTheHighestIdForIncrementalRefresh() {
+    assertThat(index.maxId()).isEqualTo(6);
+    assertThat(index.size()).isEqualTo(6);
+  }
+
+}
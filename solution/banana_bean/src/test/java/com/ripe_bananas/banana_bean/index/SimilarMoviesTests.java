@@ -0,0 +1,85 @@
+package com.ripe_bananas.banana_bean.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SimilarMoviesTests {
+
+  private static final long DRAMA = 1;
+
+  private static final long COMEDY = 2;
+
+  private static final long ACTOR_1 = 11;
+
+  private static final long ACTOR_2 = 12;
+
+  private static final long ACTOR_3 = 13;
+
+  private static final long THEME = 21;
+
+  // 101 and 102 are described the same way, 104 is only a drama and 105
+  // shares nothing with the others
+  private static SimilarMovies.Builder movies() {
+    return SimilarMovies.builder()
+      .add(101, DRAMA).add(101, ACTOR_1).add(101, ACTOR_2).add(101, THEME)
+      .add(102, DRAMA).add(102, ACTOR_1).add(102, ACTOR_2).add(102, THEME)
+      .add(102, THEME)
+      .add(103, DRAMA).add(103, ACTOR_1)
+      .add(104, DRAMA)
+      .add(105, COMEDY).add(105, ACTOR_3);
+  }
+
+  @Test
+  void identicalMoviesComeFirstWithFullScore() {
+    SimilarMovies similar = movies().build(10, 3, 1);
+
+    assertThat(similar.movieCount()).isEqualTo(5);
+    assertThat(similar.similar(101, 10)).extracting(
+      SimilarMovies.Similar::movie_id).containsExactly(102, 103);
+    assertThat(similar.similar(101, 10).get(0).score()).isCloseTo(1f,
+      within(1e-5f));
+    assertThat(similar.similar(105, 10)).isEmpty();
+    assertThat(similar.similar(999, 10)).isEmpty();
+  }
+
+  @Test
+  void commonFeaturesAreScoredButDoNotSelectCandidates() {
+    SimilarMovies capped = movies().build(10, 3, 1);
+    SimilarMovies uncapped = movies().build(10, 100, 1);
+
+    // the drama alone does not make 104 a candidate of 101
+    assertThat(capped.similar(104, 10)).isEmpty();
+    assertThat(uncapped.similar(104, 10)).extracting(
+      SimilarMovies.Similar::movie_id).containsExactly(103, 101, 102);
+
+    // but it still counts in the score of the candidates found otherwise
+    double drama = Math.log(5.0 / 4);
+    double actor_1 = Math.log(5.0 / 3);
+    double actor_2 = Math.log(5.0 / 2);
+    double theme = Math.log(5.0 / 2);
+    double expected = (drama * drama + actor_1 * actor_1) /
+      Math.sqrt(drama * drama + actor_1 * actor_1 + actor_2 * actor_2 +
+        theme * theme) / Math.sqrt(drama * drama + actor_1 * actor_1);
+    assertThat(capped.similar(101, 10).get(1).score()).isCloseTo(
+      (float) expected, within(1e-5f));
+    assertThat(uncapped.similar(101, 2)).isEqualTo(capped.similar(101, 10));
+  }
+
+  @Test
+  void keepsTheBestNeighboursWhateverTheThreads() {
+    SimilarMovies one = movies().build(1, 100, 1);
+    SimilarMovies parallel = movies().build(1, 100, 4);
+
+    // sharing the drama alone is closer to 103 than sharing it with 101
+    assertThat(one.similar(103, 10)).extracting(
+      SimilarMovies.Similar::movie_id).containsExactly(104);
+    for (int movie_id = 101; movie_id <= 105; movie_id++) {
+      assertThat(parallel.similar(movie_id, 10)).isEqualTo(
+        one.similar(movie_id, 10));
+    }
+    assertThat(movies().build(10, 100, 2).similar(101, 1)).hasSize(1);
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryListenerTests {
+
+  private final SlowQueryLog slow_query_log = new SlowQueryLog(
+    new JdbcTemplate(), Runnable::run, Duration.ofMillis(200), 0, 10);
+
+  private final SlowQueryListener listener;
+
+  SlowQueryListenerTests() {
+    StaticListableBeanFactory beans = new StaticListableBeanFactory();
+    beans.addBean("slowQueryLog", slow_query_log);
+    listener = new SlowQueryListener(
+      beans.getBeanProvider(SlowQueryLog.class));
+  }
+
+  private static ExecutionInfo execution(long elapsed_ms, boolean batch) {
+    ExecutionInfo execution = new ExecutionInfo();
+    execution.setElapsedTime(elapsed_ms);
+    execution.setBatch(batch);
+
+    return execution;
+  }
+
+  private static QueryInfo query(String sql) throws NoSuchMethodException {
+    List<ParameterSetOperation> parameters = new ArrayList<>();
+    // set out of order, as Hibernate may do
+    parameters.add(new ParameterSetOperation(PreparedStatement.class
+      .getMethod("setNull", int.class, int.class), new Object[]{2,
+      Types.INTEGER}));
+    parameters.add(new ParameterSetOperation(PreparedStatement.class
+      .getMethod("setString", int.class, String.class), new Object[]{1,
+      "%barbie%"}));
+    QueryInfo query = new QueryInfo(sql);
+    query.getParametersList().add(parameters);
+
+    return query;
+  }
+
+  @Test
+  void recordsSlowStatementsWithTheirParametersInOrder() throws Exception {
+    listener.afterQuery(execution(350, false),
+      List.of(query("SELECT id FROM movies WHERE name LIKE ? AND date > ?")));
+
+    SlowQuery slow_query = slow_query_log.slowest().get(0);
+    assertThat(slow_query.getElapsed_ms()).isEqualTo(350);
+    assertThat(slow_query.getParameters()).containsExactly("%barbie%", null);
+    assertThat(slow_query.getParameter_types())
+      .containsExactly("String", "null");
+  }
+
+  @Test
+  void skipsFastStatementsAndBatches() throws Exception {
+    listener.afterQuery(execution(199, false), List.of(query("SELECT 1")));
+    listener.afterQuery(execution(5000, true), List.of(query("INSERT 1")));
+
+    assertThat(slow_query_log.slowest()).isEmpty();
+  }
+
+}
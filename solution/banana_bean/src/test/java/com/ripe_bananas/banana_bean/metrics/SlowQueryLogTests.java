@@ -0,0 +1,61 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTests {
+
+  private static SlowQueryLog slowQueryLog(int capacity) {
+    return new SlowQueryLog(new JdbcTemplate(), Runnable::run,
+      Duration.ofMillis(200), 0, capacity);
+  }
+
+  @Test
+  void keepsTheSlowestStatementsSlowestFirst() {
+    SlowQueryLog slow_query_log = slowQueryLog(2);
+    slow_query_log.record(300, "SELECT 1", List.of());
+    slow_query_log.record(900, "SELECT 2", List.of());
+    slow_query_log.record(250, "SELECT 3", List.of());
+    slow_query_log.record(500, "SELECT 4", List.of());
+    slow_query_log.record(5000, "  explain SELECT 5", List.of());
+
+    assertThat(slow_query_log.slowest()).extracting(SlowQuery::getSql)
+      .containsExactly("SELECT 2", "SELECT 4");
+  }
+
+  @Test
+  void parameterValuesAreNotSerialized() throws Exception {
+    SlowQueryLog slow_query_log = slowQueryLog(10);
+    SearchMetrics.time("movies_page", SearchMetrics.filters()
+        .add("name", "secret title").add("min_year", 2000), null,
+      () -> {
+        slow_query_log.record(400,
+          "SELECT id FROM movie_search WHERE lower(name) LIKE ? AND date >= ?",
+          Arrays.asList("%secret title%", null));
+        return null;
+      });
+
+    SlowQuery slow_query = slow_query_log.slowest().get(0);
+    assertThat(slow_query.getSearch()).isEqualTo("movies_page");
+    assertThat(slow_query.getFilters()).isEqualTo("name+min_year");
+    assertThat(slow_query.getParameter_types())
+      .containsExactly("String", "null");
+
+    String json = new ObjectMapper()
+      .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+      .registerModule(new JavaTimeModule())
+      .writeValueAsString(slow_query_log.slowest());
+    assertThat(json).contains("\"parameter_types\":[\"String\",\"null\"]")
+      .doesNotContain("secret");
+  }
+
+}
@@ -0,0 +1,99 @@
+package com.ripe_bananas.banana_bean.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountInterceptorTests {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private final StatementCountInterceptor interceptor =
+    new StatementCountInterceptor();
+
+  private final SqlStatementListener listener = new SqlStatementListener();
+
+  private final MockHttpServletResponse response =
+    new MockHttpServletResponse();
+
+  private MockHttpServletRequest request;
+
+  @BeforeEach
+  void setUp() {
+    Metrics.addRegistry(registry);
+    request = new MockHttpServletRequest("GET", "/api/movies/export_movies");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+      "/api/movies/export_movies");
+  }
+
+  @AfterEach
+  void tearDown() {
+    Metrics.removeRegistry(registry);
+    SqlStatementListener.stopCounting();
+  }
+
+  private void execute(int statements) {
+    for (int i = 0; i < statements; i++) {
+      listener.afterQuery(new ExecutionInfo(), List.of());
+    }
+  }
+
+  private DistributionSummary recorded() {
+    return registry.get("banana_bean.sql.statements.per_request")
+      .tag("uri", "/api/movies/export_movies")
+      .summary();
+  }
+
+  @Test
+  void countsTheStatementsOfASynchronousRequest() {
+    interceptor.preHandle(request, response, null);
+    execute(3);
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(recorded().count()).isEqualTo(1);
+    assertThat(recorded().totalAmount()).isEqualTo(3);
+    assertThat(SqlStatementListener.stopCounting()).isZero();
+  }
+
+  @Test
+  void countsTheStatementsOfTheAsyncTaskOnce() throws Exception {
+    interceptor.preHandle(request, response, null);
+    execute(1);
+    interceptor.afterConcurrentHandlingStarted(request, response, null);
+
+    // the container thread goes back to the pool without a count
+    execute(10);
+    assertThat(SqlStatementListener.stopCounting()).isZero();
+
+    ServletWebRequest web_request = new ServletWebRequest(request);
+    Callable<Void> task = () -> null;
+    CompletableFuture.runAsync(() -> {
+      interceptor.preProcess(web_request, task);
+      execute(4);
+      interceptor.postProcess(web_request, task, null);
+    }).get();
+    assertThat(registry.find("banana_bean.sql.statements.per_request")
+      .summaries()).allSatisfy(s -> assertThat(s.count()).isZero());
+
+    interceptor.preHandle(request, response, null);
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(recorded().count()).isEqualTo(1);
+    assertThat(recorded().totalAmount()).isEqualTo(5);
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.ActorDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(ActorsService.class)
+@Sql("/movie_details.sql")
+@SqlMergeMode(SqlMergeMode.MergeMode.MERGE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class ActorsServiceTests {
+
+  @Autowired
+  private ActorsService actors_service;
+
+  @Test
+  void emptyNameListsEveryActor() {
+    Page<ActorDTO> page = actors_service.searchActorByName("", "id", "asc",
+      0, 3);
+
+    assertThat(page.getTotalElements()).isEqualTo(4);
+    assertThat(page.getContent()).extracting(ActorDTO::getId)
+      .containsExactly(1, 2, 3);
+
+    SliceDTO<ActorDTO> slice = actors_service.searchActorSliceByName("",
+      "id", "asc", 1, 3);
+
+    assertThat(slice.getContent()).extracting(ActorDTO::getId)
+      .containsExactly(4);
+    assertThat(slice.getPage().getHas_next()).isFalse();
+  }
+
+  @Test
+  void missingNameFindsNoActor() {
+    assertThat(actors_service.searchActorByName(null, null, null, 0, 25))
+      .isNull();
+    assertThat(actors_service.searchActorSliceByName(null, null, null, 0, 25))
+      .isNull();
+  }
+
+}
@@ -0,0 +1,85 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.SuggestionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(AutocompleteService.class)
+@TestPropertySource(properties =
+  "banana_bean.autocomplete.initial-delay=3600000")
+@Sql("/movie_details.sql")
+@SqlMergeMode(SqlMergeMode.MergeMode.MERGE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class AutocompleteServiceTests {
+
+  @Autowired
+  private AutocompleteService autocomplete_service;
+
+  @Autowired
+  private JdbcTemplate jdbc_template;
+
+  @Test
+  void refreshPicksUpAddedRenamedAndDeletedNames() {
+    autocomplete_service.refreshIndexes();
+    assertThat(autocomplete_service.suggest("ryan", "actor", 10))
+      .extracting(SuggestionDTO::getName)
+      .containsExactly("Ryan Gosling");
+
+    jdbc_template.update("INSERT INTO actors (id, name) VALUES (5, ?)",
+      "Ryan Reynolds");
+    jdbc_template.update("UPDATE actors SET name = ? WHERE id = 2",
+      "Simu Liu");
+    jdbc_template.update("DELETE FROM movies_have_actors WHERE actor_id = 4");
+    jdbc_template.update("DELETE FROM actors WHERE id = 4");
+    autocomplete_service.refreshIndexes();
+
+    assertThat(autocomplete_service.suggest("ryan", "actor", 10))
+      .extracting(SuggestionDTO::getName)
+      .containsExactly("Ryan Reynolds");
+    assertThat(autocomplete_service.suggest("simu", "actor", 10))
+      .extracting(SuggestionDTO::getId)
+      .containsExactly(2);
+    assertThat(autocomplete_service.suggest("kate", "actor", 10)).isEmpty();
+  }
+
+  @Test
+  @Sql(statements = "DROP TABLE IF EXISTS data_version",
+    executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+  void indexesAreOnlyRebuiltWhenTheDataVersionChanges() {
+    jdbc_template.execute("CREATE TABLE data_version " +
+      "(id boolean PRIMARY KEY, version bigint NOT NULL)");
+    jdbc_template.update("INSERT INTO data_version VALUES (true, 1)");
+    autocomplete_service.refreshIndexes();
+
+    jdbc_template.update("INSERT INTO actors (id, name) VALUES (5, ?)",
+      "Ryan Reynolds");
+    autocomplete_service.refreshIndexes();
+    assertThat(autocomplete_service.suggest("ryan", "actor", 10))
+      .extracting(SuggestionDTO::getName)
+      .containsExactly("Ryan Gosling");
+
+    jdbc_template.update("UPDATE data_version SET version = 2");
+    autocomplete_service.refreshIndexes();
+    assertThat(autocomplete_service.suggest("ryan", "actor", 10))
+      .extracting(SuggestionDTO::getName)
+      .containsExactly("Ryan Gosling", "Ryan Reynolds");
+  }
+
+}
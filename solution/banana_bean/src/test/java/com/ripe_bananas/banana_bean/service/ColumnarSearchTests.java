@@ -0,0 +1,173 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.repository.MovieSearchRepo;
+import com.ripe_bananas.banana_bean.repository.MoviesRepo;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MoviesService with banana_bean.columnar.enabled against the same service
+ * without the columns, over the same movie_search rows. The database sorts
+ * NULL last like PostgreSQL, ties are in no given order in SQL so only the
+ * sorted values are compared.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({MoviesService.class, TableStatsService.class,
+  GenresService.class, ColumnarSearchService.class})
+@TestPropertySource(properties = {
+  "spring.datasource.url=jdbc:h2:mem:columnar;" +
+    "NON_KEYWORDS=DATE,MINUTE,YEAR,VALUE;DEFAULT_NULL_ORDERING=HIGH;" +
+    "DB_CLOSE_DELAY=-1",
+  "banana_bean.columnar.enabled=true",
+  "banana_bean.columnar.initial-delay=3600000"})
+@Sql({"/movie_details.sql", "/movie_search.sql"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class ColumnarSearchTests {
+
+  private record Search(List<String> genres, String genre_mode,
+                        Float min_rating, Float max_rating, Integer min_year,
+                        Integer max_year, Integer min_duration,
+                        Integer max_duration, String sort_by,
+                        String sort_direction, int page_num, int page_size) {
+
+    static Search sorted(String sort_by, String sort_direction) {
+      return new Search(null, null, null, null, null, null, null, null,
+        sort_by, sort_direction, 0, 25);
+    }
+
+  }
+
+  @Autowired
+  private MoviesService movies_service;
+
+  @Autowired
+  private ColumnarSearchService columnar_search;
+
+  @Autowired
+  private MoviesRepo movies_repo;
+
+  @Autowired
+  private MovieSearchRepo movie_search_repo;
+
+  @Autowired
+  private TableStatsService table_stats;
+
+  @Autowired
+  private GenresService genres_service;
+
+  @Autowired
+  private CacheManager cache_manager;
+
+  private MoviesService sql_service;
+
+  @BeforeEach
+  void loadColumns() {
+    columnar_search.refreshColumns();
+    sql_service = new MoviesService(movies_repo, movie_search_repo,
+      table_stats, genres_service, cache_manager, Optional.empty());
+  }
+
+  private static Page<MovieSummaryDTO> find(MoviesService service,
+                                            Search search) {
+    return service.findMoviesWithFilters(null, search.genres(),
+      search.genre_mode(), search.min_rating(), search.max_rating(),
+      search.min_year(), search.max_year(), search.min_duration(),
+      search.max_duration(), search.sort_by(), search.sort_direction(),
+      search.page_num(), search.page_size());
+  }
+
+  private static Object sortKey(MovieSummaryDTO movie, String sort_by) {
+    return switch (sort_by) {
+      case "date" -> movie.getDate();
+      case "rating" -> movie.getRating();
+      case "minute" -> movie.getMinute();
+      default -> movie.getId();
+    };
+  }
+
+  private void assertSameResults(Search search) {
+    assertThat(columnar_search.supports(MovieSearchKey.of(null,
+      search.genres(), search.genre_mode(), search.min_rating(),
+      search.max_rating(), search.min_year(), search.max_year(),
+      search.min_duration(), search.max_duration(), search.sort_by(),
+      search.sort_direction(), search.page_num(), search.page_size())))
+      .isTrue();
+
+    Page<MovieSummaryDTO> columnar = find(movies_service, search);
+    Page<MovieSummaryDTO> sql = find(sql_service, search);
+
+    assertThat(columnar.getTotalElements()).as("total of %s", search)
+      .isEqualTo(sql.getTotalElements());
+    if (search.sort_by() == null) {
+      assertThat(columnar.getContent()).as("page of %s", search)
+        .extracting(MovieSummaryDTO::getId)
+        .containsExactlyInAnyOrderElementsOf(sql.getContent().stream()
+          .map(MovieSummaryDTO::getId).toList());
+      return;
+    }
+    assertThat(columnar.getContent()).as("page of %s", search)
+      .map(movie -> sortKey(movie, search.sort_by()))
+      .containsExactlyElementsOf(sql.getContent().stream()
+        .map(movie -> sortKey(movie, search.sort_by())).toList());
+  }
+
+  @Test
+  void everySortGivesTheOrderOfTheDatabase() {
+    for (String sort_by : new String[]{"id", "date", "rating", "minute"}) {
+      assertSameResults(Search.sorted(sort_by, "asc"));
+      assertSameResults(Search.sorted(sort_by, "desc"));
+    }
+    assertSameResults(Search.sorted(null, null));
+  }
+
+  @Test
+  void filtersMatchTheSameMovies() {
+    assertSameResults(new Search(List.of("Adventure"), null, null, null,
+      null, null, null, null, "rating", "desc", 0, 25));
+    assertSameResults(new Search(List.of("Comedy", "Thriller"), "any", null,
+      null, null, null, null, null, "date", "asc", 0, 25));
+    assertSameResults(new Search(List.of("Comedy", "Unknown"), null, null,
+      null, null, null, null, null, "id", "asc", 0, 25));
+    assertSameResults(new Search(List.of("Comedy", "Unknown"), "any", null,
+      null, null, null, null, null, "id", "asc", 0, 25));
+    assertSameResults(new Search(null, null, 4.25f, 4.5f, null, null, null,
+      null, "rating", "asc", 0, 25));
+    assertSameResults(new Search(null, null, null, null, null, null, null,
+      120, "minute", "asc", 0, 25));
+    assertSameResults(new Search(null, null, null, null, 2019, 2023, 100, 170,
+      "minute", "desc", 0, 25));
+  }
+
+  @Test
+  void pagesAreTheSameSlicesOfTheOrder() {
+    for (int page_num = 0; page_num < 3; page_num++) {
+      assertSameResults(new Search(null, null, null, null, null, null, null,
+        null, "rating", "asc", page_num, 3));
+      assertSameResults(new Search(null, null, null, null, 2020, null, null,
+        null, "date", "desc", page_num, 2));
+    }
+  }
+
+}
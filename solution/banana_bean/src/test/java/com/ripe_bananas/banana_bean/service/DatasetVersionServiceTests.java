@@ -0,0 +1,83 @@
+package com.ripe_bananas.banana_bean.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two instances sharing one database, like two banana_bean behind a load
+ * balancer.
+ */
+class DatasetVersionServiceTests {
+
+  private final JdbcTemplate jdbc_template = new JdbcTemplate(
+    new DriverManagerDataSource("jdbc:h2:mem:dataset_version;" +
+      "DB_CLOSE_DELAY=-1"));
+
+  private final List<Object> events = new ArrayList<>();
+
+  private final DatasetVersionService first =
+    new DatasetVersionService(jdbc_template, events::add);
+
+  private final DatasetVersionService second =
+    new DatasetVersionService(jdbc_template, events::add);
+
+  @BeforeEach
+  void createDataVersion() {
+    jdbc_template.execute("CREATE TABLE data_version " +
+      "(id boolean PRIMARY KEY, version bigint NOT NULL)");
+    jdbc_template.update("INSERT INTO data_version VALUES (true, 1)");
+  }
+
+  @AfterEach
+  void dropDataVersion() {
+    jdbc_template.execute("DROP TABLE data_version");
+  }
+
+  private static void reload(DatasetVersionService service,
+                             String... snapshots) {
+    for (String snapshot : snapshots) {
+      service.snapshotReloaded(new SnapshotReloadedEvent(snapshot));
+    }
+  }
+
+  @Test
+  void instancesWithTheSameDataHaveTheSameVersion() {
+    first.check();
+    reload(first, "actor graph", "movie_search", "actor graph");
+    second.check();
+    reload(second, "movie_search", "actor graph");
+
+    assertThat(first.getVersion()).isEqualTo(second.getVersion());
+    assertThat(events).containsExactly(new DataVersionChangedEvent(1),
+      new DataVersionChangedEvent(1));
+  }
+
+  @Test
+  void aReloadAfterAWriteChangesTheVersion() {
+    first.check();
+    reload(first, "movie_search");
+    String version = first.getVersion();
+
+    reload(first, "movie_search");
+    assertThat(first.getVersion()).isEqualTo(version);
+
+    jdbc_template.update("UPDATE data_version SET version = 2");
+    reload(first, "movie_search");
+    assertThat(first.getVersion()).isNotEqualTo(version);
+
+    second.check();
+    reload(second, "movie_search");
+    assertThat(second.getVersion()).isNotEqualTo(first.getVersion());
+    first.check();
+    assertThat(second.getVersion()).isEqualTo(first.getVersion());
+  }
+
+}
@@ -0,0 +1,152 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.config.CacheConfig;
+import com.ripe_bananas.banana_bean.dto.GenreDTO;
+import com.ripe_bananas.banana_bean.dto.MovieFacetsDTO;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MoviesService with a real cache manager, @DataJpaTest replaces it with a
+ * no-op one in the other tests.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({MoviesService.class, TableStatsService.class,
+  GenresService.class, MovieSearchCacheTests.Caches.class})
+@Sql({"/movie_details.sql", "/movie_search.sql"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class MovieSearchCacheTests {
+
+  @TestConfiguration
+  static class Caches {
+
+    @Bean
+    CacheManager cacheManager() {
+      return new CaffeineCacheManager();
+    }
+
+  }
+
+  @Autowired
+  private MoviesService movies_service;
+
+  @Autowired
+  private CacheManager cache_manager;
+
+  @Autowired
+  private EntityManagerFactory emf;
+
+  @Autowired
+  private GenresService genres_service;
+
+  @Autowired
+  private JdbcTemplate jdbc_template;
+
+  @Autowired
+  private ApplicationEventPublisher event_publisher;
+
+  private Statistics stats;
+
+  @BeforeEach
+  void clearCaches() {
+    cache_manager.getCacheNames()
+      .forEach(name -> cache_manager.getCache(name).clear());
+    stats = emf.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private Page<MovieSummaryDTO> search(int page_size) {
+    return movies_service.findMoviesWithFilters(null, List.of("Fantasy"),
+      null, null, null, null, null, null, null, "id", "asc", 0, page_size);
+  }
+
+  @Test
+  void cachedResultsAreCopiedOnRead() {
+    MovieSummaryDTO first = search(25).getContent().get(0);
+    first.setName("Changed");
+    first.getGenres().clear();
+
+    stats.clear();
+    MovieSummaryDTO second = search(25).getContent().get(0);
+
+    assertThat(stats.getPrepareStatementCount()).isZero();
+    assertThat(second.getName()).isEqualTo("Barbie");
+    assertThat(second.getGenres())
+      .containsExactly("Adventure", "Comedy", "Fantasy");
+  }
+
+  @Test
+  void cachedFacetsAreCopiedOnRead() {
+    MovieFacetsDTO first = movies_service.findMoviesWithFacets(null,
+        List.of("Fantasy"), null, null, null, null, null, null, null, "id",
+        "asc", 0, 25)
+      .getFacets();
+    first.getGenres().clear();
+
+    stats.clear();
+    MovieFacetsDTO second = movies_service.findMoviesWithFacets(null,
+        List.of("Fantasy"), null, null, null, null, null, null, null, "id",
+        "asc", 0, 25)
+      .getFacets();
+
+    assertThat(stats.getPrepareStatementCount()).isZero();
+    assertThat(second.getGenres()).containsEntry("Fantasy", 1L);
+  }
+
+  @Test
+  void pageSizesAboveTheCapShareOneEntry() {
+    Page<MovieSummaryDTO> page = search(100000);
+
+    assertThat(page.getSize()).isEqualTo(MovieSearchKey.MAX_PAGE_SIZE);
+    assertThat(page.getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001);
+
+    stats.clear();
+    assertThat(search(MovieSearchKey.MAX_PAGE_SIZE + 1).getContent())
+      .hasSize(1);
+    assertThat(stats.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void genresAreSharedReadOnlyAndClearedOnADataVersionBump() {
+    List<GenreDTO> genres = genres_service.findGenresList();
+    assertThat(genres).hasSize(4);
+    assertThat(genres).isUnmodifiable();
+
+    jdbc_template.update("INSERT INTO genres (genre_id, genre) " +
+      "VALUES (5, 'Western')");
+    assertThat(genres_service.findGenresList()).hasSize(4);
+
+    event_publisher.publishEvent(new DataVersionChangedEvent(2));
+    assertThat(genres_service.findGenresList()).extracting(GenreDTO::getGenre)
+      .contains("Western");
+  }
+
+}
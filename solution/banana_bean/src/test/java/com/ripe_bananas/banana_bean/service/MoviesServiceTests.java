@@ -0,0 +1,311 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.CursorPageDTO;
+import com.ripe_bananas.banana_bean.dto.FacetedPageDTO;
+import com.ripe_bananas.banana_bean.dto.MovieFacetsDTO;
+import com.ripe_bananas.banana_bean.dto.MovieSummaryDTO;
+import com.ripe_bananas.banana_bean.dto.SliceDTO;
+import com.ripe_bananas.banana_bean.entity.Movie;
+import com.ripe_bananas.banana_bean.utility.MovieExportWriter;
+import com.ripe_bananas.banana_bean.utility.MovieSearchKey;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({MoviesService.class, TableStatsService.class,
+  GenresService.class})
+@Sql("/movie_details.sql")
+@SqlMergeMode(SqlMergeMode.MergeMode.MERGE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class MoviesServiceTests {
+
+  private static final int MAX_DETAIL_STATEMENTS = 8;
+
+  @Autowired
+  private MoviesService movies_service;
+
+  @Autowired
+  private EntityManagerFactory emf;
+
+  private Statistics stats;
+
+  @BeforeEach
+  void resetStatistics() {
+    stats = emf.unwrap(SessionFactory.class).getStatistics();
+    stats.clear();
+  }
+
+  @Test
+  void movieDetailsLoadInBoundedStatements() {
+    Movie movie = movies_service.findMovieDetailsById(1000001);
+
+    assertThat(movie).isNotNull();
+    assertThat(stats.getPrepareStatementCount())
+      .isLessThanOrEqualTo(MAX_DETAIL_STATEMENTS);
+
+    assertThat(movie.getGenres()).hasSize(3);
+    assertThat(movie.getPoster().getLink()).endsWith("barbie.jpg");
+    assertThat(movie.getActors()).hasSize(4);
+    assertThat(movie.getActors())
+      .allSatisfy(a -> assertThat(a.getActor().getName()).isNotNull());
+    assertThat(movie.getCrew()).hasSize(3);
+    assertThat(movie.getThemes()).hasSize(2);
+    assertThat(movie.getStudios()).hasSize(2);
+    assertThat(movie.getLanguages()).hasSize(2);
+    assertThat(movie.getCountries()).hasSize(2);
+    assertThat(movie.getReleases()).hasSize(3);
+    assertThat(movie.getReleases())
+      .allSatisfy(r -> assertThat(r.getCountry().getCountry_name()).isNotNull());
+
+    assertThat(stats.getPrepareStatementCount())
+      .isLessThanOrEqualTo(MAX_DETAIL_STATEMENTS);
+  }
+
+  @Test
+  void missingMovieReturnsNull() {
+    assertThat(movies_service.findMovieDetailsById(1000002)).isNull();
+    assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void movieDetailsBatchKeepsRequestOrder() {
+    List<Movie> movies = movies_service.findMovieDetailsByIds(List.of(1000003,
+      1000001, 42, 1000003, 1000002));
+
+    assertThat(movies).extracting(Movie::getId)
+      .containsExactly(1000003, 1000001, 1000002);
+    assertThat(movies.get(1).getActors()).hasSize(4);
+    assertThat(movies.get(1).getReleases()).hasSize(3);
+    assertThat(stats.getPrepareStatementCount())
+      .isLessThanOrEqualTo(MAX_DETAIL_STATEMENTS);
+    assertThat(movies_service.findMovieDetailsByIds(List.of())).isNull();
+  }
+
+  private List<Integer> walkCursor(String sort_by, String sort_direction) {
+    List<Integer> ids = new ArrayList<>();
+    String cursor = null;
+    do {
+      CursorPageDTO<MovieSummaryDTO> page = movies_service.findMoviesByCursor(null,
+        null, null, null, null, null, null, null, null, sort_by,
+        sort_direction, cursor, 2);
+      page.getContent().forEach(m -> ids.add(m.getId()));
+      cursor = page.getNext_cursor();
+    } while (cursor != null);
+
+    return ids;
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void cursorWalksEveryMovieOnceInOrder() {
+    assertThat(walkCursor(null, null)).containsExactly(1000001, 1000002,
+      1000003, 1000004, 1000005, 1000006, 1000007);
+    assertThat(walkCursor("rating", "desc")).containsExactly(1000002,
+      1000006, 1000004, 1000003, 1000001, 1000007, 1000005);
+    assertThat(walkCursor("date", "asc")).containsExactly(1000002, 1000001,
+      1000003, 1000004, 1000006, 1000005, 1000007);
+  }
+
+  @Test
+  void invalidCursorIsRejected() {
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, null, null, "not a cursor", 25)).isNull();
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, "poster_link", "asc", null, 25)).isNull();
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, null, null, null,
+      MovieSearchKey.MAX_PAGE_SIZE + 1)).isNull();
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, null, null, null, Integer.MAX_VALUE)).isNull();
+
+    // a cursor of the rating sort with a last value that is not a number
+    String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(
+      "k1\nrating\nav\n1000001\nabc".getBytes(StandardCharsets.UTF_8));
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, null, null, tampered, 25)).isNull();
+    String other_field = Base64.getUrlEncoder().withoutPadding()
+      .encodeToString("k1\ntagline\nav\n1000001\nx"
+        .getBytes(StandardCharsets.UTF_8));
+    assertThat(movies_service.findMoviesByCursor(null, null, null, null, null,
+      null, null, null, null, null, null, other_field, 25)).isNull();
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void sliceTellsIfANextPageExists() {
+    SliceDTO<MovieSummaryDTO> first = movies_service.findMoviesSliceWithFilters(
+      null, null, null, null, null, 2000, null, null, null, "rating", "desc", 0,
+      2);
+    SliceDTO<MovieSummaryDTO> last = movies_service.findMoviesSliceWithFilters(
+      null, null, null, null, null, 2000, null, null, null, "rating", "desc", 2,
+      2);
+
+    assertThat(first.getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000002, 1000006);
+    assertThat(first.getPage().getHas_next()).isTrue();
+    assertThat(first.getPage().getApproximate_total_elements()).isNull();
+    assertThat(last.getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001);
+    assertThat(last.getPage().getHas_next()).isFalse();
+    assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void searchReturnsDetachedSummaries() {
+    Page<MovieSummaryDTO> page = movies_service.findMoviesWithFilters(null,
+      List.of("Fantasy", " "), null, null, null, null, null, null, null, null,
+      null, 0, 25);
+
+    assertThat(page.getTotalElements()).isEqualTo(1);
+    assertThat(page.getContent().get(0).getGenres())
+      .containsExactly("Adventure", "Comedy", "Fantasy");
+    assertThat(page.getContent().get(0).getPoster()).endsWith("barbie.jpg");
+    // the search and the genres list, which is cached outside of the tests
+    assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void genreAndActorFiltersReadTheSearchTable() {
+    assertThat(movies_service.findMoviesWithFilters(null,
+      List.of("Comedy", "Fantasy"), null, null, null, null, null, null, null,
+      null, null, 0, 25).getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001);
+    assertThat(movies_service.findMoviesWithFilters(null,
+      List.of("Comedy", "Thriller"), "all", null, null, null, null, null, null,
+      null, null, 0, 25).getTotalElements()).isZero();
+    assertThat(movies_service.findMoviesWithActorId(2, null, null, null, null,
+      null, null, null, null, null, null, null, 0, 25).getContent())
+      .extracting(MovieSummaryDTO::getId).containsExactly(1000001);
+    assertThat(movies_service.findMoviesWithActorName("gosling", null, null,
+      null, null, null, null, null, null, null, null, null, 0, 25).getContent())
+      .extracting(MovieSummaryDTO::getId).containsExactly(1000001);
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void anyGenreModeMatchesOneOfTheGenres() {
+    assertThat(movies_service.findMoviesWithFilters(null,
+      List.of("Comedy", "Thriller"), "ANY", null, null, null, null, null, null,
+      "id", "asc", 0, 25).getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001, 1000002);
+    assertThat(movies_service.findMoviesSliceWithFilters(null,
+      List.of("Fantasy", "Unknown"), "any", null, null, null, null, null, null,
+      null, null, 0, 25).getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001);
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void facetsCountTheWholeSearchWithThePage() {
+    FacetedPageDTO<MovieSummaryDTO> page = movies_service.findMoviesWithFacets(
+      null, null, null, null, null, 2000, null, null, null, "id", "asc", 0, 2);
+
+    assertThat(page.getContent()).extracting(MovieSummaryDTO::getId)
+      .containsExactly(1000001, 1000002);
+    assertThat(page.getPage().totalElements()).isEqualTo(5);
+    MovieFacetsDTO facets = page.getFacets();
+    assertThat(facets.getGenres()).containsOnly(entry("Adventure", 2L),
+      entry("Comedy", 1L), entry("Fantasy", 1L), entry("Thriller", 1L));
+    assertThat(facets.getDecades()).containsExactly(entry("2010s", 1L),
+      entry("2020s", 4L));
+    assertThat(facets.getRatings()).containsExactly(entry("3-4", 1L),
+      entry("4-5", 4L));
+    assertThat(facets.getDurations()).containsExactly(entry("90-120", 2L),
+      entry("120-150", 1L), entry("150-180", 1L), entry("180+", 1L));
+
+    assertThat(movies_service.findMoviesWithFacets(null, List.of("Thriller"),
+      null, null, null, null, null, null, null, null, null, 0, 25).getFacets()
+      .getDecades()).containsExactly(entry("2010s", 1L));
+    assertThat(movies_service.findMoviesWithFacets(null, null, null, null,
+      null, 3000, null, null, null, null, null, 0, 25).getFacets()).isNull();
+  }
+
+  @Test
+  @Sql("/movie_search.sql")
+  void exportStreamsEveryMatchingMovieInOneQuery() throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    assertThat(movies_service.exportMoviesWithFilters(null, null, null, null,
+      null, null, null, null, null, null, null, null, null,
+      movie -> ids.add(movie.getId()))).isEqualTo(7);
+    assertThat(ids).containsExactly(1000001, 1000002, 1000003, 1000004,
+      1000005, 1000006, 1000007);
+    assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    try (MovieExportWriter writer = MovieExportWriter.of("CSV", null, csv)) {
+      movies_service.exportMoviesWithFilters(null, null, null, null, null,
+        null, null, 2000, null, null, null, "rating", "desc", writer);
+    }
+    assertThat(csv.toString(StandardCharsets.UTF_8).lines())
+      .hasSize(6)
+      .first().isEqualTo("id,name,date,tagline,description,minute,rating," +
+        "genres,poster");
+    assertThat(csv.toString(StandardCharsets.UTF_8).lines().skip(1)
+      .map(line -> line.substring(0, line.indexOf(','))))
+      .containsExactly("1000002", "1000006", "1000004", "1000003", "1000001");
+    assertThat(csv.toString(StandardCharsets.UTF_8)).contains("1000001," +
+      "Barbie,2023,She's everything.,Barbie goes out.,114,3.86," +
+      "Adventure|Comedy|Fantasy,https://posters/barbie.jpg\n");
+  }
+
+  @Test
+  void exportSortFieldsAreChecked() {
+    assertThat(MoviesService.isValidSortField(null)).isTrue();
+    assertThat(MoviesService.isValidSortField("id")).isTrue();
+    assertThat(MoviesService.isValidSortField("rating")).isTrue();
+    assertThat(MoviesService.isValidSortField("poster_link")).isFalse();
+    assertThat(MoviesService.isValidSortField("bogus")).isFalse();
+  }
+
+  @Test
+  void equivalentSearchesShareTheCacheKey() {
+    assertThat(MovieSearchKey.of("GodFather", List.of("Drama", "Crime", ""),
+      "all", -1f, null, 0, 2000, null, null, "rating", "", 0, 25))
+      .isEqualTo(MovieSearchKey.of("godfather", List.of("Crime", "Drama",
+        "Crime"), null, null, null, null, 2000, null, null, null, null, 0, 25));
+    assertThat(MovieSearchKey.of(null, List.of("Drama"), "any", null, null,
+      null, null, null, null, null, null, 0, 25))
+      .isEqualTo(MovieSearchKey.of(null, List.of("Drama"), null, null, null,
+        null, null, null, null, null, null, 0, 25));
+  }
+
+  @Test
+  void onlyAllAndAnyAreGenreModes() {
+    assertThat(MoviesService.isValidGenreMode(null)).isTrue();
+    assertThat(MoviesService.isValidGenreMode(" ")).isTrue();
+    assertThat(MoviesService.isValidGenreMode("ALL")).isTrue();
+    assertThat(MoviesService.isValidGenreMode("Any")).isTrue();
+    assertThat(MoviesService.isValidGenreMode("foo")).isFalse();
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.ripe_bananas.banana_bean.service;
+
+import com.ripe_bananas.banana_bean.dto.OscarStatsDTO;
+import com.ripe_bananas.banana_bean.index.OscarStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(OscarStatsService.class)
+@TestPropertySource(properties =
+  "banana_bean.oscar-stats.initial-delay=3600000")
+@Sql(statements = "INSERT INTO oscar_awards (id, year_ceremony, category, " +
+  "name, film, winner) VALUES " +
+  "(1, 1990, 'ACTOR', 'Smith', 'Alpha', true), " +
+  "(2, 1990, 'ACTRESS', 'Jones', 'Alpha', false), " +
+  "(3, 1991, 'ACTOR', 'Smith', 'Beta', false)")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(scripts = "/cleanup.sql",
+  executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class OscarStatsServiceTests {
+
+  @Autowired
+  private OscarStatsService oscar_stats_service;
+
+  @Autowired
+  private JdbcTemplate jdbc_template;
+
+  private List<OscarStatsDTO> people() {
+    return oscar_stats_service.findStats(OscarStats.Group.PERSON, null,
+      null, OscarStats.Order.WINS, 1, 25);
+  }
+
+  private OscarStatsDTO film(String film) {
+    List<OscarStatsDTO> res = oscar_stats_service.findStats(
+      OscarStats.Group.FILM, film, null, OscarStats.Order.WINS, 1, 25);
+
+    return res.isEmpty() == true ? null : res.get(0);
+  }
+
+  @Test
+  void insertedUpdatedAndDeletedAwardsAreCounted() {
+    oscar_stats_service.refreshStats();
+    assertThat(people()).containsExactly(new OscarStatsDTO("Smith", 2L, 1L,
+      0.5f), new OscarStatsDTO("Jones", 1L, 0L, 0f));
+
+    jdbc_template.update("INSERT INTO oscar_awards (id, year_ceremony, " +
+      "category, name, film, winner) VALUES (4, 1991, 'ACTRESS', 'Jones', " +
+      "'Gamma', true)");
+    oscar_stats_service.refreshStats();
+    assertThat(film("Gamma")).isEqualTo(new OscarStatsDTO("Gamma", 1L, 1L,
+      1f));
+
+    jdbc_template.update("UPDATE oscar_awards SET winner = true, " +
+      "film = 'Delta' WHERE id = 3");
+    oscar_stats_service.refreshStats();
+    assertThat(film("Beta")).isNull();
+    assertThat(film("Delta")).isEqualTo(new OscarStatsDTO("Delta", 1L, 1L,
+      1f));
+    assertThat(people()).containsExactly(new OscarStatsDTO("Smith", 2L, 2L,
+      1f), new OscarStatsDTO("Jones", 2L, 1L, 0.5f));
+
+    jdbc_template.update("DELETE FROM oscar_awards WHERE id = 1");
+    oscar_stats_service.refreshStats();
+    assertThat(film("Alpha")).isEqualTo(new OscarStatsDTO("Alpha", 1L, 0L,
+      0f));
+    assertThat(people()).containsExactly(new OscarStatsDTO("Jones", 2L, 1L,
+      0.5f), new OscarStatsDTO("Smith", 1L, 1L, 1f));
+  }
+
+  @Test
+  void sortIsCaseInsensitiveAndTheLimitPositive() {
+    oscar_stats_service.refreshStats();
+
+    assertThat(oscar_stats_service.findStats(OscarStats.Group.PERSON, null,
+      "WIN_RATE", OscarStats.Order.WINS, 1, 25))
+      .extracting(OscarStatsDTO::getKey).containsExactly("Smith", "Jones");
+    assertThat(oscar_stats_service.findStats(OscarStats.Group.PERSON, null,
+      "wins", OscarStats.Order.WINS, 1, 0)).isNull();
+    assertThat(oscar_stats_service.findStats(OscarStats.Group.PERSON, null,
+      "unknown", OscarStats.Order.WINS, 1, 25)).isNull();
+  }
+
+}
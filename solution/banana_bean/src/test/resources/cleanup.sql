@@ -0,0 +1,16 @@
+DELETE FROM oscar_awards;
+DELETE FROM movie_search;
+DELETE FROM releases;
+DELETE FROM movie_have_countries;
+DELETE FROM country;
+DELETE FROM languages;
+DELETE FROM movie_have_studios;
+DELETE FROM studio;
+DELETE FROM themes;
+DELETE FROM crew;
+DELETE FROM movies_have_actors;
+DELETE FROM actors;
+DELETE FROM movie_has_genres;
+DELETE FROM genres;
+DELETE FROM posters;
+DELETE FROM movies;
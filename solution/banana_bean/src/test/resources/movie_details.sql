@@ -0,0 +1,38 @@
+INSERT INTO movies (id, name, date, tagline, description, minute, rating)
+VALUES (1000001, 'Barbie', 2023, 'She''s everything.', 'Barbie goes out.', 114, 3.86);
+
+INSERT INTO posters (id, link) VALUES (1000001, 'https://posters/barbie.jpg');
+
+INSERT INTO genres (genre_id, genre) VALUES (1, 'Comedy'), (2, 'Adventure'),
+  (3, 'Fantasy');
+INSERT INTO movie_has_genres (movie_id, genre_id) VALUES (1000001, 1),
+  (1000001, 2), (1000001, 3);
+
+INSERT INTO actors (id, name) VALUES (1, 'Margot Robbie'), (2, 'Ryan Gosling'),
+  (3, 'America Ferrera'), (4, 'Kate McKinnon');
+INSERT INTO movies_have_actors (movie_id, actor_id, role) VALUES
+  (1000001, 1, 'Barbie'), (1000001, 2, 'Ken'), (1000001, 3, 'Gloria'),
+  (1000001, 4, 'Weird Barbie');
+
+INSERT INTO crew (id, role, name) VALUES (1000001, 'Director', 'Greta Gerwig'),
+  (1000001, 'Writer', 'Noah Baumbach'), (1000001, 'Editor', 'Nick Houy');
+
+INSERT INTO themes (id, theme) VALUES (1000001, 'Humanity and the world'),
+  (1000001, 'Dreams and identity');
+
+INSERT INTO studio (id, name) VALUES (1, 'LuckyChap Entertainment'),
+  (2, 'Heyday Films');
+INSERT INTO movie_have_studios (movie_id, studio_id) VALUES (1000001, 1),
+  (1000001, 2);
+
+INSERT INTO languages (id, type, language) VALUES
+  (1000001, 'Language', 'English'), (1000001, 'Spoken language', 'Spanish');
+
+INSERT INTO country (id, name) VALUES (1, 'USA'), (2, 'UK'), (3, 'Italy');
+INSERT INTO movie_have_countries (movie_id, country_id) VALUES (1000001, 1),
+  (1000001, 2);
+
+INSERT INTO releases (id, country, date, type, rating) VALUES
+  (1000001, 1, '2023-07-21', 'Theatrical', 'PG-13'),
+  (1000001, 2, '2023-07-21', 'Theatrical', '12A'),
+  (1000001, 3, '2023-07-20', 'Theatrical', 'T');
@@ -0,0 +1,27 @@
+INSERT INTO movies (id, name, date, tagline, description, minute, rating)
+VALUES (1000002, 'Parasite', 2019, NULL, NULL, 133, 4.56),
+  (1000003, 'Oppenheimer', 2023, NULL, NULL, 181, 4.25),
+  (1000004, 'Past Lives', 2023, NULL, NULL, 106, 4.25),
+  (1000005, 'Untitled Short', NULL, NULL, NULL, 12, NULL),
+  (1000006, 'Dune: Part Two', 2024, NULL, NULL, 167, 4.43),
+  (1000007, 'Lost Reel', NULL, NULL, NULL, NULL, NULL);
+
+INSERT INTO genres (genre_id, genre) VALUES (4, 'Thriller');
+INSERT INTO movie_has_genres (movie_id, genre_id) VALUES (1000002, 4),
+  (1000006, 2);
+
+-- the content of the movie_search materialized view, filled like
+-- banana_stem/migrations/002_movie_search.sql does
+INSERT INTO movie_search (id, name, date, tagline, description, minute,
+  rating, poster_link, genres, genre_ids, actor_ids)
+SELECT m.id, m.name, m.date, m.tagline, m.description, m.minute, m.rating,
+  p.link,
+  ARRAY(SELECT g.genre FROM movie_has_genres mg
+    JOIN genres g ON g.genre_id = mg.genre_id
+    WHERE mg.movie_id = m.id ORDER BY g.genre),
+  ARRAY(SELECT mg.genre_id FROM movie_has_genres mg
+    WHERE mg.movie_id = m.id ORDER BY mg.genre_id),
+  ARRAY(SELECT DISTINCT ma.actor_id FROM movies_have_actors ma
+    WHERE ma.movie_id = m.id ORDER BY ma.actor_id)
+FROM movies m
+LEFT JOIN posters p ON p.id = m.id;
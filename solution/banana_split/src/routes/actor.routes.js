@@ -5,6 +5,7 @@
 
 const express = require('express');
 const axios = require('axios');
+const { conditionalHeaders, copyCacheHeaders } = require('../utils/cacheHeaders');
 const router = express.Router();
 
 const SPRINGBOOT_SERVER = process.env.BANANA_BEAN_URL;
@@ -19,11 +20,17 @@ const proxyRequest = async (req, res, next) => {
       url: url,
       data: req.body,
       headers: {
-        'Content-Type': 'application/json'
+        'Content-Type': 'application/json',
+        ...conditionalHeaders(req)
       },
-      timeout: 5000
+      timeout: 5000,
+      validateStatus: (status) => (status >= 200 && status < 300) || status === 304
     });
 
+    copyCacheHeaders(response, res);
+    if (response.status === 304) {
+      return res.status(304).end();
+    }
     res.status(response.status).json(response.data);
   } catch (error) {
     if (error.response) {
@@ -39,4 +46,115 @@ const proxyRequest = async (req, res, next) => {
   }
 };
 
-router.get('/get_actors', proxyRequest)
\ No newline at end of file
+router.get('/get_actors', proxyRequest);
+
+/**
+ * @swagger
+ * /banana_bean/api/get_actors_batch:
+ *   post:
+ *     tags: [Actors]
+ *     summary: Given a list of Actor Ids extract those Actors
+ *     description: Actors are returned in the same order of the ids, unknown ids are skipped, at most 200 ids per request
+ *     requestBody:
+ *       required: true
+ *       content:
+ *         application/json:
+ *           schema:
+ *             type: array
+ *             items:
+ *               type: integer
+ *     responses:
+ *       200:
+ *         description: Actors found
+ *       400:
+ *         description: No ids or too many ids given
+ *       404:
+ *         description: Actors not found
+ */
+router.post('/get_actors_batch', proxyRequest);
+
+/**
+ * @swagger
+ * /banana_bean/api/get_shared_movies:
+ *   get:
+ *     tags: [Actors]
+ *     summary: Given two Actor Ids extract the ids of the movies in which both of them appear
+ *     parameters:
+ *       - in: query
+ *         name: actor_id
+ *         required: true
+ *         schema:
+ *           type: integer
+ *       - in: query
+ *         name: other_actor_id
+ *         required: true
+ *         schema:
+ *           type: integer
+ *     responses:
+ *       200:
+ *         description: Ids of the shared movies
+ *       404:
+ *         description: Actor/s not found
+ */
+router.get('/get_shared_movies', proxyRequest);
+
+/**
+ * @swagger
+ * /banana_bean/api/get_co_stars:
+ *   get:
+ *     tags: [Actors]
+ *     summary: Given an Actor Id extract the actors who appear with them in the most movies
+ *     parameters:
+ *       - in: query
+ *         name: actor_id
+ *         required: true
+ *         schema:
+ *           type: integer
+ *       - in: query
+ *         name: limit
+ *         schema:
+ *           type: integer
+ *           default: 10
+ *     responses:
+ *       200:
+ *         description: Ids of the co-stars with the number of shared movies
+ *       404:
+ *         description: Actor not found
+ */
+router.get('/get_co_stars', proxyRequest);
+
+/**
+ * @swagger
+ * /banana_bean/api/get_actor_path:
+ *   get:
+ *     tags: [Actors]
+ *     summary: Given two Actor Ids extract the shortest chain of co-stars linking them
+ *     parameters:
+ *       - in: query
+ *         name: actor_id
+ *         required: true
+ *         schema:
+ *           type: integer
+ *       - in: query
+ *         name: other_actor_id
+ *         required: true
+ *         schema:
+ *           type: integer
+ *       - in: query
+ *         name: max_degrees
+ *         description: Longest chain searched in movies, from 1 to 6, a larger value is lowered to 6
+ *         schema:
+ *           type: integer
+ *           minimum: 1
+ *           default: 6
+ *     responses:
+ *       200:
+ *         description: Degrees of separation with the ids of the actors and movies of the chain
+ *       400:
+ *         description: max_degrees below 1
+ *       404:
+ *         description: Actor/s not found or not linked within max_degrees movies
+ */
+router.get('/get_actor_path', proxyRequest);
+
+module.exports = router;
@@ -5,6 +5,7 @@
 
 const express = require('express');
 const axios = require('axios');
+const { conditionalHeaders, copyCacheHeaders } = require('../utils/cacheHeaders');
 const router = express.Router();
 
 const SPRINGBOOT_SERVER = process.env.BANANA_BEAN_URL;
@@ -19,11 +20,17 @@ const proxyRequest = async (req, res, next) => {
       url: url,
       data: req.body,
       headers: {
-        'Content-Type': 'application/json'
+        'Content-Type': 'application/json',
+        ...conditionalHeaders(req)
       },
-      timeout: 5000
+      timeout: 5000,
+      validateStatus: (status) => (status >= 200 && status < 300) || status === 304
     });
 
+    copyCacheHeaders(response, res);
+    if (response.status === 304) {
+      return res.status(304).end();
+    }
     res.status(response.status).json(response.data);
   } catch (error) {
     if (error.response) {
@@ -5,6 +5,7 @@
 
 const express = require('express');
 const axios = require('axios');
+const { conditionalHeaders, copyCacheHeaders } = require('../utils/cacheHeaders');
 const router = express.Router();
 
 const SPRINGBOOT_SERVER = process.env.BANANA_BEAN_URL;
@@ -19,11 +20,17 @@ const proxyRequest = async (req, res, next) => {
       url: url,
       data: req.body,
       headers: {
-        'Content-Type': 'application/json'
+        'Content-Type': 'application/json',
+        ...conditionalHeaders(req)
       },
-      timeout: 5000
+      timeout: 5000,
+      validateStatus: (status) => (status >= 200 && status < 300) || status === 304
     });
 
+    copyCacheHeaders(response, res);
+    if (response.status === 304) {
+      return res.status(304).end();
+    }
     res.status(response.status).json(response.data);
   } catch (error) {
     if (error.response) {
@@ -39,6 +46,46 @@ const proxyRequest = async (req, res, next) => {
   }
 };
 
+// Streams the response of banana_bean to the client as it arrives, for the
+// exports that are too large to be buffered
+const streamRequest = async (req, res, next) => {
+  try {
+    const url = `${SPRINGBOOT_SERVER}${req.originalUrl}`;
+
+    const response = await axios({
+      method: req.method,
+      url: url,
+      responseType: 'stream',
+      timeout: 30000
+    });
+
+    for (const name of ['content-type', 'content-disposition']) {
+      if (response.headers[name]) {
+        res.set(name, response.headers[name]);
+      }
+    }
+    res.status(response.status);
+    response.data.on('error', () => res.destroy());
+    req.on('close', () => response.data.destroy());
+    response.data.pipe(res);
+  } catch (error) {
+    if (error.response) {
+      // set by banana_bean when too many exports are already running
+      if (error.response.headers['retry-after']) {
+        res.set('retry-after', error.response.headers['retry-after']);
+      }
+      res.status(error.response.status).end();
+    } else if (error.request) {
+      res.status(503).json({
+        success: false,
+        message: 'Spring Boot service unavailable'
+      });
+    } else {
+      next(error);
+    }
+  }
+};
+
 /**
  * @swagger
  * /banana_bean/api/get_movies:
@@ -59,6 +106,13 @@ const proxyRequest = async (req, res, next) => {
  *           type: array
  *           items:
  *             type: string
+ *       - name: genre_mode
+ *         in: query
+ *         description: all to search the movies having every genre of the list, any for the ones having at least one
+ *         schema:
+ *           type: string
+ *           enum: [all, any]
+ *           default: all
  *       - name: min_year
  *         in: query
  *         description: Year of release, minimum
@@ -102,11 +156,19 @@ const proxyRequest = async (req, res, next) => {
  *         schema:
  *           type: integer
  *           default: 0
+ *       - name: with_facets
+ *         in: query
+ *         description: If true the page comes with the number of movies of the search per genre, decade, rating and duration, not allowed with with_total=false (400)
+ *         schema:
+ *           type: boolean
+ *           default: false
  *       - name: page_sz
  *         in: query
- *         description: Number of entries per page
+ *         description: Number of entries per page, at most 100, a larger value is rejected (400)
  *         schema:
  *           type: integer
+ *           minimum: 1
+ *           maximum: 100
  *           default: 25
  *     responses:
  *       200:
@@ -115,6 +177,8 @@ const proxyRequest = async (req, res, next) => {
  *           application/json:
  *             schema:
  *               $ref: '#/components/schemas/PagedMovies'
+ *       400:
+ *         description: Invalid genre_mode or page_sz, or with_facets=true with with_total=false
  *       404:
  *         description: Movies not found
  */
@@ -145,6 +209,65 @@ router.get('/get_movies', proxyRequest);
  */
 router.get('/get_movie_details/:id', proxyRequest);
 
+/**
+ * @swagger
+ * /banana_bean/api/get_similar_movies/{id}:
+ *   get:
+ *     tags: [Movies]
+ *     summary: Given a Movie Id extract the movies most similar to it
+ *     description: Movies sharing the most genres, themes, studios and main actors, best first, at most 20
+ *     parameters:
+ *       - name: id
+ *         in: path
+ *         required: true
+ *         description: Id of the movie
+ *         schema:
+ *           type: integer
+ *       - name: limit
+ *         in: query
+ *         description: Number of movies to retrieve
+ *         schema:
+ *           type: integer
+ *           default: 10
+ *     responses:
+ *       200:
+ *         description: Similar movies with their similarity score
+ *       404:
+ *         description: Movies not found
+ */
+router.get('/get_similar_movies/:id', proxyRequest);
+
+/**
+ * @swagger
+ * /banana_bean/api/get_movie_details_batch:
+ *   post:
+ *     tags: [Movies]
+ *     summary: Given a list of Movie Ids extract all the informations regarding those Movies
+ *     description: Movies are returned in the same order of the ids, unknown ids are skipped, at most 50 ids per request
+ *     requestBody:
+ *       required: true
+ *       content:
+ *         application/json:
+ *           schema:
+ *             type: array
+ *             items:
+ *               type: integer
+ *     responses:
+ *       200:
+ *         description: Details of the movies found
+ *         content:
+ *           application/json:
+ *             schema:
+ *               type: array
+ *               items:
+ *                 $ref: '#/components/schemas/Movie'
+ *       400:
+ *         description: No ids or too many ids given
+ *       404:
+ *         description: Movies not found
+ */
+router.post('/get_movie_details_batch', proxyRequest);
+
 /**
  * @swagger
  * /banana_bean/api/get_movies_with_actor:
@@ -166,9 +289,11 @@ router.get('/get_movie_details/:id', proxyRequest);
  *           default: 0
  *       - name: page_sz
  *         in: query
- *         description: Number of entries per page
+ *         description: Number of entries per page, at most 100, a larger value is rejected (400)
  *         schema:
  *           type: integer
+ *           minimum: 1
+ *           maximum: 100
  *           default: 25
  *     responses:
  *       200:
@@ -177,9 +302,60 @@ router.get('/get_movie_details/:id', proxyRequest);
  *           application/json:
  *             schema:
  *               $ref: '#/components/schemas/PagedMovies'
+ *       400:
+ *         description: Invalid genre_mode or page_sz
  *       404:
  *         description: Movies not found
  */
 router.get('/get_movies_with_actor', proxyRequest);
 
+/**
+ * @swagger
+ * /banana_bean/api/export_movies:
+ *   get:
+ *     tags: [Movies]
+ *     summary: Export all the movies matching specific search
+ *     description: Streams every movie of the search as NDJSON (one movie per line) or CSV, it takes the filters of get_movies plus actor_id and actor_name, without paging
+ *     parameters:
+ *       - name: format
+ *         in: query
+ *         description: ndjson (default) or csv
+ *         schema:
+ *           type: string
+ *           enum: [ndjson, csv]
+ *       - name: movie_name
+ *         in: query
+ *         description: Name of the movie
+ *         schema:
+ *           type: string
+ *       - name: genres
+ *         in: query
+ *         description: List of genres to search the movie with
+ *         schema:
+ *           type: array
+ *           items:
+ *             type: string
+ *       - name: sort_by
+ *         in: query
+ *         description: Sort field, the movies are sorted by id when not given
+ *         schema:
+ *           type: string
+ *           enum: [id, name, date, rating, minute]
+ *     responses:
+ *       200:
+ *         description: The movies, written while they are read
+ *         content:
+ *           application/x-ndjson:
+ *             schema:
+ *               $ref: '#/components/schemas/BasicMovie'
+ *           text/csv:
+ *             schema:
+ *               type: string
+ *       400:
+ *         description: Invalid genre_mode or sort_by
+ *       503:
+ *         description: Too many exports running, retry after the Retry-After delay
+ */
+router.get('/export_movies', streamRequest);
+
 module.exports = router;
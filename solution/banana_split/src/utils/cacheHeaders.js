@@ -0,0 +1,28 @@
+/**
+ * HTTP cache headers shared by the routes proxied to banana_bean
+ */
+
+// Validators of the client cache, forwarded so banana_bean can answer 304
+const conditionalHeaders = (req) => {
+  const headers = {};
+  for (const name of ['if-none-match', 'if-modified-since']) {
+    if (req.headers[name]) {
+      headers[name] = req.headers[name];
+    }
+  }
+  return headers;
+};
+
+// Caching headers set by banana_bean, passed on to the client
+const copyCacheHeaders = (response, res) => {
+  for (const name of ['etag', 'last-modified', 'cache-control']) {
+    if (response.headers[name]) {
+      res.set(name, response.headers[name]);
+    }
+  }
+};
+
+module.exports = {
+  conditionalHeaders,
+  copyCacheHeaders
+};
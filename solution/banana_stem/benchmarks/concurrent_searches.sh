@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Throughput of many concurrent slow searches against a running banana_bean.
+#
+# Run it once with the server started with VIRTUAL_THREADS=false and once
+# with VIRTUAL_THREADS=true, keeping DB_POOL_SIZE the same:
+#
+#   BASE_URL=http://localhost:8080 CONCURRENCY=400 REQUESTS=4000 \
+#     ./concurrent_searches.sh
+#
+# With platform threads at most server.tomcat.threads.max (200) requests
+# are in flight. With virtual threads RequestLimitFilter lets at most
+# DB_POOL_SIZE (20) of them in, the others wait up to DB_POOL_TIMEOUT for
+# their turn. A search holds one of the 20 pool connections while it runs
+# in both modes, so the pool is the bottleneck and no gain is expected
+# unless the pool and the limit are sized up together. VIRTUAL_THREADS is
+# experimental: no numbers have been recorded yet, run this before turning
+# it on by default.
+# The search is a case insensitive name search sorted by rating on a deep
+# page, it spends most of its time waiting on PostgreSQL. It asks for a
+# slice (with_total=false) because those results are not cached.
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+CONCURRENCY=${CONCURRENCY:-400}
+REQUESTS=${REQUESTS:-4000}
+SEARCH=${SEARCH:-"/api/movies/get_movies?movie_name=the&sort_by=rating&sort_direction=desc&page_num=200&page_sz=25&with_total=false"}
+
+start=$(date +%s.%N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+  curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+  "$BASE_URL$SEARCH" > /tmp/concurrent_searches.out
+end=$(date +%s.%N)
+
+sort -k2 -n /tmp/concurrent_searches.out | awk -v start="$start" -v end="$end" '
+  { codes[$1]++; times[NR] = $2 }
+  END {
+    elapsed = end - start
+    printf "requests: %d in %.2fs, %.1f req/s\n", NR, elapsed, NR / elapsed
+    printf "p50: %.3fs p99: %.3fs max: %.3fs\n", times[int(NR * 0.50)],
+      times[int(NR * 0.99)], times[NR]
+    for (code in codes) {
+      printf "HTTP %s: %d\n", code, codes[code]
+    }
+  }'
@@ -0,0 +1,69 @@
+-- Latency of the name searches with and without the trigram indexes of
+-- migrations/001_trigram_search.sql.
+-- Every search is run once without the index (dropped inside a transaction
+-- that is rolled back, so nothing changes) and once with it, the queries
+-- are the ones Hibernate generates for the search endpoints.
+-- Run with: psql -f benchmarks/trigram_search.sql | grep -E "Execution|Scan"
+\timing on
+
+-- Movies searched by name, default page of 25 with the count query
+BEGIN;
+DROP INDEX movies_name_trgm_idx;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT id, name, date, rating FROM movies
+  WHERE lower(name) LIKE '%godfather%'
+  ORDER BY similarity(lower(name), 'godfather') DESC LIMIT 25;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT count(id) FROM movies WHERE lower(name) LIKE '%godfather%';
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT id, name, date, rating FROM movies
+  WHERE lower(name) LIKE '%godfather%'
+  ORDER BY similarity(lower(name), 'godfather') DESC LIMIT 25;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT count(id) FROM movies WHERE lower(name) LIKE '%godfather%';
+
+-- Actors searched by name, the type-ahead of the frontend
+BEGIN;
+DROP INDEX actors_name_trgm_idx;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT id, name FROM actors WHERE lower(name) LIKE '%pacino%'
+  ORDER BY similarity(lower(name), 'pacino') DESC LIMIT 25;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT id, name FROM actors WHERE lower(name) LIKE '%pacino%'
+  ORDER BY similarity(lower(name), 'pacino') DESC LIMIT 25;
+
+-- Movies of an actor searched by name
+BEGIN;
+DROP INDEX actors_name_trgm_idx;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT m.id, m.name FROM movies m
+  JOIN movies_have_actors ma ON ma.movie_id = m.id
+  JOIN actors a ON a.id = ma.actor_id
+  WHERE lower(a.name) LIKE '%pacino%' LIMIT 25;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT m.id, m.name FROM movies m
+  JOIN movies_have_actors ma ON ma.movie_id = m.id
+  JOIN actors a ON a.id = ma.actor_id
+  WHERE lower(a.name) LIKE '%pacino%' LIMIT 25;
+
+-- Oscar awards searched by nominee, film and category
+BEGIN;
+DROP INDEX oscar_awards_name_trgm_idx;
+DROP INDEX oscar_awards_film_trgm_idx;
+DROP INDEX oscar_awards_category_trgm_idx;
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT * FROM oscar_awards
+  WHERE lower(film) LIKE '%godfather%' AND lower(category) LIKE '%actor%'
+  LIMIT 25;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+  SELECT * FROM oscar_awards
+  WHERE lower(film) LIKE '%godfather%' AND lower(category) LIKE '%actor%'
+  LIMIT 25;
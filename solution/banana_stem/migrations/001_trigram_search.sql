@@ -0,0 +1,28 @@
+-- Trigram indexes for the name searches of banana_bean.
+-- The searches filter with lower(column) LIKE '%term%', a B-tree index can
+-- not serve a pattern with a leading wildcard, a GIN index with the pg_trgm
+-- operator class on the same lower(column) expression can, and it also
+-- serves the similarity() ranking of the results.
+-- CREATE INDEX CONCURRENTLY can not run inside a transaction, run the file
+-- with autocommit (psql -f does).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movies_name_trgm_idx
+  ON movies USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS actors_name_trgm_idx
+  ON actors USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS oscar_awards_name_trgm_idx
+  ON oscar_awards USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS oscar_awards_film_trgm_idx
+  ON oscar_awards USING gin (lower(film) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS oscar_awards_category_trgm_idx
+  ON oscar_awards USING gin (lower(category) gin_trgm_ops);
+
+ANALYZE movies;
+ANALYZE actors;
+ANALYZE oscar_awards;
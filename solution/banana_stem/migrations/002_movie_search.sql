@@ -0,0 +1,50 @@
+-- Denormalized read model of the movie searches of banana_bean.
+-- One row per movie with the columns of the search results, the poster
+-- link, the genres (names for display, ids for filtering) and the ids of
+-- the actors, so that a search reads a single table: a multi genre filter
+-- is genre_ids @> ARRAY[...] and an actor filter actor_ids @> ARRAY[id],
+-- both served by the GIN indexes below instead of one join per genre.
+-- banana_bean refreshes it every banana_bean.movie-search.refresh-interval,
+-- REFRESH ... CONCURRENTLY needs the unique index on id.
+-- CREATE INDEX CONCURRENTLY can not run inside a transaction, run the file
+-- with autocommit (psql -f does). Needs 001_trigram_search.sql (pg_trgm).
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS movie_search AS
+SELECT m.id, m.name, m.date, m.tagline, m.description, m.minute, m.rating,
+  p.link AS poster_link,
+  ARRAY(SELECT g.genre FROM movie_has_genres mg
+    JOIN genres g ON g.genre_id = mg.genre_id
+    WHERE mg.movie_id = m.id ORDER BY g.genre) AS genres,
+  ARRAY(SELECT mg.genre_id FROM movie_has_genres mg
+    WHERE mg.movie_id = m.id ORDER BY mg.genre_id) AS genre_ids,
+  ARRAY(SELECT DISTINCT ma.actor_id FROM movies_have_actors ma
+    WHERE ma.movie_id = m.id ORDER BY ma.actor_id) AS actor_ids
+FROM movies m
+LEFT JOIN posters p ON p.id = m.id;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS movie_search_id_idx
+  ON movie_search (id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_genre_ids_idx
+  ON movie_search USING gin (genre_ids);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_actor_ids_idx
+  ON movie_search USING gin (actor_ids);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_name_trgm_idx
+  ON movie_search USING gin (lower(name) gin_trgm_ops);
+
+-- keyset pagination on the sortable columns (see BasicMoviesSpecifications)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_rating_idx
+  ON movie_search (rating, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_date_idx
+  ON movie_search (date, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_minute_idx
+  ON movie_search (minute, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movie_search_name_idx
+  ON movie_search (name, id);
+
+ANALYZE movie_search;
@@ -0,0 +1,40 @@
+-- Version of the data served by banana_bean, used in the ETags of its
+-- responses (see DatasetVersionService). A single row whose version is
+-- bumped by a statement level trigger on every table the API reads, so it
+-- only ever grows, it is the same for every instance and, unlike the
+-- pg_stat counters, it is not reset by a crash or pg_stat_reset().
+
+CREATE TABLE IF NOT EXISTS data_version (
+  id boolean PRIMARY KEY DEFAULT true CHECK (id),
+  version bigint NOT NULL,
+  changed_at timestamptz NOT NULL
+);
+
+INSERT INTO data_version (id, version, changed_at)
+VALUES (true, 1, now())
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_data_version() RETURNS trigger AS $$
+BEGIN
+  UPDATE data_version SET version = version + 1, changed_at = now();
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+  t text;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['movies', 'posters', 'genres', 'movie_has_genres',
+    'actors', 'movies_have_actors', 'crew', 'themes', 'studio',
+    'movie_have_studios', 'country', 'movie_have_countries', 'languages',
+    'releases', 'oscar_awards']
+  LOOP
+    EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I',
+      t || '_data_version', t);
+    EXECUTE format('CREATE TRIGGER %I AFTER INSERT OR UPDATE OR DELETE OR ' ||
+      'TRUNCATE ON %I FOR EACH STATEMENT EXECUTE FUNCTION bump_data_version()',
+      t || '_data_version', t);
+  END LOOP;
+END;
+$$;